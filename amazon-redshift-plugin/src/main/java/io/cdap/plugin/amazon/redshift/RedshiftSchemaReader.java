@@ -23,7 +23,6 @@ import io.cdap.plugin.db.CommonSchemaReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
@@ -96,9 +95,8 @@ public class RedshiftSchemaReader extends CommonSchemaReader {
   }
 
   @Override
-  public List<Schema.Field> getSchemaFields(ResultSet resultSet) throws SQLException {
+  public List<Schema.Field> getSchemaFields(ResultSetMetaData metadata) throws SQLException {
     List<Schema.Field> schemaFields = Lists.newArrayList();
-    ResultSetMetaData metadata = resultSet.getMetaData();
     // ResultSetMetadata columns are numbered starting with 1
     for (int i = 1; i <= metadata.getColumnCount(); i++) {
       if (shouldIgnoreColumn(metadata, i)) {
@@ -28,4 +28,7 @@ public final class AuroraMysqlConstants {
   public static final String PLUGIN_NAME = "AuroraMysql";
   public static final String AURORA_MYSQL_CONNECTION_STRING_FORMAT = "jdbc:mysql://%s:%s/%s";
   public static final String AUTO_RECONNECT = "autoReconnect";
+  public static final String SPLIT_MODE_PARTITION = "partition";
+  public static final String REPLICA_LAG_QUERY = "SELECT REPLICA_LAG_IN_MILLISECONDS / 1000 " +
+    "FROM information_schema.REPLICA_HOST_STATUS WHERE SERVER_ID = @@aurora_server_id";
 }
@@ -18,12 +18,19 @@ package io.cdap.plugin.auroradb.mysql;
 
 import com.google.common.collect.ImmutableMap;
 import io.cdap.cdap.api.annotation.Description;
+import io.cdap.cdap.api.annotation.Macro;
 import io.cdap.cdap.api.annotation.Name;
 import io.cdap.cdap.api.annotation.Plugin;
 import io.cdap.cdap.etl.api.batch.BatchSource;
+import io.cdap.plugin.db.ConnectionConfig;
 import io.cdap.plugin.db.config.DBSpecificSourceConfig;
 import io.cdap.plugin.db.source.AbstractDBSource;
+import io.cdap.plugin.db.source.MysqlPartitionSplitPlanner;
+import io.cdap.plugin.db.source.SplitPlanner;
+import io.cdap.plugin.util.DBUtils;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 
@@ -49,6 +56,30 @@ public class AuroraMysqlSource extends AbstractDBSource<AuroraMysqlSource.Aurora
                          auroraMysqlSourceConfig.host, auroraMysqlSourceConfig.port, auroraMysqlSourceConfig.database);
   }
 
+  @Override
+  protected List<String> createReplicaConnectionStrings() {
+    return DBUtils.createReplicaConnectionStrings(AuroraMysqlConstants.AURORA_MYSQL_CONNECTION_STRING_FORMAT,
+                                                  auroraMysqlSourceConfig.readReplicas, auroraMysqlSourceConfig.port,
+                                                  auroraMysqlSourceConfig.database);
+  }
+
+  @Override
+  protected String getReplicaLagQuery() {
+    return AuroraMysqlConstants.REPLICA_LAG_QUERY;
+  }
+
+  @Override
+  protected Integer getMaxReplicaLag() {
+    return auroraMysqlSourceConfig.maxReplicaLag;
+  }
+
+  @Nullable
+  @Override
+  protected Class<? extends SplitPlanner> getSplitPlanner() {
+    return AuroraMysqlConstants.SPLIT_MODE_PARTITION.equals(auroraMysqlSourceConfig.getSplitMode())
+      ? MysqlPartitionSplitPlanner.class : null;
+  }
+
   /**
    * Aurora DB MySQL source config.
    */
@@ -59,6 +90,21 @@ public class AuroraMysqlSource extends AbstractDBSource<AuroraMysqlSource.Aurora
     @Nullable
     public Boolean autoReconnect;
 
+    @Name(ConnectionConfig.READ_REPLICAS)
+    @Description("Comma-separated list of the instance endpoints of the Aurora Replicas to read the splits from, " +
+      "each optionally followed by ':' and the port. Splits are read from the cluster endpoint if no replica " +
+      "is available.")
+    @Nullable
+    @Macro
+    public String readReplicas;
+
+    @Name(ConnectionConfig.MAX_REPLICA_LAG)
+    @Description("Maximum replication lag in seconds of an Aurora Replica for splits to be read from it. " +
+      "Defaults to 60 seconds.")
+    @Nullable
+    @Macro
+    public Integer maxReplicaLag;
+
     @Override
     public String getConnectionString() {
       return String.format(AuroraMysqlConstants.AURORA_MYSQL_CONNECTION_STRING_FORMAT, host, port, database);
@@ -72,5 +118,10 @@ public class AuroraMysqlSource extends AbstractDBSource<AuroraMysqlSource.Aurora
         return ImmutableMap.of();
       }
     }
+
+    @Override
+    protected List<String> getSplitModes() {
+      return Arrays.asList(SPLIT_MODE_RANGE, AuroraMysqlConstants.SPLIT_MODE_PARTITION);
+    }
   }
 }
@@ -28,6 +28,8 @@ public final class AuroraPostgresConstants {
   public static final String PLUGIN_NAME = "AuroraPostgres";
   public static final String AURORA_POSTGRES_CONNECTION_STRING_FORMAT = "jdbc:postgresql://%s:%s/%s";
   public static final String CONNECTION_TIMEOUT = "connectionTimeout";
+  public static final String REPLICA_LAG_QUERY = "SELECT replica_lag_in_msec / 1000.0 FROM aurora_replica_status() " +
+    "WHERE server_id = aurora_db_instance_identifier()";
   public static final String CONNECTION_TIMEOUT_DESCRIPTION =
     "The timeout value used for socket connect operations. If connecting to the server takes longer" +
     " than this value, the connection is broken. " +
@@ -18,14 +18,18 @@ package io.cdap.plugin.auroradb.postgres;
 
 import com.google.common.collect.ImmutableMap;
 import io.cdap.cdap.api.annotation.Description;
+import io.cdap.cdap.api.annotation.Macro;
 import io.cdap.cdap.api.annotation.Name;
 import io.cdap.cdap.api.annotation.Plugin;
 import io.cdap.cdap.etl.api.batch.BatchSource;
+import io.cdap.plugin.db.ConnectionConfig;
 import io.cdap.plugin.db.SchemaReader;
 import io.cdap.plugin.db.config.DBSpecificSourceConfig;
 import io.cdap.plugin.db.source.AbstractDBSource;
+import io.cdap.plugin.util.DBUtils;
 import org.apache.hadoop.mapreduce.lib.db.DBWritable;
 
+import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 
@@ -52,6 +56,24 @@ public class AuroraPostgresSource extends AbstractDBSource<AuroraPostgresSource.
                          auroraPostgresSourceConfig.database);
   }
 
+  @Override
+  protected List<String> createReplicaConnectionStrings() {
+    return DBUtils.createReplicaConnectionStrings(AuroraPostgresConstants.AURORA_POSTGRES_CONNECTION_STRING_FORMAT,
+                                                  auroraPostgresSourceConfig.readReplicas,
+                                                  auroraPostgresSourceConfig.port,
+                                                  auroraPostgresSourceConfig.database);
+  }
+
+  @Override
+  protected String getReplicaLagQuery() {
+    return AuroraPostgresConstants.REPLICA_LAG_QUERY;
+  }
+
+  @Override
+  protected Integer getMaxReplicaLag() {
+    return auroraPostgresSourceConfig.maxReplicaLag;
+  }
+
   @Override
   protected SchemaReader getSchemaReader() {
     return new AuroraPostgresSchemaReader();
@@ -72,6 +94,21 @@ public class AuroraPostgresSource extends AbstractDBSource<AuroraPostgresSource.
     @Nullable
     public Integer connectionTimeout;
 
+    @Name(ConnectionConfig.READ_REPLICAS)
+    @Description("Comma-separated list of the instance endpoints of the Aurora Replicas to read the splits from, " +
+      "each optionally followed by ':' and the port. Splits are read from the cluster endpoint if no replica " +
+      "is available.")
+    @Nullable
+    @Macro
+    public String readReplicas;
+
+    @Name(ConnectionConfig.MAX_REPLICA_LAG)
+    @Description("Maximum replication lag in seconds of an Aurora Replica for splits to be read from it. " +
+      "Defaults to 60 seconds.")
+    @Nullable
+    @Macro
+    public Integer maxReplicaLag;
+
     @Override
     public String getConnectionString() {
       return String.format(AuroraPostgresConstants.AURORA_POSTGRES_CONNECTION_STRING_FORMAT, host, port, database);
@@ -31,6 +31,7 @@ import io.cdap.cdap.etl.api.connector.Connector;
 import io.cdap.plugin.common.Asset;
 import io.cdap.plugin.common.ConfigUtil;
 import io.cdap.plugin.common.LineageRecorder;
+import io.cdap.plugin.db.ConnectionConfig;
 import io.cdap.plugin.db.config.AbstractDBSpecificSourceConfig;
 import io.cdap.plugin.db.source.AbstractDBSource;
 import io.cdap.plugin.mysql.MysqlDBRecord;
@@ -38,8 +39,10 @@ import io.cdap.plugin.util.CloudSQLUtil;
 import io.cdap.plugin.util.DBUtils;
 import org.apache.hadoop.mapreduce.lib.db.DBWritable;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 
@@ -81,11 +84,34 @@ public class CloudSQLMySQLSource extends AbstractDBSource<CloudSQLMySQLSource.Cl
 
   @Override
   protected String createConnectionString() {
+    return createConnectionString(cloudsqlMysqlSourceConfig.connection.getConnectionName());
+  }
+
+  @Override
+  protected List<String> createReplicaConnectionStrings() {
+    List<String> connectionStrings = new ArrayList<>();
+    for (String replica : DBUtils.parseReadReplicas(cloudsqlMysqlSourceConfig.readReplicas)) {
+      connectionStrings.add(createConnectionString(replica));
+    }
+    return connectionStrings;
+  }
+
+  @Override
+  protected String getReplicaLagQuery() {
+    return CloudSQLMySQLConstants.REPLICA_LAG_QUERY;
+  }
+
+  @Override
+  protected Integer getMaxReplicaLag() {
+    return cloudsqlMysqlSourceConfig.maxReplicaLag;
+  }
+
+  private String createConnectionString(String connectionName) {
     if (CloudSQLUtil.PRIVATE_INSTANCE.equalsIgnoreCase(
         cloudsqlMysqlSourceConfig.connection.getInstanceType())) {
       return String.format(
           CloudSQLMySQLConstants.PRIVATE_CLOUDSQL_MYSQL_CONNECTION_STRING_FORMAT,
-          cloudsqlMysqlSourceConfig.connection.getConnectionName(),
+          connectionName,
           cloudsqlMysqlSourceConfig.connection.getPort(),
           cloudsqlMysqlSourceConfig.connection.getDatabase());
     }
@@ -93,7 +119,7 @@ public class CloudSQLMySQLSource extends AbstractDBSource<CloudSQLMySQLSource.Cl
     return String.format(
         CloudSQLMySQLConstants.PUBLIC_CLOUDSQL_MYSQL_CONNECTION_STRING_FORMAT,
         cloudsqlMysqlSourceConfig.connection.getDatabase(),
-        cloudsqlMysqlSourceConfig.connection.getConnectionName());
+        connectionName);
   }
 
   @Override
@@ -134,6 +160,21 @@ public class CloudSQLMySQLSource extends AbstractDBSource<CloudSQLMySQLSource.Cl
     @Description("The existing connection to use.")
     private CloudSQLMySQLConnectorConfig connection;
 
+    @Name(ConnectionConfig.READ_REPLICAS)
+    @Macro
+    @Nullable
+    @Description("Comma-separated list of the read replicas to read the splits from. Each read replica is identified "
+      + "by its instance connection name, or by its private IP address for private instances. Splits are read from "
+      + "the primary instance if no read replica is available.")
+    private String readReplicas;
+
+    @Name(ConnectionConfig.MAX_REPLICA_LAG)
+    @Macro
+    @Nullable
+    @Description("Maximum replication lag in seconds of a read replica for splits to be read from it. "
+      + "Defaults to 60 seconds.")
+    private Integer maxReplicaLag;
+
     @Override
     protected Map<String, String> getDBSpecificArguments() {
       if (getFetchSize() == null || getFetchSize() <= 0) {
@@ -31,6 +31,7 @@ import io.cdap.cdap.etl.api.connector.Connector;
 import io.cdap.plugin.common.Asset;
 import io.cdap.plugin.common.ConfigUtil;
 import io.cdap.plugin.common.LineageRecorder;
+import io.cdap.plugin.db.ConnectionConfig;
 import io.cdap.plugin.db.SchemaReader;
 import io.cdap.plugin.db.config.AbstractDBSpecificSourceConfig;
 import io.cdap.plugin.db.source.AbstractDBSource;
@@ -40,7 +41,9 @@ import io.cdap.plugin.util.CloudSQLUtil;
 import io.cdap.plugin.util.DBUtils;
 import org.apache.hadoop.mapreduce.lib.db.DBWritable;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 
@@ -88,11 +91,34 @@ public class CloudSQLPostgreSQLSource
 
   @Override
   protected String createConnectionString() {
+    return createConnectionString(cloudsqlPostgresqlSourceConfig.connection.getConnectionName());
+  }
+
+  @Override
+  protected List<String> createReplicaConnectionStrings() {
+    List<String> connectionStrings = new ArrayList<>();
+    for (String replica : DBUtils.parseReadReplicas(cloudsqlPostgresqlSourceConfig.readReplicas)) {
+      connectionStrings.add(createConnectionString(replica));
+    }
+    return connectionStrings;
+  }
+
+  @Override
+  protected String getReplicaLagQuery() {
+    return CloudSQLPostgreSQLConstants.REPLICA_LAG_QUERY;
+  }
+
+  @Override
+  protected Integer getMaxReplicaLag() {
+    return cloudsqlPostgresqlSourceConfig.maxReplicaLag;
+  }
+
+  private String createConnectionString(String connectionName) {
     if (CloudSQLUtil.PRIVATE_INSTANCE.equalsIgnoreCase(
         cloudsqlPostgresqlSourceConfig.connection.getInstanceType())) {
       return String.format(
           CloudSQLPostgreSQLConstants.PRIVATE_CLOUDSQL_POSTGRES_CONNECTION_STRING_FORMAT,
-          cloudsqlPostgresqlSourceConfig.connection.getConnectionName(),
+          connectionName,
           cloudsqlPostgresqlSourceConfig.connection.getPort(),
           cloudsqlPostgresqlSourceConfig.connection.getDatabase());
     }
@@ -100,7 +126,7 @@ public class CloudSQLPostgreSQLSource
     return String.format(
         CloudSQLPostgreSQLConstants.PUBLIC_CLOUDSQL_POSTGRES_CONNECTION_STRING_FORMAT,
         cloudsqlPostgresqlSourceConfig.connection.getDatabase(),
-        cloudsqlPostgresqlSourceConfig.connection.getConnectionName());
+        connectionName);
   }
 
   @Override
@@ -142,6 +168,21 @@ public class CloudSQLPostgreSQLSource
     @Description("The existing connection to use.")
     private CloudSQLPostgreSQLConnectorConfig connection;
 
+    @Name(ConnectionConfig.READ_REPLICAS)
+    @Macro
+    @Nullable
+    @Description("Comma-separated list of the read replicas to read the splits from. Each read replica is identified "
+      + "by its instance connection name, or by its private IP address for private instances. Splits are read from "
+      + "the primary instance if no read replica is available.")
+    private String readReplicas;
+
+    @Name(ConnectionConfig.MAX_REPLICA_LAG)
+    @Macro
+    @Nullable
+    @Description("Maximum replication lag in seconds of a read replica for splits to be read from it. "
+      + "Defaults to 60 seconds.")
+    private Integer maxReplicaLag;
+
     @Override
     protected Map<String, String> getDBSpecificArguments() {
       return Collections.emptyMap();
@@ -32,8 +32,12 @@ public class CommonSchemaReader implements SchemaReader {
 
   @Override
   public List<Schema.Field> getSchemaFields(ResultSet resultSet) throws SQLException {
+    return getSchemaFields(resultSet.getMetaData());
+  }
+
+  @Override
+  public List<Schema.Field> getSchemaFields(ResultSetMetaData metadata) throws SQLException {
     List<Schema.Field> schemaFields = Lists.newArrayList();
-    ResultSetMetaData metadata = resultSet.getMetaData();
     // ResultSetMetadata columns are numbered starting with 1
     for (int i = 1; i <= metadata.getColumnCount(); i++) {
       if (shouldIgnoreColumn(metadata, i)) {
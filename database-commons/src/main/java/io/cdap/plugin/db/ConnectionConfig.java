@@ -45,6 +45,10 @@ public abstract class ConnectionConfig extends PluginConfig implements DatabaseC
   public static final String CONNECTION_ARGUMENTS = "connectionArguments";
   public static final String JDBC_PLUGIN_NAME = "jdbcPluginName";
   public static final String JDBC_PLUGIN_TYPE = "jdbc";
+  public static final String READ_REPLICAS = "readReplicas";
+  public static final String MAX_REPLICA_LAG = "maxReplicaLag";
+  public static final String SHARD_CONNECTION_STRINGS = "shardConnectionStrings";
+  public static final String SHARD_MAP_QUERY = "shardMapQuery";
 
   @Name(JDBC_PLUGIN_NAME)
   @Description("Name of the JDBC driver to use. This is the value of the 'jdbcPluginName' key defined in the JSON " +
@@ -19,12 +19,14 @@ package io.cdap.plugin.db;
 import com.google.common.base.Strings;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import io.cdap.plugin.db.source.SplitPlanner;
 import org.apache.hadoop.conf.Configuration;
 
 import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 
 /**
  * Allows to specify and access connection configuration properties of {@link Configuration}.
@@ -38,6 +40,15 @@ public class ConnectionConfigAccessor {
   public static final String FETCH_SIZE = "io.cdap.plugin.db.fetch.size";
   public static final String OPERATION_NAME = "io.cdap.plugin.db.operation.name";
   public static final String RELATION_TABLE_KEY = "io.cdap.plugin.db.relation.table.key";
+  private static final String REPLICA_CONNECTION_STRINGS = "io.cdap.plugin.db.replica.connection.strings";
+  public static final String REPLICA_LAG_QUERY = "io.cdap.plugin.db.replica.lag.query";
+  public static final String MAX_REPLICA_LAG = "io.cdap.plugin.db.replica.max.lag";
+  // seconds
+  private static final int DEFAULT_MAX_REPLICA_LAG = 60;
+  private static final String SHARD_CONNECTION_STRINGS = "io.cdap.plugin.db.shard.connection.strings";
+  public static final String SHARD_MAP_QUERY = "io.cdap.plugin.db.shard.map.query";
+  public static final String SPLIT_PLANNER = "io.cdap.plugin.db.split.planner";
+  public static final String SPLIT_TABLE = "io.cdap.plugin.db.split.table";
 
   private static final Gson GSON = new Gson();
   private static final Type STRING_MAP_TYPE = new TypeToken<Map<String, String>>() { }.getType();
@@ -85,6 +96,72 @@ public class ConnectionConfigAccessor {
     return GSON.fromJson(configuration.get(INIT_QUERIES), STRING_LIST_TYPE);
   }
 
+  public void setReplicaConnectionStrings(List<String> connectionStrings) {
+    configuration.set(REPLICA_CONNECTION_STRINGS, GSON.toJson(connectionStrings, STRING_LIST_TYPE));
+  }
+
+  public List<String> getReplicaConnectionStrings() {
+    if (Strings.isNullOrEmpty(configuration.get(REPLICA_CONNECTION_STRINGS))) {
+      return Collections.emptyList();
+    }
+    return GSON.fromJson(configuration.get(REPLICA_CONNECTION_STRINGS), STRING_LIST_TYPE);
+  }
+
+  public void setReplicaLagQuery(String replicaLagQuery) {
+    configuration.set(REPLICA_LAG_QUERY, replicaLagQuery);
+  }
+
+  @Nullable
+  public String getReplicaLagQuery() {
+    return configuration.get(REPLICA_LAG_QUERY);
+  }
+
+  public void setMaxReplicaLag(int maxReplicaLag) {
+    configuration.setInt(MAX_REPLICA_LAG, maxReplicaLag);
+  }
+
+  public int getMaxReplicaLag() {
+    return configuration.getInt(MAX_REPLICA_LAG, DEFAULT_MAX_REPLICA_LAG);
+  }
+
+  public void setShardConnectionStrings(List<String> connectionStrings) {
+    configuration.set(SHARD_CONNECTION_STRINGS, GSON.toJson(connectionStrings, STRING_LIST_TYPE));
+  }
+
+  public List<String> getShardConnectionStrings() {
+    if (Strings.isNullOrEmpty(configuration.get(SHARD_CONNECTION_STRINGS))) {
+      return Collections.emptyList();
+    }
+    return GSON.fromJson(configuration.get(SHARD_CONNECTION_STRINGS), STRING_LIST_TYPE);
+  }
+
+  public void setShardMapQuery(String shardMapQuery) {
+    configuration.set(SHARD_MAP_QUERY, shardMapQuery);
+  }
+
+  @Nullable
+  public String getShardMapQuery() {
+    return configuration.get(SHARD_MAP_QUERY);
+  }
+
+  public void setSplitPlanner(Class<? extends SplitPlanner> splitPlanner) {
+    configuration.setClass(SPLIT_PLANNER, splitPlanner, SplitPlanner.class);
+  }
+
+  @Nullable
+  public Class<? extends SplitPlanner> getSplitPlanner() {
+    return configuration.getClass(SPLIT_PLANNER, null, SplitPlanner.class);
+  }
+
+  public void setSplitTable(String splitTable) {
+    configuration.set(SPLIT_TABLE, splitTable);
+  }
+
+  @Nullable
+  public String getSplitTable() {
+    return configuration.get(SPLIT_TABLE);
+  }
+
   public void setSchema(String schema) {
     configuration.set(OVERRIDE_SCHEMA, schema);
   }
@@ -0,0 +1,358 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pool of JDBC connections shared by the sources, sinks, actions and connectors that run in the same JVM and are
+ * loaded by the same class loader.
+ * <p>
+ * Connections are pooled by connection string, connection arguments (which include the credentials), init queries and
+ * the class loader of the JDBC driver that accepts the connection string. Closing a pooled connection rolls back any
+ * pending transaction, restores the auto-commit mode, read-only flag and transaction isolation level the connection
+ * was opened with and returns it to the pool. Connections that have been idle for a while are validated before they
+ * are handed out again. Idle connections are closed once they stay idle longer than the idle timeout, independently of
+ * whether the JDBC driver they were opened with is still acquired from the {@link DriverRegistry}. A connection is
+ * therefore reused by the next caller with the same key even if the driver was released in between, and the class
+ * loader of the driver is held for at most the idle timeout after its last connection was returned.
+ * <p>
+ * Connections used by the record readers and writers of a task are not pooled, since they are held for the whole task.
+ */
+public final class ConnectionPool {
+  private static final Logger LOG = LoggerFactory.getLogger(ConnectionPool.class);
+  private static final int MAX_IDLE_CONNECTIONS = 4;
+  private static final long IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  private static final long VALIDATION_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(5);
+  private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+  private static final ConnectionPool INSTANCE =
+    new ConnectionPool(MAX_IDLE_CONNECTIONS, IDLE_TIMEOUT_MILLIS, VALIDATION_INTERVAL_MILLIS);
+
+  private final int maxIdleConnections;
+  private final long idleTimeoutMillis;
+  private final long validationIntervalMillis;
+  private final Map<Key, Deque<IdleConnection>> idleConnections = new HashMap<>();
+  private ScheduledExecutorService evictor;
+
+  @VisibleForTesting
+  ConnectionPool(int maxIdleConnections, long idleTimeoutMillis, long validationIntervalMillis) {
+    this.maxIdleConnections = maxIdleConnections;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.validationIntervalMillis = validationIntervalMillis;
+  }
+
+  /**
+   * Returns a pooled connection to the given database. The connection is returned to the pool when it is closed.
+   *
+   * @param driver JDBC driver to open new connections with
+   * @param connectionString JDBC connection string
+   * @param connectionArguments connection arguments, including the credentials
+   * @return pooled connection
+   * @throws SQLException if no pooled connection is available and a new connection could not be opened
+   */
+  public static Connection getConnection(Driver driver, String connectionString, Properties connectionArguments)
+    throws SQLException {
+    return INSTANCE.borrow(driver, connectionString, connectionArguments, Collections.emptyList());
+  }
+
+  /**
+   * Returns a pooled connection to the given database on which the init queries have been executed. The init queries
+   * are executed only when a new connection is opened, so connections are only shared with callers that use the same
+   * init queries.
+   *
+   * @param driver JDBC driver to open new connections with
+   * @param connectionString JDBC connection string
+   * @param connectionArguments connection arguments, including the credentials
+   * @param initQueries queries to execute on newly opened connections
+   * @return pooled connection
+   * @throws SQLException if no pooled connection is available and a new connection could not be opened or
+   *                      initialized
+   */
+  public static Connection getConnection(Driver driver, String connectionString, Properties connectionArguments,
+                                         List<String> initQueries) throws SQLException {
+    return INSTANCE.borrow(driver, connectionString, connectionArguments, initQueries);
+  }
+
+  @VisibleForTesting
+  Connection borrow(Driver driver, String connectionString, Properties connectionArguments,
+                    List<String> initQueries) throws SQLException {
+    Key key = new Key(connectionString, connectionArguments, initQueries, driver.getClass().getClassLoader());
+    IdleConnection idle;
+    while ((idle = poll(key)) != null) {
+      if (System.currentTimeMillis() - idle.idleSince < validationIntervalMillis || isValid(idle.connection)) {
+        return new PooledConnection(key, idle.connection, idle.state);
+      }
+      LOG.debug("Discarding invalid pooled connection to '{}'.", connectionString);
+      closeQuietly(idle.connection);
+    }
+
+    Connection connection = DriverRegistry.connect(driver, connectionString, connectionArguments);
+    try {
+      for (String query : initQueries) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute(query);
+        }
+      }
+      return new PooledConnection(key, connection, new State(connection));
+    } catch (SQLException e) {
+      closeQuietly(connection);
+      throw e;
+    }
+  }
+
+  /**
+   * @return number of idle connections currently held by the pool
+   */
+  @VisibleForTesting
+  synchronized int getIdleCount() {
+    int count = 0;
+    for (Deque<IdleConnection> connections : idleConnections.values()) {
+      count += connections.size();
+    }
+    return count;
+  }
+
+  /**
+   * Closes all idle connections that have been idle for longer than the idle timeout.
+   */
+  @VisibleForTesting
+  void evictIdleConnections() {
+    long evictBefore = System.currentTimeMillis() - idleTimeoutMillis;
+    List<Connection> evicted = new ArrayList<>();
+    synchronized (this) {
+      Iterator<Map.Entry<Key, Deque<IdleConnection>>> iterator = idleConnections.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Deque<IdleConnection> connections = iterator.next().getValue();
+        // the oldest connections are at the tail of the deque
+        while (!connections.isEmpty() && connections.peekLast().idleSince < evictBefore) {
+          evicted.add(connections.pollLast().connection);
+        }
+        if (connections.isEmpty()) {
+          iterator.remove();
+        }
+      }
+      if (idleConnections.isEmpty() && evictor != null) {
+        evictor.shutdown();
+        evictor = null;
+      }
+    }
+    for (Connection connection : evicted) {
+      closeQuietly(connection);
+    }
+  }
+
+  private synchronized IdleConnection poll(Key key) {
+    Deque<IdleConnection> connections = idleConnections.get(key);
+    // reuse the most recently used connection, so that surplus connections reach the idle timeout
+    return connections == null ? null : connections.pollFirst();
+  }
+
+  private void release(Key key, Connection connection, State state) {
+    try {
+      state.restore(connection);
+    } catch (SQLException e) {
+      LOG.debug("Unable to reset pooled connection, closing it.", e);
+      closeQuietly(connection);
+      return;
+    }
+
+    synchronized (this) {
+      Deque<IdleConnection> connections = idleConnections.computeIfAbsent(key, k -> new ArrayDeque<>());
+      if (connections.size() < maxIdleConnections) {
+        connections.addFirst(new IdleConnection(connection, state));
+        startEvictor();
+        return;
+      }
+    }
+    closeQuietly(connection);
+  }
+
+  private void startEvictor() {
+    if (evictor != null) {
+      return;
+    }
+    evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "jdbc-connection-pool-evictor");
+      thread.setDaemon(true);
+      // do not pin the class loader of whichever plugin happened to start the thread
+      thread.setContextClassLoader(null);
+      return thread;
+    });
+    long period = Math.max(TimeUnit.SECONDS.toMillis(1), idleTimeoutMillis / 2);
+    evictor.scheduleWithFixedDelay(this::evictIdleConnections, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  private static boolean isValid(Connection connection) {
+    try {
+      return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+    } catch (SQLFeatureNotSupportedException | AbstractMethodError e) {
+      // driver predates JDBC 4, fall back to checking whether the connection has been closed
+      try {
+        return !connection.isClosed();
+      } catch (SQLException e1) {
+        return false;
+      }
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private static void closeQuietly(Connection connection) {
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      LOG.debug("Error while closing pooled connection.", e);
+    }
+  }
+
+  /**
+   * Identifies connections that can be used interchangeably.
+   */
+  private static final class Key {
+    private final String connectionString;
+    private final Properties connectionArguments;
+    private final List<String> initQueries;
+    private final ClassLoader driverClassLoader;
+
+    Key(String connectionString, Properties connectionArguments, List<String> initQueries,
+        ClassLoader driverClassLoader) {
+      this.connectionString = connectionString;
+      this.connectionArguments = new Properties();
+      this.connectionArguments.putAll(connectionArguments);
+      this.initQueries = ImmutableList.copyOf(initQueries);
+      this.driverClassLoader = driverClassLoader;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key that = (Key) o;
+      return driverClassLoader == that.driverClassLoader
+        && connectionString.equals(that.connectionString)
+        && connectionArguments.equals(that.connectionArguments)
+        && initQueries.equals(that.initQueries);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(connectionString, connectionArguments, initQueries,
+                          System.identityHashCode(driverClassLoader));
+    }
+  }
+
+  /**
+   * Connection settings that are restored before a connection is returned to the pool.
+   */
+  private static final class State {
+    private final boolean autoCommit;
+    private final boolean readOnly;
+    private final int transactionIsolation;
+
+    State(Connection connection) throws SQLException {
+      this.autoCommit = connection.getAutoCommit();
+      this.readOnly = connection.isReadOnly();
+      this.transactionIsolation = connection.getTransactionIsolation();
+    }
+
+    void restore(Connection connection) throws SQLException {
+      if (connection.isClosed()) {
+        throw new SQLException("Connection is closed.");
+      }
+      if (!connection.getAutoCommit()) {
+        connection.rollback();
+      }
+      if (connection.getAutoCommit() != autoCommit) {
+        connection.setAutoCommit(autoCommit);
+      }
+      if (connection.isReadOnly() != readOnly) {
+        connection.setReadOnly(readOnly);
+      }
+      if (connection.getTransactionIsolation() != transactionIsolation) {
+        connection.setTransactionIsolation(transactionIsolation);
+      }
+      connection.clearWarnings();
+    }
+  }
+
+  private static final class IdleConnection {
+    private final Connection connection;
+    private final State state;
+    private final long idleSince;
+
+    IdleConnection(Connection connection, State state) {
+      this.connection = connection;
+      this.state = state;
+      this.idleSince = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * Connection that is returned to the pool instead of being closed.
+   */
+  private final class PooledConnection extends ForwardingConnection {
+    private final Key key;
+    private final State state;
+    private boolean closed;
+
+    PooledConnection(Key key, Connection delegate, State state) {
+      super(delegate);
+      this.key = key;
+      this.state = state;
+    }
+
+    @Override
+    public synchronized void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      release(key, getDelegate(), state);
+    }
+
+    @Override
+    public synchronized boolean isClosed() throws SQLException {
+      return closed || getDelegate().isClosed();
+    }
+  }
+}
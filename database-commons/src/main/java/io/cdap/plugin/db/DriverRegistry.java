@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db;
+
+import io.cdap.plugin.util.DBUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Keeps one instance of every JDBC driver class used by the plugins loaded by this class loader.
+ * <p>
+ * Connections are opened through {@link Driver#connect(String, Properties)} on the cached instance rather than
+ * through {@link DriverManager}, whose registry is synchronized across the whole JVM and is a point of contention
+ * when many tasks open connections concurrently. Drivers are reference counted: {@link #acquire(Class)} returns the
+ * cached instance, creating it on first use, and the instance is dropped once every acquisition has been released
+ * with {@link #release(Class)}.
+ */
+public final class DriverRegistry {
+  private static final Logger LOG = LoggerFactory.getLogger(DriverRegistry.class);
+  // SQL state used by DriverManager when no driver accepts the connection string
+  private static final String NO_SUITABLE_DRIVER_SQL_STATE = "08001";
+
+  private static final Map<Class<? extends Driver>, Registration> REGISTRATIONS = new HashMap<>();
+
+  private DriverRegistry() {
+  }
+
+  /**
+   * Returns the cached instance of the given driver class, creating it if needed, and increments its reference count.
+   * Every call must be matched by a call to {@link #release(Class)}.
+   *
+   * @param driverClass JDBC driver class
+   * @return driver instance
+   */
+  public static synchronized Driver acquire(Class<? extends Driver> driverClass)
+    throws IllegalAccessException, InstantiationException {
+    Registration registration = REGISTRATIONS.get(driverClass);
+    if (registration == null) {
+      registration = new Registration(driverClass.newInstance());
+      deregisterFromDriverManager(driverClass);
+      REGISTRATIONS.put(driverClass, registration);
+      LOG.debug("Loaded JDBC driver {}.", driverClass.getName());
+    }
+    registration.references++;
+    return registration.driver;
+  }
+
+  /**
+   * Decrements the reference count of the given driver class. The cached instance is dropped once the count reaches
+   * zero. The idle pooled connections opened through it are left to the {@link ConnectionPool}, which closes them
+   * after its idle timeout, so that they can still be reused by the next stage, connector call or action that
+   * acquires the driver.
+   *
+   * @param driverClass JDBC driver class
+   */
+  public static synchronized void release(Class<? extends Driver> driverClass) {
+    Registration registration = REGISTRATIONS.get(driverClass);
+    if (registration == null) {
+      LOG.warn("JDBC driver {} released more often than it was acquired.", driverClass.getName());
+      return;
+    }
+    if (--registration.references == 0) {
+      REGISTRATIONS.remove(driverClass);
+      LOG.debug("Released JDBC driver {}.", driverClass.getName());
+    }
+  }
+
+  /**
+   * Opens a connection through the given driver.
+   *
+   * @param driver JDBC driver
+   * @param connectionString JDBC connection string
+   * @param connectionArguments connection arguments, including the credentials
+   * @return new connection
+   * @throws SQLException if the driver does not accept the connection string or the connection could not be opened
+   */
+  public static Connection connect(Driver driver, String connectionString,
+                                   Properties connectionArguments) throws SQLException {
+    Connection connection = driver.connect(connectionString, connectionArguments);
+    if (connection == null) {
+      // same as DriverManager, drivers return null rather than fail for connection strings they do not handle
+      throw new SQLException("No suitable driver found for " + connectionString, NO_SUITABLE_DRIVER_SQL_STATE);
+    }
+    return connection;
+  }
+
+  /**
+   * Most drivers register an instance of themselves with {@link DriverManager} when their class is initialized. The
+   * registration is removed, since it would keep the class loader of the JDBC plugin alive for the lifetime of the
+   * JVM. Drivers loaded by the system class loader are left registered, since they cannot pin a plugin class loader.
+   */
+  private static void deregisterFromDriverManager(Class<? extends Driver> driverClass) throws IllegalAccessException {
+    if (driverClass.getClassLoader() == null || driverClass.getClassLoader() == ClassLoader.getSystemClassLoader()) {
+      return;
+    }
+    try {
+      DBUtils.deregisterAllDrivers(driverClass);
+    } catch (NoSuchFieldException | ClassNotFoundException e) {
+      LOG.error("Unable to deregister JDBC Driver class {}", driverClass);
+    }
+  }
+
+  private static final class Registration {
+    private final Driver driver;
+    private int references;
+
+    Registration(Driver driver) {
+      this.driver = driver;
+    }
+  }
+}
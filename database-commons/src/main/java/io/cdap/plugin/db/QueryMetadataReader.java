@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Reads the schema of a query without running the query itself, so that the time it takes does not depend on the
+ * cost of the query.
+ * <p>
+ * Depending on the database, the schema is read from the metadata of a prepared statement, which most drivers get
+ * from the database when the statement is prepared, or from an empty result set returned by a query wrapping the
+ * original one. If neither works, for example because the query can not be used as a subquery, the query is executed
+ * with the maximum number of rows set to 1.
+ */
+public final class QueryMetadataReader {
+  private static final Logger LOG = LoggerFactory.getLogger(QueryMetadataReader.class);
+
+  /**
+   * Ways of reading the schema of a query without executing it.
+   */
+  @VisibleForTesting
+  enum Mode {
+    // PreparedStatement#getMetaData() describes the statement without executing it
+    PREPARED_STATEMENT,
+    // the optimizer returns immediately for LIMIT 0, whereas prepared statements are executed to get their metadata
+    LIMIT_ZERO,
+    // portable fallback, the optimizer can tell that the query returns no rows
+    WHERE_FALSE
+  }
+
+  // keyed by the lower case prefix of DatabaseMetaData#getDatabaseProductName()
+  private static final Map<String, Mode> MODES = ImmutableMap.<String, Mode>builder()
+    .put("postgresql", Mode.PREPARED_STATEMENT)
+    .put("oracle", Mode.PREPARED_STATEMENT)
+    .put("microsoft sql server", Mode.PREPARED_STATEMENT)
+    .put("db2", Mode.PREPARED_STATEMENT)
+    .put("hdb", Mode.PREPARED_STATEMENT)
+    .put("teradata", Mode.PREPARED_STATEMENT)
+    .put("mysql", Mode.LIMIT_ZERO)
+    .put("mariadb", Mode.LIMIT_ZERO)
+    .build();
+
+  private QueryMetadataReader() {
+  }
+
+  /**
+   * Returns the schema fields of the result of the given query.
+   *
+   * @param connection connection to the database
+   * @param query query to read the schema of
+   * @param schemaReader schema reader used to map the column types
+   * @param timeoutSec query timeout in seconds, or null for no timeout
+   * @return list of schema fields
+   * @throws SQLException if the schema can not be read
+   */
+  public static List<Schema.Field> getSchemaFields(Connection connection, String query, SchemaReader schemaReader,
+                                                   @Nullable Integer timeoutSec) throws SQLException {
+    Mode mode = getMode(connection);
+    if (mode == Mode.PREPARED_STATEMENT) {
+      try (PreparedStatement statement = connection.prepareStatement(query)) {
+        ResultSetMetaData metadata = statement.getMetaData();
+        if (metadata != null && metadata.getColumnCount() > 0) {
+          return schemaReader.getSchemaFields(metadata);
+        }
+      } catch (SQLException e) {
+        LOG.debug("Unable to read the schema of the prepared query, falling back to an empty query.", e);
+        resetTransaction(connection);
+      }
+    }
+
+    String emptyQuery = getEmptyQuery(query, mode == Mode.LIMIT_ZERO ? Mode.LIMIT_ZERO : Mode.WHERE_FALSE);
+    try {
+      return executeQuery(connection, emptyQuery, schemaReader, timeoutSec);
+    } catch (SQLException e) {
+      LOG.debug("Unable to read the schema of the query from an empty result, falling back to the query itself.", e);
+      resetTransaction(connection);
+    }
+    return executeQuery(connection, query, schemaReader, timeoutSec);
+  }
+
+  @VisibleForTesting
+  static String getEmptyQuery(String query, Mode mode) {
+    String subquery = query.trim();
+    while (subquery.endsWith(";")) {
+      subquery = subquery.substring(0, subquery.length() - 1).trim();
+    }
+    // new line in case the query ends with a line comment
+    return "SELECT * FROM (" + subquery + "\n) schema_query " + (mode == Mode.LIMIT_ZERO ? "LIMIT 0" : "WHERE 1 = 0");
+  }
+
+  @VisibleForTesting
+  static Mode getMode(Connection connection) {
+    String productName;
+    try {
+      productName = connection.getMetaData().getDatabaseProductName();
+    } catch (SQLException e) {
+      LOG.debug("Unable to get the database product name.", e);
+      return Mode.WHERE_FALSE;
+    }
+    if (productName == null) {
+      return Mode.WHERE_FALSE;
+    }
+    String name = productName.toLowerCase(Locale.ROOT);
+    for (Map.Entry<String, Mode> entry : MODES.entrySet()) {
+      if (name.startsWith(entry.getKey())) {
+        return entry.getValue();
+      }
+    }
+    return Mode.WHERE_FALSE;
+  }
+
+  private static List<Schema.Field> executeQuery(Connection connection, String query, SchemaReader schemaReader,
+                                                 @Nullable Integer timeoutSec) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.setMaxRows(1);
+      if (timeoutSec != null) {
+        statement.setQueryTimeout(timeoutSec);
+      }
+      try (ResultSet resultSet = statement.executeQuery(query)) {
+        return schemaReader.getSchemaFields(resultSet);
+      }
+    }
+  }
+
+  /**
+   * Some databases, such as PostgreSQL, reject any statement after a failed one until the transaction is rolled back.
+   */
+  private static void resetTransaction(Connection connection) throws SQLException {
+    if (!connection.getAutoCommit()) {
+      connection.rollback();
+    }
+  }
+}
@@ -21,6 +21,7 @@ import io.cdap.cdap.api.data.schema.Schema;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.util.List;
 
 /**
@@ -40,6 +41,20 @@ public interface SchemaReader {
    */
   List<Schema.Field> getSchemaFields(ResultSet resultSet) throws SQLException;
 
+  /**
+   * Given the metadata of a query, return list of {@link io.cdap.cdap.api.data.schema.Schema.Field}, the same way as
+   * {@link SchemaReader#getSchemaFields(ResultSet)}. This allows to read the schema of a prepared statement without
+   * executing it.
+   *
+   * @param metadata metadata of the query
+   * @return list of schema fields
+   * @throws SQLFeatureNotSupportedException if the schema can only be read from an executed query
+   * @throws SQLException
+   */
+  default List<Schema.Field> getSchemaFields(ResultSetMetaData metadata) throws SQLException {
+    throw new SQLFeatureNotSupportedException("Schema can only be read from the result set of an executed query.");
+  }
+
   /**
    * Given a sql metadata return schema type
    * @param metadata resultSet metadata
@@ -23,12 +23,12 @@ import io.cdap.cdap.etl.api.action.Action;
 import io.cdap.cdap.etl.api.action.ActionContext;
 import io.cdap.cdap.etl.api.action.SettableArguments;
 import io.cdap.plugin.db.ConnectionConfig;
+import io.cdap.plugin.db.ConnectionPool;
 import io.cdap.plugin.util.DBUtils;
 import io.cdap.plugin.util.DriverCleanup;
 
 import java.sql.Connection;
 import java.sql.Driver;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -99,11 +99,10 @@ public class AbstractDBArgumentSetter extends Action {
                                                         config.getJdbcPluginName());
     Properties connectionProperties = new Properties();
     connectionProperties.putAll(config.getConnectionArguments());
-    try {
-      Connection connection = DriverManager
-        .getConnection(config.getConnectionString(), connectionProperties);
-      Statement statement = connection.createStatement();
-      ResultSet resultSet = statement.executeQuery(config.getQuery());
+    try (Connection connection = ConnectionPool.getConnection(driverCleanup.getDriver(), config.getConnectionString(),
+                                                              connectionProperties);
+         Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery(config.getQuery())) {
       boolean hasRecord = resultSet.next();
       if (!hasRecord) {
         failureCollector.addFailure("No record found.",
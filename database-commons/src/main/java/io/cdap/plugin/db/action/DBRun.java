@@ -16,15 +16,14 @@
 
 package io.cdap.plugin.db.action;
 
+import io.cdap.plugin.db.ConnectionPool;
 import io.cdap.plugin.util.DBUtils;
 import io.cdap.plugin.util.DriverCleanup;
 
 import java.sql.Connection;
 import java.sql.Driver;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.List;
 import java.util.Properties;
 
 /**
@@ -55,8 +54,9 @@ public class DBRun {
 
       Properties connectionProperties = new Properties();
       connectionProperties.putAll(config.getConnectionArguments());
-      try (Connection connection = DriverManager.getConnection(config.getConnectionString(), connectionProperties)) {
-        executeInitQueries(connection, config.getInitQueries());
+      try (Connection connection = ConnectionPool.getConnection(driverCleanup.getDriver(),
+                                                                config.getConnectionString(), connectionProperties,
+                                                                config.getInitQueries())) {
         if (!enableAutoCommit) {
           connection.setAutoCommit(false);
         }
@@ -73,12 +73,4 @@ public class DBRun {
       }
     }
   }
-
-  private void executeInitQueries(Connection connection, List<String> initQueries) throws SQLException {
-    for (String query : initQueries) {
-      try (Statement statement = connection.createStatement()) {
-        statement.execute(query);
-      }
-    }
-  }
 }
@@ -22,6 +22,7 @@ import io.cdap.cdap.api.annotation.Description;
 import io.cdap.cdap.api.annotation.Macro;
 import io.cdap.cdap.api.annotation.Name;
 import io.cdap.cdap.api.plugin.PluginConfig;
+import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.plugin.common.Constants;
 import io.cdap.plugin.db.Operation;
 import io.cdap.plugin.db.connector.AbstractDBConnectorConfig;
@@ -41,6 +42,8 @@ public abstract class AbstractDBSpecificSinkConfig extends PluginConfig implemen
   public static final String TRANSACTION_ISOLATION_LEVEL = "transactionIsolationLevel";
   public static final String OPERATION_NAME = "operationName";
   public static final String RELATION_TABLE_KEY = "relationTableKey";
+  public static final String BATCH_SIZE = "batchSize";
+  public static final String MAX_BATCH_BYTES = "maxBatchBytes";
 
   @Name(Constants.Reference.REFERENCE_NAME)
   @Description(Constants.Reference.REFERENCE_NAME_DESCRIPTION)
@@ -69,6 +72,21 @@ public abstract class AbstractDBSpecificSinkConfig extends PluginConfig implemen
   @Description("List of fields that determines relation between tables during Update and Upsert operations.")
   protected String relationTableKey;
 
+  @Name(BATCH_SIZE)
+  @Macro
+  @Nullable
+  @Description("Maximum number of rows in a batch submitted to the database. If set to 0, rows are submitted " +
+    "based on the batch bytes limit only. Defaults to 1000.")
+  protected Integer batchSize;
+
+  @Name(MAX_BATCH_BYTES)
+  @Macro
+  @Nullable
+  @Description("Maximum approximate number of bytes in a batch submitted to the database. A batch is submitted " +
+    "as soon as either this or the batch size limit is reached. If set to 0, rows are submitted based on the " +
+    "batch size only. Defaults to 8388608 (8 MB).")
+  protected Long maxBatchBytes;
+
   @Override
   public String getTableName() {
     return tableName;
@@ -155,4 +173,28 @@ public abstract class AbstractDBSpecificSinkConfig extends PluginConfig implemen
   public String getRelationTableKey() {
     return relationTableKey;
   }
+
+  @Nullable
+  @Override
+  public Integer getBatchSize() {
+    return batchSize;
+  }
+
+  @Nullable
+  @Override
+  public Long getMaxBatchBytes() {
+    return maxBatchBytes;
+  }
+
+  @Override
+  public void validate(FailureCollector collector) {
+    if (!containsMacro(BATCH_SIZE) && batchSize != null && batchSize < 0) {
+      collector.addFailure("Invalid batch size.", "Batch size must be a non-negative integer.")
+        .withConfigProperty(BATCH_SIZE);
+    }
+    if (!containsMacro(MAX_BATCH_BYTES) && maxBatchBytes != null && maxBatchBytes < 0) {
+      collector.addFailure("Invalid batch bytes.", "Batch bytes must be a non-negative integer.")
+        .withConfigProperty(MAX_BATCH_BYTES);
+    }
+  }
 }
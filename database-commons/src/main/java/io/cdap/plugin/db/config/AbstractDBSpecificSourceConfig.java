@@ -33,6 +33,7 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import javax.annotation.Nullable;
 
@@ -49,6 +50,10 @@ public abstract class AbstractDBSpecificSourceConfig extends PluginConfig implem
   public static final String DATABASE = "database";
   public static final String FETCH_SIZE = "fetchSize";
   public static final String DEFAULT_FETCH_SIZE = "1000";
+  public static final String SPLIT_MODE = "splitMode";
+  public static final String SPLIT_TABLE = "splitTable";
+  public static final String SPLIT_MODE_RANGE = "range";
+  public static final String SPLIT_MODE_HASH = "hash";
 
   @Name(Constants.Reference.REFERENCE_NAME)
   @Description(Constants.Reference.REFERENCE_NAME_DESCRIPTION)
@@ -99,6 +104,21 @@ public abstract class AbstractDBSpecificSourceConfig extends PluginConfig implem
     "with the tradeoff of higher memory usage.")
   protected Integer fetchSize;
 
+  @Nullable
+  @Name(SPLIT_MODE)
+  @Description("How the table is split. 'range' splits the range of values of the split-by field returned by the " +
+    "bounding query. 'hash' splits the rows into buckets of a hash of the split-by field, which needs no bounding " +
+    "query. The other modes split the split table from its physical layout. Defaults to 'range'.")
+  @Macro
+  protected String splitMode;
+
+  @Nullable
+  @Name(SPLIT_TABLE)
+  @Description("The table split from its physical layout, written the same way as in the import query. Required " +
+    "unless the split mode is 'range' or 'hash'.")
+  @Macro
+  protected String splitTable;
+
   public String getImportQuery() {
     return cleanQuery(importQuery);
   }
@@ -137,13 +157,26 @@ public abstract class AbstractDBSpecificSourceConfig extends PluginConfig implem
         .withConfigProperty(IMPORT_QUERY);
     }
 
-    if (!hasOneSplit && !containsMacro(SPLIT_BY) && (splitBy == null || splitBy.isEmpty())) {
+    if (!containsMacro(SPLIT_MODE) && !getSplitModes().contains(getSplitMode())) {
+      collector.addFailure(String.format("Invalid split mode '%s'.", splitMode),
+                           String.format("Set the split mode to %s.", describeSplitModes(getSplitModes())))
+        .withConfigProperty(SPLIT_MODE);
+    } else if (!containsMacro(SPLIT_MODE) && !isRangeSplit() && !isHashSplit() && !containsMacro(SPLIT_TABLE)
+      && Strings.isNullOrEmpty(splitTable)) {
+      collector.addFailure(String.format("Split table must be specified if the split mode is '%s'.", getSplitMode()),
+                           "Specify the split table.")
+        .withConfigProperty(SPLIT_TABLE);
+    }
+
+    if (!hasOneSplit && (isRangeSplit() || isHashSplit()) && !containsMacro(SPLIT_BY)
+      && (splitBy == null || splitBy.isEmpty())) {
       collector.addFailure("Split-By Field Name must be specified if Number of Splits is not set to 1.",
                            "Specify the Split-by Field Name.").withConfigProperty(SPLIT_BY)
         .withConfigProperty(NUM_SPLITS);
     }
 
-    if (!hasOneSplit && !containsMacro(BOUNDING_QUERY) && (boundingQuery == null || boundingQuery.isEmpty())) {
+    if (!hasOneSplit && isRangeSplit() && !containsMacro(BOUNDING_QUERY)
+      && (boundingQuery == null || boundingQuery.isEmpty())) {
       collector.addFailure("Bounding Query must be specified if Number of Splits is not set to 1.",
                            "Specify the Bounding Query.")
         .withConfigProperty(BOUNDING_QUERY).withConfigProperty(NUM_SPLITS);
@@ -208,6 +241,43 @@ public abstract class AbstractDBSpecificSourceConfig extends PluginConfig implem
     return null;
   }
 
+  /**
+   * @return the split mode in lower case, 'range' if it is not set
+   */
+  public String getSplitMode() {
+    return Strings.isNullOrEmpty(splitMode) ? SPLIT_MODE_RANGE : splitMode.toLowerCase(Locale.ROOT);
+  }
+
+  @Nullable
+  @Override
+  public String getSplitTable() {
+    return splitTable;
+  }
+
+  /**
+   * @return the split modes supported by the database, 'range' unless the source also splits the table from its
+   * physical layout or by hash
+   */
+  protected List<String> getSplitModes() {
+    return Collections.singletonList(SPLIT_MODE_RANGE);
+  }
+
+  /**
+   * @return whether the splits are ranges of the split-by field computed from the bounding query, which is the case
+   * unless the source splits the table from its physical layout
+   */
+  protected boolean isRangeSplit() {
+    return SPLIT_MODE_RANGE.equals(getSplitMode());
+  }
+
+  /**
+   * @return whether the splits are buckets of a hash of the split-by field, which need the split-by field but not
+   * the bounding query
+   */
+  protected boolean isHashSplit() {
+    return SPLIT_MODE_HASH.equals(getSplitMode());
+  }
+
   public Integer getNumSplits() {
     return numSplits;
   }
@@ -247,6 +317,14 @@ public abstract class AbstractDBSpecificSourceConfig extends PluginConfig implem
     return Collections.emptyList();
   }
 
+  private static String describeSplitModes(List<String> splitModes) {
+    String last = "'" + splitModes.get(splitModes.size() - 1) + "'";
+    if (splitModes.size() == 1) {
+      return last;
+    }
+    return "'" + String.join("', '", splitModes.subList(0, splitModes.size() - 1)) + "' or " + last;
+  }
+
   protected String cleanQuery(@Nullable String query) {
     if (query == null) {
       return null;
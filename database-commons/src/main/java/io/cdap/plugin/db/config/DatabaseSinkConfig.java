@@ -19,7 +19,9 @@ package io.cdap.plugin.db.config;
 import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.plugin.db.Operation;
 
+import java.util.Collections;
 import java.util.List;
+import javax.annotation.Nullable;
 
 /**
  * Interface for DB Sink plugin config
@@ -92,4 +94,51 @@ public interface DatabaseSinkConfig extends DatabaseConnectionConfig {
    * @return the column names on which update and upsert are to be performed.
    */
   String getRelationTableKey();
+
+  /**
+   * @return the number of rows after which a batch is submitted, or null to use the default
+   */
+  @Nullable
+  default Integer getBatchSize() {
+    return null;
+  }
+
+  /**
+   * @return the approximate number of bytes after which a batch is submitted, or null to use the default
+   */
+  @Nullable
+  default Long getMaxBatchBytes() {
+    return null;
+  }
+
+  /**
+   * @return the connection strings of the shards the records are written to, empty if the sink is not sharded
+   */
+  default List<String> getShardConnectionStrings() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * @return the name of the field the records are routed to the shards by
+   */
+  @Nullable
+  default String getShardKey() {
+    return null;
+  }
+
+  /**
+   * @return how the records are routed to the shards, one of 'hash', 'range' or 'lookup', or null for 'hash'
+   */
+  @Nullable
+  default String getShardRouting() {
+    return null;
+  }
+
+  /**
+   * @return the boundaries of the ranges or the lookup pairs the records are routed by
+   */
+  @Nullable
+  default String getShardMap() {
+    return null;
+  }
 }
@@ -20,6 +20,7 @@ import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.etl.api.FailureCollector;
 
 import java.util.List;
+import javax.annotation.Nullable;
 
 /**
  * Interface for DB Source plugin config
@@ -68,6 +69,12 @@ public interface DatabaseSourceConfig extends DatabaseConnectionConfig {
    */
   String getSplitBy();
 
+  /**
+   * @return the table split from its physical layout by the split planner, or null if the split mode does not need one
+   */
+  @Nullable
+  String getSplitTable();
+
   /**
    * validate whether configured schema is compatible with the actual schema got from database
    *
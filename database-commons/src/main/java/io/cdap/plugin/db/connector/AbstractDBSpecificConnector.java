@@ -20,6 +20,8 @@ import com.google.common.collect.Maps;
 import io.cdap.cdap.api.data.batch.InputFormatProvider;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.etl.api.batch.BatchConnector;
+import io.cdap.cdap.etl.api.connector.BrowseDetail;
+import io.cdap.cdap.etl.api.connector.BrowseEntity;
 import io.cdap.cdap.etl.api.connector.ConnectorContext;
 import io.cdap.cdap.etl.api.connector.ConnectorSpecRequest;
 import io.cdap.cdap.etl.api.connector.SampleRequest;
@@ -31,6 +33,9 @@ import io.cdap.plugin.common.db.DBConnectorPath;
 import io.cdap.plugin.common.util.ExceptionUtils;
 import io.cdap.plugin.db.CommonSchemaReader;
 import io.cdap.plugin.db.ConnectionConfigAccessor;
+import io.cdap.plugin.db.ConnectionPool;
+import io.cdap.plugin.db.DriverRegistry;
+import io.cdap.plugin.db.QueryMetadataReader;
 import io.cdap.plugin.db.SchemaReader;
 import io.cdap.plugin.db.source.DataDrivenETLDBInputFormat;
 import org.apache.hadoop.io.LongWritable;
@@ -40,10 +45,14 @@ import org.apache.hadoop.mapreduce.lib.db.DBWritable;
 
 import java.io.IOException;
 import java.sql.Connection;
+import java.sql.Driver;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.UUID;
 import javax.annotation.Nullable;
 
@@ -55,7 +64,11 @@ import javax.annotation.Nullable;
 public abstract class AbstractDBSpecificConnector<T extends DBWritable> extends AbstractDBConnector
   implements BatchConnector<LongWritable, T> {
 
+  private static final String RESULTSET_COLUMN_TABLE_NAME = "TABLE_NAME";
+  private static final String RESULTSET_COLUMN_TABLE_TYPE = "TABLE_TYPE";
+
   private final AbstractDBConnectorConfig config;
+  private Driver driver;
 
   protected AbstractDBSpecificConnector(AbstractDBConnectorConfig config) {
     super(config);
@@ -103,11 +116,11 @@ public abstract class AbstractDBSpecificConnector<T extends DBWritable> extends
     for (Map.Entry<String, String> argument : additionalArguments.entrySet()) {
       connectionConfigAccessor.getConfiguration().set(argument.getKey(), argument.getValue());
     }
-    try {
+    try (Connection connection = getConnection(path)) {
       Long timeoutMs = request.getTimeoutMs();
       Integer timeoutSec = timeoutMs != null ? (int) (timeoutMs / 1000) : null;
       connectionConfigAccessor
-        .setSchema(loadTableSchema(getConnection(path), tableQuery, timeoutSec, sessionID).toString());
+        .setSchema(loadTableSchema(connection, tableQuery, timeoutSec, sessionID).toString());
     } catch (SQLException e) {
       throw new IOException(String.format("Failed to get table schema due to: %s.",
         ExceptionUtils.getRootCauseMessage(e)), e);
@@ -120,6 +133,41 @@ public abstract class AbstractDBSpecificConnector<T extends DBWritable> extends
     return getConnection(getConnectionString(path.getDatabase()), config.getConnectionArgumentsProperties());
   }
 
+  @Override
+  public void close() throws IOException {
+    super.close();
+    synchronized (this) {
+      if (driver != null) {
+        driver = null;
+        DriverRegistry.release(driverClass);
+      }
+    }
+  }
+
+  @Override
+  protected Connection getConnection(String connectionString, Properties connectionArguments) {
+    try {
+      return ConnectionPool.getConnection(getDriver(), connectionString, connectionArguments);
+    } catch (SQLException e) {
+      Properties arguments = (Properties) connectionArguments.clone();
+      arguments.remove("password");
+      throw new IllegalArgumentException(
+        String.format("Failed to create connection to database via connection string: %s and arguments: %s. "
+                        + "Error: %s.", connectionString, arguments, ExceptionUtils.getRootCauseMessage(e)), e);
+    }
+  }
+
+  private synchronized Driver getDriver() {
+    if (driver == null) {
+      try {
+        driver = DriverRegistry.acquire(driverClass);
+      } catch (IllegalAccessException | InstantiationException e) {
+        throw new IllegalArgumentException(String.format("Failed to load JDBC driver class %s.", driverClass), e);
+      }
+    }
+    return driver;
+  }
+
   protected String getConnectionString(String database) {
     return config.getConnectionString();
   }
@@ -172,13 +220,9 @@ public abstract class AbstractDBSpecificConnector<T extends DBWritable> extends
 
   protected Schema loadTableSchema(Connection connection, String query, @Nullable Integer timeoutSec, String sessionID)
     throws SQLException {
-    Statement statement = connection.createStatement();
-    statement.setMaxRows(1);
-    if (timeoutSec != null) {
-      statement.setQueryTimeout(timeoutSec);
-    }
-    ResultSet resultSet = statement.executeQuery(query);
-    return Schema.recordOf("outputSchema", getSchemaReader(sessionID).getSchemaFields(resultSet));
+    return Schema.recordOf("outputSchema",
+                           QueryMetadataReader.getSchemaFields(connection, query, getSchemaReader(sessionID),
+                                                               timeoutSec));
   }
 
   protected void setConnectionProperties(Map<String, String> properties, ConnectorSpecRequest request) {
@@ -189,9 +233,86 @@ public abstract class AbstractDBSpecificConnector<T extends DBWritable> extends
   @Override
   protected Schema getTableSchema(Connection connection, String database,
                                   String schema, String table) throws SQLException {
-    String sessionID = generateSessionID();
-    return loadTableSchema(getConnection(), getTableQuery(database, schema, table),
-      null, sessionID);
+    CatalogCache.Key key = getCatalogKey(connection, database, schema, table);
+    return CatalogCache.getTableSchema(key, () -> {
+      String sessionID = generateSessionID();
+      return loadTableSchema(connection, getTableQuery(database, schema, table), null, sessionID);
+    });
+  }
+
+  @Override
+  protected BrowseDetail listTables(Connection connection, @Nullable String database, @Nullable String schema,
+                                    int limit) throws SQLException {
+    String catalog = database == null ? connection.getCatalog() : database;
+    List<CatalogCache.Table> tables = getTables(connection, catalog, schema, database != null);
+    BrowseDetail.Builder browseDetailBuilder = BrowseDetail.builder();
+    for (CatalogCache.Table table : tables.subList(0, Math.min(limit, tables.size()))) {
+      browseDetailBuilder.addEntity(
+        BrowseEntity.builder(table.getName(), getTablePath(database, schema, table.getName()),
+                             table.getType().toLowerCase()).canSample(true).build());
+    }
+    return browseDetailBuilder.setTotalCount(tables.size()).build();
+  }
+
+  @Override
+  protected BrowseDetail getTableDetail(Connection connection, @Nullable String database, @Nullable String schema,
+                                        String table) throws SQLException {
+    String catalog = database == null ? connection.getCatalog() : database;
+    for (CatalogCache.Table cached : getTables(connection, catalog, schema, database != null)) {
+      if (cached.getName().equals(table)) {
+        return BrowseDetail.builder()
+          .addEntity(BrowseEntity.builder(table, getTablePath(database, schema, table), cached.getType())
+                       .canSample(true).build())
+          .setTotalCount(1).build();
+      }
+    }
+    // the table may have been created after the tables were cached
+    return super.getTableDetail(connection, database, schema, table);
+  }
+
+  /**
+   * Returns the tables of the given schema. All the tables are read with a single catalog call and cached for
+   * a short time, so that paging through a large schema and selecting one of its tables does not read the catalog
+   * again.
+   */
+  private List<CatalogCache.Table> getTables(Connection connection, @Nullable String catalog, @Nullable String schema,
+                                             boolean validateDatabase) throws SQLException {
+    CatalogCache.Key key = getCatalogKey(connection, catalog, schema, null);
+    return CatalogCache.getTables(key, () -> {
+      if (validateDatabase) {
+        validateDatabase(connection, catalog);
+      }
+      validateSchema(catalog, schema, connection);
+      List<CatalogCache.Table> tables = new ArrayList<>();
+      try (ResultSet resultSet = connection.getMetaData().getTables(catalog, schema, null, null)) {
+        while (resultSet.next()) {
+          tables.add(new CatalogCache.Table(resultSet.getString(RESULTSET_COLUMN_TABLE_NAME),
+                                            resultSet.getString(RESULTSET_COLUMN_TABLE_TYPE)));
+        }
+      }
+      return Collections.unmodifiableList(tables);
+    });
+  }
+
+  private void validateDatabase(Connection connection, String database) throws SQLException {
+    try (ResultSet catalogs = queryDatabases(connection)) {
+      while (catalogs.next()) {
+        if (database.equals(catalogs.getString(RESULTSET_COLUMN_TABLE_CAT))) {
+          return;
+        }
+      }
+    }
+    throw new IllegalArgumentException(String.format("Database %s does not exist.", database));
+  }
+
+  private CatalogCache.Key getCatalogKey(Connection connection, @Nullable String database, @Nullable String schema,
+                                         @Nullable String table) throws SQLException {
+    return new CatalogCache.Key(connection.getMetaData().getURL(), config.getConnectionArgumentsProperties(),
+                                database, schema, table);
+  }
+
+  private static String getTablePath(@Nullable String database, @Nullable String schema, String table) {
+    return (database == null ? "" : "/" + database) + (schema == null ? "" : "/" + schema) + "/" + table;
   }
 
   protected String generateSessionID() {
@@ -0,0 +1,144 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.connector;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.cdap.cdap.api.data.schema.Schema;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Caches the catalog metadata read by the connectors, so that browsing a schema with many tables and then selecting
+ * one of them does not read the catalog of the database again for every request. Connectors are created for every
+ * request, hence the cache is shared by all the connectors loaded by the same class loader. Entries expire shortly
+ * after they are loaded so that tables created or altered in the meantime show up on the next browse.
+ */
+final class CatalogCache {
+  private static final long EXPIRY_SECONDS = 60;
+
+  private static final Cache<Key, List<Table>> TABLES = CacheBuilder.newBuilder()
+    .expireAfterWrite(EXPIRY_SECONDS, TimeUnit.SECONDS)
+    .maximumSize(1000)
+    .build();
+  private static final Cache<Key, Schema> TABLE_SCHEMAS = CacheBuilder.newBuilder()
+    .expireAfterWrite(EXPIRY_SECONDS, TimeUnit.SECONDS)
+    .maximumSize(10000)
+    .build();
+
+  private CatalogCache() {
+  }
+
+  /**
+   * Returns the tables of a database schema, loading them if they are not cached.
+   */
+  static List<Table> getTables(Key key, Callable<List<Table>> loader) throws SQLException {
+    return get(TABLES, key, loader);
+  }
+
+  /**
+   * Returns the schema of a table, loading it if it is not cached.
+   */
+  static Schema getTableSchema(Key key, Callable<Schema> loader) throws SQLException {
+    return get(TABLE_SCHEMAS, key, loader);
+  }
+
+  @VisibleForTesting
+  static void invalidateAll() {
+    TABLES.invalidateAll();
+    TABLE_SCHEMAS.invalidateAll();
+  }
+
+  private static <V> V get(Cache<Key, V> cache, Key key, Callable<V> loader) throws SQLException {
+    try {
+      return cache.get(key, loader);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), SQLException.class);
+      throw new IllegalStateException("Failed to load catalog metadata.", e.getCause());
+    }
+  }
+
+  /**
+   * Identifies a database object on a database server, as seen by a user.
+   */
+  static final class Key {
+    private final String url;
+    private final Properties connectionArguments;
+    private final String database;
+    private final String schema;
+    private final String table;
+
+    Key(@Nullable String url, Properties connectionArguments, @Nullable String database, @Nullable String schema,
+        @Nullable String table) {
+      this.url = url;
+      this.connectionArguments = (Properties) connectionArguments.clone();
+      this.database = database;
+      this.schema = schema;
+      this.table = table;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key that = (Key) o;
+      return Objects.equals(url, that.url) && connectionArguments.equals(that.connectionArguments)
+        && Objects.equals(database, that.database) && Objects.equals(schema, that.schema)
+        && Objects.equals(table, that.table);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(url, connectionArguments, database, schema, table);
+    }
+  }
+
+  /**
+   * Name and type of a table, as returned by {@link java.sql.DatabaseMetaData#getTables}.
+   */
+  static final class Table {
+    private final String name;
+    private final String type;
+
+    Table(String name, String type) {
+      this.name = name;
+      this.type = type;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    String getType() {
+      return type;
+    }
+  }
+}
@@ -16,8 +16,11 @@
 
 package io.cdap.plugin.db.sink;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
 import io.cdap.cdap.api.annotation.Description;
 import io.cdap.cdap.api.annotation.Macro;
 import io.cdap.cdap.api.annotation.Name;
@@ -41,6 +44,7 @@ import io.cdap.plugin.db.ColumnType;
 import io.cdap.plugin.db.CommonSchemaReader;
 import io.cdap.plugin.db.ConnectionConfig;
 import io.cdap.plugin.db.ConnectionConfigAccessor;
+import io.cdap.plugin.db.ConnectionPool;
 import io.cdap.plugin.db.DBConfig;
 import io.cdap.plugin.db.DBRecord;
 import io.cdap.plugin.db.Operation;
@@ -54,9 +58,10 @@ import org.apache.hadoop.mapred.lib.db.DBConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Type;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.Driver;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -67,10 +72,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Properties;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
@@ -84,10 +90,20 @@ import static io.cdap.plugin.db.sink.AbstractDBSink.DBSinkConfig.RELATION_TABLE_
 public abstract class AbstractDBSink<T extends PluginConfig & DatabaseSinkConfig>
   extends ReferenceBatchSink<StructuredRecord, DBRecord, NullWritable> {
   private static final Logger LOG = LoggerFactory.getLogger(AbstractDBSink.class);
+  private static final List<String> OUTPUT_ARGUMENTS = Arrays.asList(
+    ETLDBOutputFormat.COMMIT_BATCH_SIZE, ETLDBOutputFormat.ADAPTIVE_BATCH_SIZE,
+    ETLDBOutputFormat.TARGET_BATCH_LATENCY_MS, ETLDBOutputFormat.MAX_BATCH_SIZE, ETLDBOutputFormat.MAX_BATCH_BYTES,
+    ETLDBOutputFormat.MAX_ERROR_RECORDS, ETLDBOutputFormat.MAX_BISECTION_DEPTH, ETLDBOutputFormat.MAX_RETRIES,
+    ETLDBOutputFormat.RETRY_BACKOFF_MS, ETLDBOutputFormat.MAX_REPLAY_BYTES, ETLDBOutputFormat.SPLIT_ON_DEADLOCK);
+  // Prefixes of the runtime arguments that pass the table metadata read in prepareRun to the tasks of the stage,
+  // so that every task does not have to query it again.
+  private static final String COLUMN_TYPES_ARGUMENT = "io.cdap.plugin.db.output.column.types.";
+  private static final String INFERRED_SCHEMA_ARGUMENT = "io.cdap.plugin.db.output.inferred.schema.";
+  private static final Gson GSON = new Gson();
+  private static final Type COLUMN_TYPE_LIST_TYPE = new TypeToken<List<ColumnType>>() { }.getType();
 
   private final T dbSinkConfig;
   private Class<? extends Driver> driverClass;
-  private DriverCleanup driverCleanup;
   protected List<String> columns;
   protected List<ColumnType> columnTypes;
   protected String dbColumns;
@@ -190,13 +206,21 @@ public abstract class AbstractDBSink<T extends PluginConfig & DatabaseSinkConfig
         collector.getOrThrowException();
       } else {
         outputSchema = inferSchema(driverClass);
+        context.getArguments().set(INFERRED_SCHEMA_ARGUMENT + context.getStageName(), outputSchema.toString());
       }
+      if (Boolean.parseBoolean(context.getArguments().get(ETLDBOutputFormat.SORT_BY_PRIMARY_KEY))) {
+        List<String> keyFields = getPrimaryKeyFields(driverClass, outputSchema);
+        if (!keyFields.isEmpty()) {
+          configuration.set(ETLDBOutputFormat.SORT_KEY_FIELDS, String.join(",", keyFields));
+        }
+      }
+      setColumnsInfo(outputSchema.getFields());
+      context.getArguments().set(COLUMN_TYPES_ARGUMENT + context.getStageName(),
+                                 GSON.toJson(getColumnTypes(driverClass), COLUMN_TYPE_LIST_TYPE));
     } finally {
       DBUtils.cleanup(driverClass);
     }
 
-    setColumnsInfo(outputSchema.getFields());
-
     emitLineage(context, outputSchema.getFields());
 
     configAccessor.setConnectionArguments(dbSinkConfig.getConnectionArguments());
@@ -222,10 +246,33 @@ public abstract class AbstractDBSink<T extends PluginConfig & DatabaseSinkConfig
       configAccessor.setTransactionIsolationLevel(dbSinkConfig.getTransactionIsolationLevel());
     }
 
-    // Configure batch size if specified in pipeline arguments.
-    if (context.getArguments().has(ETLDBOutputFormat.COMMIT_BATCH_SIZE)) {
-      configuration.set(ETLDBOutputFormat.COMMIT_BATCH_SIZE,
-                        context.getArguments().get(ETLDBOutputFormat.COMMIT_BATCH_SIZE));
+    List<String> shards = dbSinkConfig.getShardConnectionStrings();
+    if (!shards.isEmpty()) {
+      // fail before the tasks start if the records cannot be routed
+      new ShardRouter(dbSinkConfig.getShardKey(), dbSinkConfig.getShardRouting(), dbSinkConfig.getShardMap(),
+                      shards.size());
+      configAccessor.setShardConnectionStrings(shards);
+      configuration.set(ETLDBOutputFormat.SHARD_KEY, dbSinkConfig.getShardKey());
+      if (dbSinkConfig.getShardRouting() != null) {
+        configuration.set(ETLDBOutputFormat.SHARD_ROUTING, dbSinkConfig.getShardRouting());
+      }
+      if (dbSinkConfig.getShardMap() != null) {
+        configuration.set(ETLDBOutputFormat.SHARD_MAP, dbSinkConfig.getShardMap());
+      }
+    }
+
+    // Configure batch size if specified in the plugin config, pipeline arguments below take precedence.
+    if (dbSinkConfig.getBatchSize() != null) {
+      configuration.setInt(ETLDBOutputFormat.COMMIT_BATCH_SIZE, dbSinkConfig.getBatchSize());
+    }
+    if (dbSinkConfig.getMaxBatchBytes() != null) {
+      configuration.setLong(ETLDBOutputFormat.MAX_BATCH_BYTES, dbSinkConfig.getMaxBatchBytes());
+    }
+    // Configure batching and error handling if specified in pipeline arguments.
+    for (String outputProperty : OUTPUT_ARGUMENTS) {
+      if (context.getArguments().has(outputProperty)) {
+        configuration.set(outputProperty, context.getArguments().get(outputProperty));
+      }
     }
 
     addOutputContext(context);
@@ -257,10 +304,17 @@ public abstract class AbstractDBSink<T extends PluginConfig & DatabaseSinkConfig
   public void initialize(BatchRuntimeContext context) throws Exception {
     super.initialize(context);
     driverClass = context.loadPluginClass(getJDBCPluginId());
-    Schema outputSchema = Optional.ofNullable(context.getInputSchema()).orElse(inferSchema(driverClass));
-
+    Schema outputSchema = context.getInputSchema();
+    if (outputSchema == null) {
+      String inferredSchema = context.getArguments().get(INFERRED_SCHEMA_ARGUMENT + context.getStageName());
+      outputSchema = inferredSchema == null ? inferSchema(driverClass) : Schema.parseJson(inferredSchema);
+    }
     setColumnsInfo(outputSchema.getFields());
-    setResultSetMetadata();
+
+    String cachedColumnTypes = context.getArguments().get(COLUMN_TYPES_ARGUMENT + context.getStageName());
+    List<ColumnType> columnTypes = cachedColumnTypes == null ? getColumnTypes(driverClass)
+      : GSON.fromJson(cachedColumnTypes, COLUMN_TYPE_LIST_TYPE);
+    this.columnTypes = Collections.unmodifiableList(columnTypes);
   }
 
   private Schema inferSchema(Class<? extends Driver> driverClass) {
@@ -269,14 +323,15 @@ public abstract class AbstractDBSink<T extends PluginConfig & DatabaseSinkConfig
     String fullyQualifiedTableName = dbSchemaName == null ? dbSinkConfig.getEscapedTableName()
             : dbSinkConfig.getEscapedDbSchemaName() + "." + dbSinkConfig.getEscapedTableName();
     try {
-      DBUtils.ensureJDBCDriverIsAvailable(driverClass, dbSinkConfig.getConnectionString(),
-                                          dbSinkConfig.getJdbcPluginName());
+      DriverCleanup driverCleanup = DBUtils.ensureJDBCDriverIsAvailable(driverClass,
+                                                                        dbSinkConfig.getConnectionString(),
+                                                                        dbSinkConfig.getJdbcPluginName());
       Properties connectionProperties = new Properties();
       connectionProperties.putAll(dbSinkConfig.getConnectionArguments());
-      try (Connection connection = DriverManager.getConnection(dbSinkConfig.getConnectionString(),
-                                                               connectionProperties)) {
-        executeInitQueries(connection, dbSinkConfig.getInitQueries());
-
+      try (Connection connection = ConnectionPool.getConnection(driverCleanup.getDriver(),
+                                                                dbSinkConfig.getConnectionString(),
+                                                                connectionProperties,
+                                                                dbSinkConfig.getInitQueries())) {
         try (Statement statement = connection.createStatement();
              ResultSet rs = statement.executeQuery("SELECT * FROM " + fullyQualifiedTableName
                                                      + " WHERE 1 = 0")) {
@@ -285,6 +340,8 @@ public abstract class AbstractDBSink<T extends PluginConfig & DatabaseSinkConfig
       } catch (SQLException e) {
         throw new InvalidStageException("Error while reading table metadata", e);
 
+      } finally {
+        driverCleanup.destroy();
       }
     } catch (IllegalAccessException | InstantiationException | SQLException e) {
       throw new InvalidStageException("JDBC Driver unavailable: " + dbSinkConfig.getJdbcPluginName(), e);
@@ -292,6 +349,87 @@ public abstract class AbstractDBSink<T extends PluginConfig & DatabaseSinkConfig
     return Schema.recordOf("inferredSchema", inferredFields);
   }
 
+  /**
+   * Returns the names of the fields that make up the primary key of the table, ordered by their position in the key.
+   * Only the leading key columns that are present in the schema are returned.
+   */
+  private List<String> getPrimaryKeyFields(Class<? extends Driver> driverClass, Schema schema) {
+    Map<String, String> fieldNames = new HashMap<>();
+    for (Schema.Field field : schema.getFields()) {
+      fieldNames.put(field.getName().toLowerCase(), field.getName());
+    }
+
+    String tableName = dbSinkConfig.getTableName();
+    DriverCleanup driverCleanup;
+    try {
+      driverCleanup = DBUtils.ensureJDBCDriverIsAvailable(driverClass, dbSinkConfig.getConnectionString(),
+                                                          dbSinkConfig.getJdbcPluginName());
+    } catch (IllegalAccessException | InstantiationException | SQLException e) {
+      LOG.warn("Records will not be sorted because JDBC driver '{}' could not be loaded.", driverClass, e);
+      return Collections.emptyList();
+    }
+
+    Properties connectionProperties = new Properties();
+    connectionProperties.putAll(dbSinkConfig.getConnectionArguments());
+    try (Connection connection = ConnectionPool.getConnection(driverCleanup.getDriver(),
+                                                              dbSinkConfig.getConnectionString(),
+                                                              connectionProperties, dbSinkConfig.getInitQueries())) {
+      Map<Integer, String> keyColumns = new TreeMap<>();
+      DatabaseMetaData metaData = connection.getMetaData();
+      try (ResultSet rs = metaData.getPrimaryKeys(null, getStoredIdentifier(metaData, dbSinkConfig.getDBSchemaName()),
+                                                  getStoredIdentifier(metaData, tableName))) {
+        while (rs.next()) {
+          keyColumns.put(rs.getInt("KEY_SEQ"), rs.getString("COLUMN_NAME"));
+        }
+      }
+
+      List<String> keyFields = new ArrayList<>();
+      for (String column : keyColumns.values()) {
+        String field = fieldNames.get(column.toLowerCase());
+        if (field == null) {
+          break;
+        }
+        keyFields.add(field);
+      }
+      if (keyFields.isEmpty()) {
+        LOG.warn("Records will not be sorted because no primary key columns of table '{}' are present in the " +
+                   "input schema.", tableName);
+      } else {
+        LOG.debug("Sorting records written to table '{}' by {}.", tableName, keyFields);
+      }
+      return keyFields;
+    } catch (SQLException e) {
+      LOG.warn("Records will not be sorted because the primary key of table '{}' could not be read.", tableName, e);
+      return Collections.emptyList();
+    } finally {
+      driverCleanup.destroy();
+    }
+  }
+
+  /**
+   * Returns the given identifier as it is stored in the database catalog, which is in upper or lower case in some
+   * databases unless the identifier is quoted.
+   */
+  @VisibleForTesting
+  @Nullable
+  static String getStoredIdentifier(DatabaseMetaData metaData, @Nullable String identifier) throws SQLException {
+    if (identifier == null) {
+      return null;
+    }
+    String quote = metaData.getIdentifierQuoteString();
+    if (quote != null && !quote.trim().isEmpty() && identifier.length() > 1 && identifier.startsWith(quote)
+      && identifier.endsWith(quote)) {
+      return identifier.substring(quote.length(), identifier.length() - quote.length());
+    }
+    if (metaData.storesUpperCaseIdentifiers()) {
+      return identifier.toUpperCase(Locale.ROOT);
+    }
+    if (metaData.storesLowerCaseIdentifiers()) {
+      return identifier.toLowerCase(Locale.ROOT);
+    }
+    return identifier;
+  }
+
   @Override
   public void transform(StructuredRecord input, Emitter<KeyValue<DBRecord, NullWritable>> emitter) {
     emitter.emit(new KeyValue<>(getDBRecord(input), null));
@@ -308,36 +446,40 @@ public abstract class AbstractDBSink<T extends PluginConfig & DatabaseSinkConfig
   @Override
   public void destroy() {
     DBUtils.cleanup(driverClass);
-    if (driverCleanup != null) {
-      driverCleanup.destroy();
-    }
   }
 
-  private void setResultSetMetadata() throws Exception {
-    List<ColumnType> columnTypes = new ArrayList<>(columns.size());
+  /**
+   * Returns the types of the table columns the {@link #columns} are written to.
+   */
+  private List<ColumnType> getColumnTypes(Class<? extends Driver> driverClass) {
     String connectionString = dbSinkConfig.getConnectionString();
     String dbSchemaName = dbSinkConfig.getDBSchemaName();
     String fullyQualifiedTableName = dbSchemaName == null ? dbSinkConfig.getEscapedTableName()
             : dbSinkConfig.getEscapedDbSchemaName() + "." + dbSinkConfig.getEscapedTableName();
 
-    driverCleanup = DBUtils
-      .ensureJDBCDriverIsAvailable(driverClass, connectionString, dbSinkConfig.getJdbcPluginName());
+    DriverCleanup driverCleanup;
+    try {
+      driverCleanup = DBUtils.ensureJDBCDriverIsAvailable(driverClass, connectionString,
+                                                          dbSinkConfig.getJdbcPluginName());
+    } catch (IllegalAccessException | InstantiationException | SQLException e) {
+      throw new InvalidStageException("JDBC Driver unavailable: " + dbSinkConfig.getJdbcPluginName(), e);
+    }
 
     Properties connectionProperties = new Properties();
     connectionProperties.putAll(dbSinkConfig.getConnectionArguments());
-    try (Connection connection = DriverManager.getConnection(connectionString, connectionProperties)) {
-      executeInitQueries(connection, dbSinkConfig.getInitQueries());
-      try (Statement statement = connection.createStatement();
-           // Run a query against the DB table that returns 0 records, but returns valid ResultSetMetadata
-           // that can be used to construct DBRecord objects to sink to the database table.
-           ResultSet rs = statement.executeQuery(String.format("SELECT %s FROM %s WHERE 1 = 0",
-                                                               dbColumns, fullyQualifiedTableName))
-      ) {
-        columnTypes.addAll(getMatchedColumnTypeList(rs, columns));
-      }
+    try (Connection connection = ConnectionPool.getConnection(driverCleanup.getDriver(), connectionString,
+                                                              connectionProperties, dbSinkConfig.getInitQueries());
+         Statement statement = connection.createStatement();
+         // Run a query against the DB table that returns 0 records, but returns valid ResultSetMetadata
+         // that can be used to construct DBRecord objects to sink to the database table.
+         ResultSet rs = statement.executeQuery(String.format("SELECT %s FROM %s WHERE 1 = 0",
+                                                             dbColumns, fullyQualifiedTableName))) {
+      return getMatchedColumnTypeList(rs, columns);
+    } catch (SQLException e) {
+      throw new InvalidStageException("Error while reading table metadata", e);
+    } finally {
+      driverCleanup.destroy();
     }
-
-    this.columnTypes = Collections.unmodifiableList(columnTypes);
   }
 
   /**
@@ -382,8 +524,10 @@ public abstract class AbstractDBSink<T extends PluginConfig & DatabaseSinkConfig
     String connectionString = dbSinkConfig.getConnectionString();
     String fullyQualifiedTableName = dbSchemaName == null ? dbSinkConfig.getEscapedTableName()
             : dbSinkConfig.getEscapedDbSchemaName() + "." + dbSinkConfig.getEscapedTableName();
+    DriverCleanup driverCleanup;
     try {
-      DBUtils.ensureJDBCDriverIsAvailable(jdbcDriverClass, connectionString, dbSinkConfig.getJdbcPluginName());
+      driverCleanup = DBUtils.ensureJDBCDriverIsAvailable(jdbcDriverClass, connectionString,
+                                                          dbSinkConfig.getJdbcPluginName());
     } catch (IllegalAccessException | InstantiationException | SQLException e) {
       collector.addFailure(String.format("Unable to load or register JDBC driver '%s' while checking for " +
                                            "the existence of the database table '%s'.",
@@ -394,8 +538,8 @@ public abstract class AbstractDBSink<T extends PluginConfig & DatabaseSinkConfig
 
     Properties connectionProperties = new Properties();
     connectionProperties.putAll(dbSinkConfig.getConnectionArguments());
-    try (Connection connection = DriverManager.getConnection(connectionString, connectionProperties)) {
-      executeInitQueries(connection, dbSinkConfig.getInitQueries());
+    try (Connection connection = ConnectionPool.getConnection(driverCleanup.getDriver(), connectionString,
+                                                              connectionProperties, dbSinkConfig.getInitQueries())) {
       try (ResultSet tables = connection.getMetaData().getTables(null, dbSchemaName, tableName, null)) {
         if (!tables.next()) {
           collector.addFailure(
@@ -420,6 +564,8 @@ public abstract class AbstractDBSink<T extends PluginConfig & DatabaseSinkConfig
         String.format("Exception while trying to validate schema of database table '%s' for connection '%s' with %s",
                 fullyQualifiedTableName, connectionString, e.getMessage()),
         null).withStacktrace(e.getStackTrace());
+    } finally {
+      driverCleanup.destroy();
     }
   }
 
@@ -440,14 +586,6 @@ public abstract class AbstractDBSink<T extends PluginConfig & DatabaseSinkConfig
     return new LineageRecorder(context, dbSinkConfig.getReferenceName());
   }
 
-  private void executeInitQueries(Connection connection, List<String> initQueries) throws SQLException {
-    for (String query : initQueries) {
-      try (Statement statement = connection.createStatement()) {
-        statement.execute(query);
-      }
-    }
-  }
-
   /**
    * {@link PluginConfig} for {@link AbstractDBSink}
    */
@@ -457,6 +595,8 @@ public abstract class AbstractDBSink<T extends PluginConfig & DatabaseSinkConfig
     public static final String TRANSACTION_ISOLATION_LEVEL = "transactionIsolationLevel";
     public static final String OPERATION_NAME = "operationName";
     public static final String RELATION_TABLE_KEY = "relationTableKey";
+    public static final String BATCH_SIZE = "batchSize";
+    public static final String MAX_BATCH_BYTES = "maxBatchBytes";
 
     @Name(TABLE_NAME)
     @Description("Name of the database table to write to.")
@@ -481,6 +621,21 @@ public abstract class AbstractDBSink<T extends PluginConfig & DatabaseSinkConfig
     @Description("List of fields that determines relation between tables during Update and Upsert operations.")
     protected String relationTableKey;
 
+    @Name(BATCH_SIZE)
+    @Macro
+    @Nullable
+    @Description("Maximum number of rows in a batch submitted to the database. If set to 0, rows are submitted " +
+      "based on the batch bytes limit only. Defaults to 1000.")
+    protected Integer batchSize;
+
+    @Name(MAX_BATCH_BYTES)
+    @Macro
+    @Nullable
+    @Description("Maximum approximate number of bytes in a batch submitted to the database. A batch is submitted " +
+      "as soon as either this or the batch size limit is reached. If set to 0, rows are submitted based on the " +
+      "batch size only. Defaults to 8388608 (8 MB).")
+    protected Long maxBatchBytes;
+
     public String getTableName() {
       return tableName;
     }
@@ -498,6 +653,30 @@ public abstract class AbstractDBSink<T extends PluginConfig & DatabaseSinkConfig
       return relationTableKey;
     }
 
+    @Nullable
+    @Override
+    public Integer getBatchSize() {
+      return batchSize;
+    }
+
+    @Nullable
+    @Override
+    public Long getMaxBatchBytes() {
+      return maxBatchBytes;
+    }
+
+    @Override
+    public void validate(FailureCollector collector) {
+      if (!containsMacro(BATCH_SIZE) && batchSize != null && batchSize < 0) {
+        collector.addFailure("Invalid batch size.", "Batch size must be a non-negative integer.")
+          .withConfigProperty(BATCH_SIZE);
+      }
+      if (!containsMacro(MAX_BATCH_BYTES) && maxBatchBytes != null && maxBatchBytes < 0) {
+        collector.addFailure("Invalid batch bytes.", "Batch bytes must be a non-negative integer.")
+          .withConfigProperty(MAX_BATCH_BYTES);
+      }
+    }
+
     /**
      * Adds escape characters (back quotes, double quotes, etc.) to the table name for
      * databases with case-sensitive identifiers.
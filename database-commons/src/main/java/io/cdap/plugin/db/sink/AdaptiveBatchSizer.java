@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.sink;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes the number of rows to submit in the next {@link java.sql.PreparedStatement#executeBatch()} call based on
+ * the latency and the size of the batches executed so far.
+ * <p>
+ * The batch size moves toward the number of rows that is expected to complete within the target latency, but it never
+ * grows or shrinks by more than a factor of two between two batches. The size is always kept within the hard caps on
+ * rows and bytes, so that a batch never exceeds what the JDBC driver is able to send in one round trip
+ * (e.g. MySQL 'max_allowed_packet').
+ */
+public class AdaptiveBatchSizer {
+  static final int MIN_BATCH_SIZE = 1;
+  // weight of the latest batch in the moving averages of per-row latency and size
+  private static final double SMOOTHING_FACTOR = 0.5;
+
+  private final long targetLatencyNanos;
+  private final int maxRows;
+  private final long maxBytes;
+
+  private int batchSize;
+  private double nanosPerRow;
+  private double bytesPerRow;
+
+  /**
+   * @param initialSize size of the first batch
+   * @param targetLatencyMillis desired duration of a single executeBatch call
+   * @param maxRows hard cap on the number of rows in a batch
+   * @param maxBytes hard cap on the approximate number of bytes in a batch
+   */
+  public AdaptiveBatchSizer(int initialSize, long targetLatencyMillis, int maxRows, long maxBytes) {
+    Preconditions.checkArgument(targetLatencyMillis > 0, "Target batch latency must be positive.");
+    Preconditions.checkArgument(maxRows >= MIN_BATCH_SIZE, "Maximum batch size must be positive.");
+    Preconditions.checkArgument(maxBytes > 0, "Maximum batch bytes must be positive.");
+    this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+    this.maxRows = maxRows;
+    this.maxBytes = maxBytes;
+    this.batchSize = Math.max(MIN_BATCH_SIZE, Math.min(initialSize, maxRows));
+  }
+
+  /**
+   * @return number of rows to accumulate before the next batch is submitted
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Returns whether the pending batch should be submitted.
+   *
+   * @param rows number of rows in the pending batch
+   * @param bytes approximate size of the pending batch in bytes
+   */
+  public boolean isFull(int rows, long bytes) {
+    return rows >= batchSize || bytes >= maxBytes;
+  }
+
+  /**
+   * Records the outcome of a submitted batch and recomputes the size of the next one.
+   *
+   * @param rows number of rows in the submitted batch
+   * @param bytes approximate size of the submitted batch in bytes
+   * @param elapsedNanos time spent in the executeBatch call
+   */
+  public void update(int rows, long bytes, long elapsedNanos) {
+    if (rows <= 0) {
+      return;
+    }
+    nanosPerRow = smooth(nanosPerRow, (double) Math.max(elapsedNanos, 1L) / rows);
+    bytesPerRow = smooth(bytesPerRow, (double) bytes / rows);
+
+    double target = targetLatencyNanos / nanosPerRow;
+    if (bytesPerRow > 0) {
+      target = Math.min(target, maxBytes / bytesPerRow);
+    }
+    // limit the step so that a single outlier does not swing the batch size
+    target = Math.max(batchSize / 2.0, Math.min(batchSize * 2.0, target));
+    batchSize = (int) Math.max(MIN_BATCH_SIZE, Math.min(maxRows, target));
+  }
+
+  private static double smooth(double average, double sample) {
+    return average == 0 ? sample : average + SMOOTHING_FACTOR * (sample - average);
+  }
+}
@@ -19,28 +19,25 @@ package io.cdap.plugin.db.sink;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import io.cdap.plugin.db.ConnectionConfigAccessor;
-import io.cdap.plugin.db.JDBCDriverShim;
+import io.cdap.plugin.db.DriverRegistry;
 import io.cdap.plugin.db.NoOpCommitConnection;
 import io.cdap.plugin.db.Operation;
 import io.cdap.plugin.db.TransactionIsolationLevel;
-import io.cdap.plugin.util.DBUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.mapreduce.RecordWriter;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapreduce.lib.db.DBConfiguration;
 import org.apache.hadoop.mapreduce.lib.db.DBOutputFormat;
 import org.apache.hadoop.mapreduce.lib.db.DBWritable;
-import org.apache.hadoop.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.Driver;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -57,13 +54,58 @@ public class ETLDBOutputFormat<K extends DBWritable, V> extends DBOutputFormat<K
   // Batch size before submitting a batch to the SQL engine. If set to 0, no batches will be submitted until commit.
   public static final String COMMIT_BATCH_SIZE = "io.cdap.plugin.db.output.commit.batch.size";
   public static final int DEFAULT_COMMIT_BATCH_SIZE = 1000;
+  // Maximum approximate number of bytes bound to the statement before submitting a batch to the SQL engine.
+  // The batch is submitted as soon as either the row or the byte limit is reached. If set to 0, batches are
+  // submitted based on the number of rows only.
+  public static final String MAX_BATCH_BYTES = "io.cdap.plugin.db.output.commit.batch.max.bytes";
+  public static final long DEFAULT_MAX_BATCH_BYTES = 8L * 1024 * 1024;
+  // If enabled, the batch size is adjusted after every batch based on the observed executeBatch latency.
+  // The commit batch size is then used as the size of the first batch.
+  public static final String ADAPTIVE_BATCH_SIZE = "io.cdap.plugin.db.output.commit.batch.adaptive";
+  public static final String TARGET_BATCH_LATENCY_MS = "io.cdap.plugin.db.output.commit.batch.target.latency.ms";
+  public static final long DEFAULT_TARGET_BATCH_LATENCY_MS = 1000L;
+  // Hard cap on the number of rows in a batch when adaptive sizing is enabled.
+  public static final String MAX_BATCH_SIZE = "io.cdap.plugin.db.output.commit.batch.max.size";
+  public static final int DEFAULT_MAX_BATCH_SIZE = 50000;
+  // Maximum number of records that may fail to be written before the task fails. Failed batches are bisected to
+  // find the records that cannot be written. If set to 0, any failed batch fails the task.
+  public static final String MAX_ERROR_RECORDS = "io.cdap.plugin.db.output.max.error.records";
+  public static final int DEFAULT_MAX_ERROR_RECORDS = 0;
+  // Maximum number of times a failed batch is split in halves. Records of a batch that still fails at this depth
+  // are all counted as errors.
+  public static final String MAX_BISECTION_DEPTH = "io.cdap.plugin.db.output.bisection.max.depth";
+  public static final int DEFAULT_MAX_BISECTION_DEPTH = 20;
+  // Maximum number of times the transaction is replayed on a new connection after a transient error, such as a lost
+  // connection or a deadlock. If set to 0, any transient error fails the task.
+  public static final String MAX_RETRIES = "io.cdap.plugin.db.output.retry.max.attempts";
+  public static final int DEFAULT_MAX_RETRIES = 0;
+  // Delay before the first retry, doubled for every subsequent retry.
+  public static final String RETRY_BACKOFF_MS = "io.cdap.plugin.db.output.retry.backoff.ms";
+  public static final long DEFAULT_RETRY_BACKOFF_MS = 1000L;
+  // Maximum approximate number of bytes written in a transaction that are kept in memory for a replay. Transient
+  // errors are not retried once a transaction exceeds this size.
+  public static final String MAX_REPLAY_BYTES = "io.cdap.plugin.db.output.retry.max.replay.bytes";
+  public static final long DEFAULT_MAX_REPLAY_BYTES = 64L * 1024 * 1024;
+  // If enabled, the batch that failed due to a deadlock is replayed in smaller parts, halved on every deadlock.
+  public static final String SPLIT_ON_DEADLOCK = "io.cdap.plugin.db.output.retry.split.on.deadlock";
+  // If enabled, every batch is sorted by the primary key of the table before it is submitted. This reduces lock
+  // contention and page splits when several tasks insert into the same index.
+  public static final String SORT_BY_PRIMARY_KEY = "io.cdap.plugin.db.output.sort.by.primary.key";
+  // Comma-separated names of the fields batches are sorted by, set from the primary key discovered at prepare time.
+  public static final String SORT_KEY_FIELDS = "io.cdap.plugin.db.output.sort.key.fields";
+  // Name of the field records are routed to the shards by, if the shard connection strings are set.
+  public static final String SHARD_KEY = "io.cdap.plugin.db.output.shard.key";
+  // One of 'hash', 'range' or 'lookup', see ShardRouter.
+  public static final String SHARD_ROUTING = "io.cdap.plugin.db.output.shard.routing";
+  // Boundaries of the ranges or the lookup pairs, see ShardRouter.
+  public static final String SHARD_MAP = "io.cdap.plugin.db.output.shard.map";
   private static final Character ESCAPE_CHAR = '"';
 
   private static final Logger LOG = LoggerFactory.getLogger(ETLDBOutputFormat.class);
 
   private Configuration conf;
+  private Class<? extends Driver> driverClass;
   private Driver driver;
-  private JDBCDriverShim driverShim;
 
   @Override
   public RecordWriter<K, V> getRecordWriter(TaskAttemptContext context) throws IOException {
@@ -71,7 +113,6 @@ public class ETLDBOutputFormat<K extends DBWritable, V> extends DBOutputFormat<K
     DBConfiguration dbConf = new DBConfiguration(conf);
     String tableName = dbConf.getOutputTableName();
     String[] fieldNames = dbConf.getOutputFieldNames();
-    final int batchSize = conf.getInt(COMMIT_BATCH_SIZE, DEFAULT_COMMIT_BATCH_SIZE);
     final String operationName = conf.get(OPERATION_NAME);
     String[] listKeys = getTableKey();
 
@@ -80,73 +121,49 @@ public class ETLDBOutputFormat<K extends DBWritable, V> extends DBOutputFormat<K
     }
 
     try {
-      Connection connection = getConnection(conf);
-      PreparedStatement statement = connection.prepareStatement(constructQueryOnOperation(tableName, fieldNames,
-        operationName, listKeys));
-      return new DBRecordWriter(connection, statement) {
-
-        private boolean emptyData = true;
-        private long numWrittenRecords = 0;
-
-        //Implementation of the close method below is the exact implementation in DBOutputFormat except that
-        //we check if there is any data to be written and if not, we skip executeBatch call.
-        //There might be reducers that don't receive any data and thus this check is necessary to prevent
-        //empty data to be committed (since some Databases doesn't support that).
-        @Override
-        public void close(TaskAttemptContext context) throws IOException {
-          try {
-            if (!emptyData) {
-              getStatement().executeBatch();
-            }
-            getConnection().commit();
-          } catch (SQLException e) {
-            try {
-              getConnection().rollback();
-            } catch (SQLException ex) {
-              LOG.warn(StringUtils.stringifyException(ex));
-            }
-            throw new IOException(e);
-          } finally {
+      String query = constructQueryOnOperation(tableName, fieldNames, operationName, listKeys);
+      List<String> shards = new ConnectionConfigAccessor(conf).getShardConnectionStrings();
+      if (!shards.isEmpty()) {
+        ShardRouter router = new ShardRouter(conf.get(SHARD_KEY), conf.get(SHARD_ROUTING), conf.get(SHARD_MAP),
+                                             shards.size());
+        return new ShardedRecordWriter<K, V>(
+          router, shard -> new ETLDBRecordWriter<>(() -> getConnection(conf, shards.get(shard)), query, conf),
+          shards.size()) {
+          @Override
+          public void close(TaskAttemptContext context) throws IOException, InterruptedException {
             try {
-              getStatement().close();
-              getConnection().close();
-            } catch (SQLException ex) {
-              throw new IOException(ex);
+              super.close(context);
+            } finally {
+              releaseDriver();
             }
           }
-
-          try {
-            DriverManager.deregisterDriver(driverShim);
-          } catch (SQLException e) {
-            throw new IOException(e);
-          }
-        }
-
+        };
+      }
+      String url = conf.get(DBConfiguration.URL_PROPERTY);
+      return new ETLDBRecordWriter<K, V>(() -> getConnection(conf, url), query, conf) {
         @Override
-        public void write(K key, V value) throws IOException {
-          emptyData = false;
-          //We need to make correct logging to avoid losing information about error
+        public void close(TaskAttemptContext context) throws IOException {
           try {
-            key.write(getStatement());
-            getStatement().addBatch();
-            numWrittenRecords++;
-
-            // Submit a batch to the SQL engine every 10k records
-            // This is done to reduce memory usage in the worker, as processed records can now be GC'd.
-            if (batchSize > 0 && numWrittenRecords % batchSize == 0) {
-              getStatement().executeBatch();
-              emptyData = true;
-            }
-          } catch (SQLException e) {
-            throw new IOException(e);
+            super.close(context);
+          } finally {
+            releaseDriver();
           }
         }
       };
     } catch (Exception ex) {
+      // the writer releases the driver when it is closed, but it was not created
+      releaseDriver();
       throw Throwables.propagate(ex);
     }
   }
 
+  private void releaseDriver() {
+    if (driver != null) {
+      driver = null;
+      DriverRegistry.release(driverClass);
+    }
+  }
+
   /**
    * This method encloses the column name values on which update/upsert needs to take place in "".
    * @return - Column names for update/upsert.
@@ -163,37 +180,23 @@ public class ETLDBOutputFormat<K extends DBWritable, V> extends DBOutputFormat<K
     return listKeys;
   }
 
-  private Connection getConnection(Configuration conf) {
+  private Connection getConnection(Configuration conf, String url) throws SQLException {
     Connection connection;
     try {
-      String url = conf.get(DBConfiguration.URL_PROPERTY);
-      try {
-        // throws SQLException if no suitable driver is found
-        DriverManager.getDriver(url);
-      } catch (SQLException e) {
-        if (driverShim == null) {
-          if (driver == null) {
-            ClassLoader classLoader = conf.getClassLoader();
-            @SuppressWarnings("unchecked")
-            Class<? extends Driver> driverClass =
-              (Class<? extends Driver>) classLoader.loadClass(conf.get(DBConfiguration.DRIVER_CLASS_PROPERTY));
-            driver = driverClass.newInstance();
-
-            // De-register the default driver that gets registered when driver class is loaded.
-            DBUtils.deregisterAllDrivers(driverClass);
-          }
-
-          driverShim = new JDBCDriverShim(driver);
-          DriverManager.registerDriver(driverShim);
-          LOG.debug("Registered JDBC driver via shim {}. Actual Driver {}.", driverShim, driver);
-        }
+      if (driver == null) {
+        ClassLoader classLoader = conf.getClassLoader();
+        @SuppressWarnings("unchecked")
+        Class<? extends Driver> loadedClass =
+          (Class<? extends Driver>) classLoader.loadClass(conf.get(DBConfiguration.DRIVER_CLASS_PROPERTY));
+        driver = DriverRegistry.acquire(loadedClass);
+        driverClass = loadedClass;
       }
 
       ConnectionConfigAccessor connectionConfigAccessor = new ConnectionConfigAccessor(conf);
       Map<String, String> connectionArgs = connectionConfigAccessor.getConnectionArguments();
       Properties properties = new Properties();
       properties.putAll(connectionArgs);
-      connection = DriverManager.getConnection(url, properties);
+      connection = DriverRegistry.connect(driver, url, properties);
 
       boolean autoCommitEnabled = connectionConfigAccessor.isAutoCommitEnabled();
       if (autoCommitEnabled) {
@@ -211,6 +214,8 @@ public class ETLDBOutputFormat<K extends DBWritable, V> extends DBOutputFormat<K
           statement.execute(query);
         }
       }
+    } catch (SQLException e) {
+      throw e;
     } catch (Exception e) {
       throw Throwables.propagate(e);
     }
@@ -0,0 +1,387 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.sink;
+
+import com.google.common.collect.Lists;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.db.DBWritable;
+import org.apache.hadoop.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Writes records to a database table using JDBC batches.
+ * <p>
+ * A batch is submitted once either the row or the byte limit configured in {@link ETLDBOutputFormat} is reached.
+ * If an error budget is configured, a failed batch is rolled back to a savepoint and bisected to find the records
+ * that cannot be written. The remaining records are written in sub-batches and the failed records are logged and
+ * counted against the budget. All records are committed in a single transaction when the writer is closed.
+ * <p>
+ * If retries are configured, the records written in the current transaction are kept in memory. After a transient
+ * error, such as a lost connection or a deadlock, the writer reconnects and replays the transaction.
+ * <p>
+ * If primary key fields are configured, every batch is sorted by these fields before it is submitted.
+ *
+ * @param <K> - Key passed to this class to be written
+ * @param <V> - Value passed to this class to be written. The value is ignored.
+ */
+public class ETLDBRecordWriter<K extends DBWritable, V> extends RecordWriter<K, V> {
+  private static final Logger LOG = LoggerFactory.getLogger(ETLDBRecordWriter.class);
+  private static final long MAX_RETRY_BACKOFF_MS = TimeUnit.MINUTES.toMillis(1);
+
+  private final ConnectionFactory connectionFactory;
+  private final String query;
+  private final int batchSize;
+  private final long maxBatchBytes;
+  @Nullable
+  private final AdaptiveBatchSizer batchSizer;
+  private final int maxErrorRecords;
+  private final int maxBisectionDepth;
+  private final int maxRetries;
+  private final long retryBackoffMillis;
+  private final long maxReplayBytes;
+  private final boolean splitOnDeadlock;
+  @Nullable
+  private final PrimaryKeyComparator keyComparator;
+  // records added to the current batch, kept so that a failed batch can be re-executed in parts
+  private final List<K> pendingRecords = new ArrayList<>();
+  // batches executed in the current transaction, replayed on a new connection after a transient error
+  private final List<List<K>> replayLog = new ArrayList<>();
+  // records and their size executed by the current attempt to write the pending batch
+  private final List<K> executedRecords = new ArrayList<>();
+  private long executedBytes;
+  private long replayBytes;
+  private boolean replayable;
+  private int numErrorRecords;
+  private Connection connection;
+  private SizeTrackingPreparedStatement statement;
+
+  public ETLDBRecordWriter(ConnectionFactory connectionFactory, String query, Configuration conf) throws SQLException {
+    this.connectionFactory = connectionFactory;
+    this.query = query;
+    this.batchSize = conf.getInt(ETLDBOutputFormat.COMMIT_BATCH_SIZE, ETLDBOutputFormat.DEFAULT_COMMIT_BATCH_SIZE);
+    this.maxBatchBytes = conf.getLong(ETLDBOutputFormat.MAX_BATCH_BYTES, ETLDBOutputFormat.DEFAULT_MAX_BATCH_BYTES);
+    this.batchSizer = getBatchSizer(conf, batchSize, maxBatchBytes);
+    this.maxBisectionDepth = conf.getInt(ETLDBOutputFormat.MAX_BISECTION_DEPTH,
+                                         ETLDBOutputFormat.DEFAULT_MAX_BISECTION_DEPTH);
+    this.retryBackoffMillis = conf.getLong(ETLDBOutputFormat.RETRY_BACKOFF_MS,
+                                           ETLDBOutputFormat.DEFAULT_RETRY_BACKOFF_MS);
+    this.maxReplayBytes = conf.getLong(ETLDBOutputFormat.MAX_REPLAY_BYTES, ETLDBOutputFormat.DEFAULT_MAX_REPLAY_BYTES);
+    this.splitOnDeadlock = conf.getBoolean(ETLDBOutputFormat.SPLIT_ON_DEADLOCK, false);
+    String[] keyFields = conf.getTrimmedStrings(ETLDBOutputFormat.SORT_KEY_FIELDS);
+    this.keyComparator = keyFields.length == 0 ? null : new PrimaryKeyComparator(Arrays.asList(keyFields));
+    connect();
+
+    int maxErrors = conf.getInt(ETLDBOutputFormat.MAX_ERROR_RECORDS, ETLDBOutputFormat.DEFAULT_MAX_ERROR_RECORDS);
+    int retries = conf.getInt(ETLDBOutputFormat.MAX_RETRIES, ETLDBOutputFormat.DEFAULT_MAX_RETRIES);
+    if ((maxErrors > 0 || retries > 0) && connection.getAutoCommit()) {
+      // without a transaction the records of a failed batch may already be persisted, so they cannot be replayed
+      LOG.warn("Ignoring the maximum number of error records and retries because auto-commit is enabled. " +
+                 "Any failed batch will fail the task.");
+      maxErrors = 0;
+      retries = 0;
+    }
+    this.maxErrorRecords = maxErrors;
+    this.maxRetries = retries;
+    this.replayable = retries > 0;
+  }
+
+  @Override
+  public void write(K key, V value) throws IOException {
+    //We need to make correct logging to avoid losing information about error
+    try {
+      key.write(statement);
+      statement.addBatch();
+      pendingRecords.add(key);
+
+      if (isBatchFull()) {
+        // Submit a batch to the SQL engine once either the row or the byte limit is reached.
+        // This is done to reduce memory usage in the worker, as processed records can now be GC'd.
+        executeBatch();
+      }
+    } catch (SQLException e) {
+      throw new IOException(e);
+    }
+  }
+
+  //Implementation of the close method below is the exact implementation in DBOutputFormat except that
+  //we check if there is any data to be written and if not, we skip executeBatch call.
+  //There might be reducers that don't receive any data and thus this check is necessary to prevent
+  //empty data to be committed (since some Databases doesn't support that).
+  @Override
+  public void close(TaskAttemptContext context) throws IOException {
+    try {
+      if (!pendingRecords.isEmpty()) {
+        executeBatch();
+      }
+      // the outcome of a failed commit is unknown, so it is never retried
+      connection.commit();
+      if (numErrorRecords > 0) {
+        LOG.warn("{} records could not be written to the database and were skipped.", numErrorRecords);
+      }
+    } catch (SQLException e) {
+      try {
+        connection.rollback();
+      } catch (SQLException ex) {
+        LOG.warn(StringUtils.stringifyException(ex));
+      }
+      throw new IOException(e);
+    } finally {
+      try {
+        statement.close();
+        connection.close();
+      } catch (SQLException ex) {
+        throw new IOException(ex);
+      }
+    }
+  }
+
+  /**
+   * @return the number of records that could not be written and were skipped so far
+   */
+  public int getNumErrorRecords() {
+    return numErrorRecords;
+  }
+
+  private boolean isBatchFull() {
+    int rows = pendingRecords.size();
+    long bytes = statement.getBatchBytes();
+    if (batchSizer != null) {
+      return batchSizer.isFull(rows, bytes);
+    }
+    return (batchSize > 0 && rows >= batchSize) || (maxBatchBytes > 0 && bytes >= maxBatchBytes);
+  }
+
+  private void executeBatch() throws SQLException {
+    int rows = pendingRecords.size();
+    long bytes = statement.getBatchBytes();
+    long start = System.nanoTime();
+    int errorRecords = numErrorRecords;
+    if (keyComparator != null && rows > 1) {
+      // bind the records again in key order to write them in index order
+      statement.clearBatch();
+      pendingRecords.sort(keyComparator);
+      addBatch(pendingRecords);
+    }
+    int parts = 1;
+    int attempt = 0;
+    while (true) {
+      executedRecords.clear();
+      executedBytes = 0;
+      try {
+        if (attempt == 0) {
+          execute(pendingRecords);
+        } else {
+          connect();
+          replay();
+          for (List<K> part : Lists.partition(pendingRecords, (rows + parts - 1) / parts)) {
+            addBatch(part);
+            execute(part);
+          }
+        }
+        break;
+      } catch (SQLException e) {
+        if (attempt >= maxRetries || !replayable || !RetryableSQLErrors.isRetryable(e)) {
+          throw e;
+        }
+        numErrorRecords = errorRecords;
+        if (splitOnDeadlock && RetryableSQLErrors.isDeadlock(e)) {
+          parts = Math.min(parts * 2, rows);
+        }
+        long backoff = Math.min(retryBackoffMillis << attempt, MAX_RETRY_BACKOFF_MS);
+        LOG.warn("Transient error while writing a batch of {} records. Replaying the transaction on a new " +
+                   "connection in {} ms, attempt {} of {}. SQL state: {}, error code: {}, message: {}",
+                 rows, backoff, attempt + 1, maxRetries, e.getSQLState(), e.getErrorCode(), e.getMessage());
+        try {
+          TimeUnit.MILLISECONDS.sleep(backoff);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw e;
+        }
+        attempt++;
+      }
+    }
+    appendToReplayLog();
+    pendingRecords.clear();
+
+    if (batchSizer != null) {
+      batchSizer.update(rows, bytes, System.nanoTime() - start);
+      LOG.trace("Executed batch of {} rows ({} bytes). Next batch size is {}.", rows, bytes,
+                batchSizer.getBatchSize());
+    }
+  }
+
+  /**
+   * Executes the given records, which are currently added to the statement.
+   */
+  private void execute(List<K> records) throws SQLException {
+    if (maxErrorRecords > 0) {
+      executeBatch(records, 0);
+    } else {
+      long bytes = statement.getBatchBytes();
+      statement.executeBatch();
+      executed(records, bytes);
+    }
+  }
+
+  /**
+   * Executes the records currently added to the statement. If the batch fails, it is rolled back and both halves are
+   * re-executed separately until the failed records are isolated or the maximum bisection depth is reached.
+   */
+  private void executeBatch(List<K> records, int depth) throws SQLException {
+    long bytes = statement.getBatchBytes();
+    Savepoint savepoint = connection.setSavepoint();
+    try {
+      statement.executeBatch();
+    } catch (SQLException e) {
+      if (RetryableSQLErrors.isRetryable(e)) {
+        // not caused by the records, the transaction has to be replayed
+        throw e;
+      }
+      statement.clearBatch();
+      connection.rollback(savepoint);
+      if (records.size() == 1 || depth >= maxBisectionDepth) {
+        reject(records, e);
+        return;
+      }
+      int middle = records.size() / 2;
+      LOG.debug("Batch of {} records failed, retrying both halves separately.", records.size());
+      addBatch(records.subList(0, middle));
+      executeBatch(records.subList(0, middle), depth + 1);
+      addBatch(records.subList(middle, records.size()));
+      executeBatch(records.subList(middle, records.size()), depth + 1);
+      return;
+    }
+    releaseSavepoint(savepoint);
+    executed(records, bytes);
+  }
+
+  private void addBatch(List<K> records) throws SQLException {
+    for (K record : records) {
+      record.write(statement);
+      statement.addBatch();
+    }
+  }
+
+  private void reject(List<K> records, SQLException e) throws SQLException {
+    numErrorRecords += records.size();
+    // some drivers only report the actual cause of a batch failure in the chained exception
+    SQLException cause = e instanceof BatchUpdateException && e.getNextException() != null ? e.getNextException() : e;
+    LOG.warn("Skipping {} records that could not be written to the database. SQL state: {}, error code: {}, " +
+               "message: {}", records.size(), cause.getSQLState(), cause.getErrorCode(), cause.getMessage());
+    if (numErrorRecords > maxErrorRecords) {
+      throw new SQLException(String.format("Number of records that could not be written (%d) exceeds the maximum " +
+                                             "of %d.", numErrorRecords, maxErrorRecords),
+                             cause.getSQLState(), cause.getErrorCode(), e);
+    }
+  }
+
+  private void releaseSavepoint(Savepoint savepoint) {
+    try {
+      connection.releaseSavepoint(savepoint);
+    } catch (SQLException e) {
+      // not supported by every database, the savepoint is released when the transaction ends anyway
+      LOG.trace("Failed to release savepoint.", e);
+    }
+  }
+
+  private void executed(List<K> records, long bytes) {
+    if (replayable) {
+      executedRecords.addAll(records);
+      executedBytes += bytes;
+    }
+  }
+
+  private void appendToReplayLog() {
+    if (!replayable || executedRecords.isEmpty()) {
+      return;
+    }
+    replayBytes += executedBytes;
+    if (replayBytes > maxReplayBytes) {
+      LOG.debug("Records written in the current transaction exceed {} bytes, transient errors will not be retried.",
+                maxReplayBytes);
+      replayable = false;
+      replayLog.clear();
+      executedRecords.clear();
+      return;
+    }
+    replayLog.add(new ArrayList<>(executedRecords));
+  }
+
+  /**
+   * Re-executes all batches written in the current transaction.
+   */
+  private void replay() throws SQLException {
+    for (List<K> batch : replayLog) {
+      addBatch(batch);
+      statement.executeBatch();
+    }
+    LOG.debug("Replayed {} batches of the current transaction.", replayLog.size());
+  }
+
+  /**
+   * Opens a new connection and prepares the statement, closing the previous connection if any.
+   */
+  private void connect() throws SQLException {
+    if (connection != null) {
+      try {
+        statement.close();
+        connection.close();
+      } catch (SQLException e) {
+        LOG.debug("Failed to close the previous connection.", e);
+      }
+    }
+    connection = connectionFactory.getConnection();
+    statement = new SizeTrackingPreparedStatement(connection.prepareStatement(query));
+  }
+
+  @Nullable
+  private static AdaptiveBatchSizer getBatchSizer(Configuration conf, int initialSize, long maxBatchBytes) {
+    if (!conf.getBoolean(ETLDBOutputFormat.ADAPTIVE_BATCH_SIZE, false)) {
+      return null;
+    }
+    int maxRows = conf.getInt(ETLDBOutputFormat.MAX_BATCH_SIZE, ETLDBOutputFormat.DEFAULT_MAX_BATCH_SIZE);
+    long targetLatency = conf.getLong(ETLDBOutputFormat.TARGET_BATCH_LATENCY_MS,
+                                      ETLDBOutputFormat.DEFAULT_TARGET_BATCH_LATENCY_MS);
+    return new AdaptiveBatchSizer(initialSize > 0 ? initialSize : ETLDBOutputFormat.DEFAULT_COMMIT_BATCH_SIZE,
+                                  targetLatency, maxRows, maxBatchBytes > 0 ? maxBatchBytes : Long.MAX_VALUE);
+  }
+
+  /**
+   * Opens connections to the database the records are written to.
+   */
+  public interface ConnectionFactory {
+
+    /**
+     * @return a new connection configured for writing, with all initialization queries executed
+     */
+    Connection getConnection() throws SQLException;
+  }
+}
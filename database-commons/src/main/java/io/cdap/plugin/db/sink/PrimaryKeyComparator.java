@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.sink;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.db.DBRecord;
+import org.apache.hadoop.mapreduce.lib.db.DBWritable;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Orders {@link DBRecord}s by the values of the fields that make up the primary key of the target table, so that a
+ * batch is written in index order. Null values are ordered first, records of other types are considered equal.
+ */
+class PrimaryKeyComparator implements Comparator<DBWritable> {
+  private final List<String> keyFields;
+
+  PrimaryKeyComparator(List<String> keyFields) {
+    this.keyFields = keyFields;
+  }
+
+  @Override
+  public int compare(DBWritable first, DBWritable second) {
+    if (!(first instanceof DBRecord) || !(second instanceof DBRecord)) {
+      return 0;
+    }
+    StructuredRecord firstRecord = ((DBRecord) first).getRecord();
+    StructuredRecord secondRecord = ((DBRecord) second).getRecord();
+    for (String field : keyFields) {
+      int result = compareValues(getValue(firstRecord, field), getValue(secondRecord, field));
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  @Nullable
+  private static Object getValue(StructuredRecord record, String field) {
+    Schema.Field schemaField = record.getSchema().getField(field);
+    if (schemaField == null) {
+      return null;
+    }
+    Schema schema = schemaField.getSchema().isNullable() ? schemaField.getSchema().getNonNullable()
+      : schemaField.getSchema();
+    if (schema.getLogicalType() == Schema.LogicalType.DECIMAL) {
+      return record.getDecimal(field);
+    }
+    Object value = record.get(field);
+    return value instanceof byte[] ? ByteBuffer.wrap((byte[]) value) : value;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static int compareValues(@Nullable Object first, @Nullable Object second) {
+    if (first == null || second == null) {
+      return first == null ? (second == null ? 0 : -1) : 1;
+    }
+    if (first instanceof Comparable && first.getClass().equals(second.getClass())) {
+      return ((Comparable<Object>) first).compareTo(second);
+    }
+    return first.toString().compareTo(second.toString());
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.sink;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.Set;
+
+/**
+ * Classifies {@link SQLException}s that are likely to succeed if the transaction is retried on a new connection.
+ */
+final class RetryableSQLErrors {
+  // SQL state class of connection exceptions
+  private static final String CONNECTION_EXCEPTION_CLASS = "08";
+  // serialization failure and PostgreSQL deadlock detected
+  private static final Set<String> DEADLOCK_SQL_STATES = ImmutableSet.of("40001", "40P01");
+  // Oracle deadlock (ORA-00060), SQL Server deadlock victim and MySQL lock wait timeout (1205), MySQL deadlock (1213)
+  private static final Set<Integer> DEADLOCK_ERROR_CODES = ImmutableSet.of(60, 1205, 1213);
+
+  private RetryableSQLErrors() {
+  }
+
+  /**
+   * Returns whether the given exception or any of the exceptions chained to it indicates a lost connection or a
+   * transaction that was rolled back by the database, such as a deadlock victim.
+   */
+  static boolean isRetryable(SQLException e) {
+    for (Throwable t : e) {
+      if (t instanceof SQLTransientException || t instanceof SQLRecoverableException) {
+        return true;
+      }
+      if (t instanceof SQLException) {
+        String sqlState = ((SQLException) t).getSQLState();
+        if (sqlState != null && sqlState.startsWith(CONNECTION_EXCEPTION_CLASS)) {
+          return true;
+        }
+      }
+    }
+    return isDeadlock(e);
+  }
+
+  /**
+   * Returns whether the given exception or any of the exceptions chained to it indicates that the transaction was
+   * chosen as a deadlock victim or failed due to concurrent updates.
+   */
+  static boolean isDeadlock(SQLException e) {
+    for (Throwable t : e) {
+      if (t instanceof SQLException) {
+        SQLException sqlException = (SQLException) t;
+        if (DEADLOCK_SQL_STATES.contains(sqlException.getSQLState())
+          || DEADLOCK_ERROR_CODES.contains(sqlException.getErrorCode())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.sink;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.db.DBRecord;
+import org.apache.hadoop.mapreduce.lib.db.DBWritable;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Selects the shard a {@link DBRecord} is written to from the value of its shard key field.
+ * <p>
+ * Records are routed by one of the following:
+ * <ul>
+ *   <li>{@link Routing#HASH}: the hash of the key modulo the number of shards.</li>
+ *   <li>{@link Routing#RANGE}: a comma-separated list of ascending boundaries, one less than the number of shards.
+ *   A record is written to the first shard whose boundary is greater than the key, or to the last shard.</li>
+ *   <li>{@link Routing#LOOKUP}: a comma-separated list of 'value:shard' pairs, where shard is the zero-based index of
+ *   the shard in the list of shards.</li>
+ * </ul>
+ * Records with a null key are written to the first shard.
+ */
+public final class ShardRouter {
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_32();
+
+  /**
+   * How records are assigned to shards.
+   */
+  public enum Routing {
+    HASH,
+    RANGE,
+    LOOKUP
+  }
+
+  private final String keyField;
+  private final Routing routing;
+  private final int numShards;
+  private final List<String> boundaries;
+  private final Map<String, Integer> lookup;
+
+  /**
+   * @param keyField name of the field records are routed by
+   * @param routing how records are assigned to shards, case insensitive, defaults to hash if null
+   * @param shardMap the boundaries of the ranges or the lookup pairs, ignored for hash routing
+   * @param numShards number of shards
+   * @throws IllegalArgumentException if the routing or the shard map are invalid
+   */
+  public ShardRouter(String keyField, @Nullable String routing, @Nullable String shardMap, int numShards) {
+    Preconditions.checkArgument(!Strings.isNullOrEmpty(keyField), "Shard key must be specified.");
+    Preconditions.checkArgument(numShards > 0, "At least one shard must be specified.");
+    this.keyField = keyField;
+    this.routing = getRouting(routing);
+    this.numShards = numShards;
+    this.boundaries = new ArrayList<>();
+    this.lookup = new HashMap<>();
+    List<String> entries = Strings.isNullOrEmpty(shardMap) ? new ArrayList<>()
+      : Lists.newArrayList(Splitter.on(',').trimResults().omitEmptyStrings().split(shardMap));
+    if (this.routing == Routing.RANGE) {
+      Preconditions.checkArgument(entries.size() == numShards - 1,
+                                  "Range shard map must contain %s boundaries, one less than the number of shards, " +
+                                    "but contains %s.", numShards - 1, entries.size());
+      boundaries.addAll(entries);
+    } else if (this.routing == Routing.LOOKUP) {
+      Preconditions.checkArgument(!entries.isEmpty(), "Lookup shard map must be specified.");
+      for (String entry : entries) {
+        int separator = entry.lastIndexOf(':');
+        Preconditions.checkArgument(separator > 0, "Invalid lookup shard map entry '%s', expected 'value:shard'.",
+                                    entry);
+        int shard;
+        try {
+          shard = Integer.parseInt(entry.substring(separator + 1).trim());
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException(String.format("Invalid shard in lookup shard map entry '%s'.", entry));
+        }
+        Preconditions.checkArgument(shard >= 0 && shard < numShards,
+                                    "Shard %s of lookup shard map entry '%s' must be between 0 and %s.",
+                                    shard, entry, numShards - 1);
+        lookup.put(entry.substring(0, separator).trim(), shard);
+      }
+    }
+  }
+
+  /**
+   * Returns the index of the shard the given record is written to.
+   *
+   * @throws IllegalArgumentException if the record can not be routed
+   */
+  public int getShard(DBWritable record) {
+    Preconditions.checkArgument(record instanceof DBRecord, "Only database records can be routed to shards.");
+    Object key = getValue(((DBRecord) record).getRecord());
+    if (key == null || numShards == 1) {
+      return 0;
+    }
+    switch (routing) {
+      case RANGE:
+        return getRangeShard(key);
+      case LOOKUP:
+        Integer shard = lookup.get(toString(key));
+        if (shard == null) {
+          throw new IllegalArgumentException(String.format("No shard is mapped to value '%s' of shard key '%s'.",
+                                                           toString(key), keyField));
+        }
+        return shard;
+      default:
+        byte[] bytes = key instanceof ByteBuffer ? toBytes((ByteBuffer) key)
+          : toString(key).getBytes(Charsets.UTF_8);
+        return Math.abs(HASH_FUNCTION.hashBytes(bytes).asInt() % numShards);
+    }
+  }
+
+  private int getRangeShard(Object key) {
+    for (int i = 0; i < boundaries.size(); i++) {
+      if (compare(key, boundaries.get(i)) < 0) {
+        return i;
+      }
+    }
+    return boundaries.size();
+  }
+
+  private static int compare(Object key, String boundary) {
+    if (key instanceof Number) {
+      try {
+        return new BigDecimal(key.toString()).compareTo(new BigDecimal(boundary));
+      } catch (NumberFormatException e) {
+        // fall back to comparing the string representations
+      }
+    }
+    return toString(key).compareTo(boundary);
+  }
+
+  @Nullable
+  private Object getValue(StructuredRecord record) {
+    Schema.Field field = record.getSchema().getField(keyField);
+    Preconditions.checkArgument(field != null, "Shard key '%s' is not a field of the record.", keyField);
+    Schema schema = field.getSchema().isNullable() ? field.getSchema().getNonNullable() : field.getSchema();
+    if (schema.getLogicalType() == Schema.LogicalType.DECIMAL) {
+      return record.getDecimal(keyField);
+    }
+    Object value = record.get(keyField);
+    return value instanceof byte[] ? ByteBuffer.wrap((byte[]) value) : value;
+  }
+
+  private static String toString(Object key) {
+    return key instanceof BigDecimal ? ((BigDecimal) key).toPlainString() : key.toString();
+  }
+
+  private static byte[] toBytes(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+
+  private static Routing getRouting(@Nullable String routing) {
+    if (Strings.isNullOrEmpty(routing)) {
+      return Routing.HASH;
+    }
+    try {
+      return Routing.valueOf(routing.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(String.format("Invalid shard routing '%s', must be one of 'hash', 'range' " +
+                                                         "or 'lookup'.", routing));
+    }
+  }
+}
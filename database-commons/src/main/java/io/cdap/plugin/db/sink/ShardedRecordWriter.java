@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.sink;
+
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.db.DBWritable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Routes every record to the shard selected by a {@link ShardRouter} and writes it with the writer of that shard.
+ * Every shard has its own connection, batch and transaction, which are opened when the first record of the shard is
+ * written. The transactions of the shards are committed one after the other when the writer is closed, hence a
+ * failure while committing one shard does not roll back the shards that are already committed.
+ *
+ * @param <K> - Key passed to this class to be written
+ * @param <V> - Value passed to this class to be written. The value is ignored.
+ */
+public class ShardedRecordWriter<K extends DBWritable, V> extends RecordWriter<K, V> {
+  private static final Logger LOG = LoggerFactory.getLogger(ShardedRecordWriter.class);
+
+  private final ShardRouter router;
+  private final WriterFactory<K, V> writerFactory;
+  private final List<RecordWriter<K, V>> writers;
+
+  public ShardedRecordWriter(ShardRouter router, WriterFactory<K, V> writerFactory, int numShards) {
+    this.router = router;
+    this.writerFactory = writerFactory;
+    this.writers = new ArrayList<>(Collections.nCopies(numShards, null));
+  }
+
+  @Override
+  public void write(K key, V value) throws IOException, InterruptedException {
+    int shard;
+    try {
+      shard = router.getShard(key);
+    } catch (IllegalArgumentException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+    RecordWriter<K, V> writer = writers.get(shard);
+    if (writer == null) {
+      try {
+        writer = writerFactory.create(shard);
+      } catch (SQLException e) {
+        throw new IOException(String.format("Failed to open a writer for shard %d: %s", shard, e.getMessage()), e);
+      }
+      writers.set(shard, writer);
+    }
+    writer.write(key, value);
+  }
+
+  @Override
+  public void close(TaskAttemptContext context) throws IOException, InterruptedException {
+    IOException failure = null;
+    for (int shard = 0; shard < writers.size(); shard++) {
+      RecordWriter<K, V> writer = writers.get(shard);
+      if (writer == null) {
+        continue;
+      }
+      try {
+        writer.close(context);
+      } catch (IOException e) {
+        LOG.error("Failed to write the records of shard {}.", shard, e);
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Creates the writer of a shard.
+   *
+   * @param <K> - Key passed to the writer to be written
+   * @param <V> - Value passed to the writer to be written
+   */
+  public interface WriterFactory<K extends DBWritable, V> {
+
+    /**
+     * @param shard the index of the shard
+     * @return a new writer for the shard
+     */
+    RecordWriter<K, V> create(int shard) throws SQLException;
+  }
+}
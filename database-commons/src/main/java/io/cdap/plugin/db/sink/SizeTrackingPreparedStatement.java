@@ -0,0 +1,422 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.sink;
+
+import io.cdap.plugin.db.ForwardingPreparedStatement;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link PreparedStatement} that keeps track of the approximate number of bytes bound to the statement since the
+ * last batch was executed.
+ * <p>
+ * Strings are counted as one byte per character, binary values by their length and streams by their declared length.
+ * Streams of unknown length are not counted, all other fixed-width values are counted as eight bytes.
+ */
+class SizeTrackingPreparedStatement extends ForwardingPreparedStatement {
+  static final long FIXED_WIDTH_SIZE = Long.BYTES;
+
+  // size of the value currently bound to each parameter
+  private final Map<Integer, Long> parameterSizes = new HashMap<>();
+  private long rowBytes;
+  private long batchBytes;
+
+  SizeTrackingPreparedStatement(PreparedStatement delegate) {
+    super(delegate);
+  }
+
+  /**
+   * @return approximate number of bytes added to the current batch
+   */
+  long getBatchBytes() {
+    return batchBytes;
+  }
+
+  @Override
+  public void addBatch() throws SQLException {
+    super.addBatch();
+    batchBytes += rowBytes;
+  }
+
+  @Override
+  public int[] executeBatch() throws SQLException {
+    try {
+      return super.executeBatch();
+    } finally {
+      batchBytes = 0;
+    }
+  }
+
+  @Override
+  public void clearBatch() throws SQLException {
+    super.clearBatch();
+    batchBytes = 0;
+  }
+
+  @Override
+  public void clearParameters() throws SQLException {
+    super.clearParameters();
+    parameterSizes.clear();
+    rowBytes = 0;
+  }
+
+  @Override
+  public void setNull(int parameterIndex, int sqlType) throws SQLException {
+    super.setNull(parameterIndex, sqlType);
+    bind(parameterIndex, 0L);
+  }
+
+  @Override
+  public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+    super.setBoolean(parameterIndex, x);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setByte(int parameterIndex, byte x) throws SQLException {
+    super.setByte(parameterIndex, x);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setShort(int parameterIndex, short x) throws SQLException {
+    super.setShort(parameterIndex, x);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setInt(int parameterIndex, int x) throws SQLException {
+    super.setInt(parameterIndex, x);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setLong(int parameterIndex, long x) throws SQLException {
+    super.setLong(parameterIndex, x);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setFloat(int parameterIndex, float x) throws SQLException {
+    super.setFloat(parameterIndex, x);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setDouble(int parameterIndex, double x) throws SQLException {
+    super.setDouble(parameterIndex, x);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+    super.setBigDecimal(parameterIndex, x);
+    bind(parameterIndex, sizeOf(x));
+  }
+
+  @Override
+  public void setString(int parameterIndex, String x) throws SQLException {
+    super.setString(parameterIndex, x);
+    bind(parameterIndex, sizeOf(x));
+  }
+
+  @Override
+  public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+    super.setBytes(parameterIndex, x);
+    bind(parameterIndex, sizeOf(x));
+  }
+
+  @Override
+  public void setDate(int parameterIndex, Date x) throws SQLException {
+    super.setDate(parameterIndex, x);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setTime(int parameterIndex, Time x) throws SQLException {
+    super.setTime(parameterIndex, x);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+    super.setTimestamp(parameterIndex, x);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    super.setAsciiStream(parameterIndex, x, length);
+    bind(parameterIndex, length);
+  }
+
+  @Override
+  public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    super.setUnicodeStream(parameterIndex, x, length);
+    bind(parameterIndex, length);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    super.setBinaryStream(parameterIndex, x, length);
+    bind(parameterIndex, length);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+    super.setObject(parameterIndex, x, targetSqlType);
+    bind(parameterIndex, sizeOf(x));
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x) throws SQLException {
+    super.setObject(parameterIndex, x);
+    bind(parameterIndex, sizeOf(x));
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+    super.setCharacterStream(parameterIndex, reader, length);
+    bind(parameterIndex, length);
+  }
+
+  @Override
+  public void setRef(int parameterIndex, Ref x) throws SQLException {
+    super.setRef(parameterIndex, x);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, Blob x) throws SQLException {
+    super.setBlob(parameterIndex, x);
+    bind(parameterIndex, sizeOf(x));
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Clob x) throws SQLException {
+    super.setClob(parameterIndex, x);
+    bind(parameterIndex, sizeOf(x));
+  }
+
+  @Override
+  public void setArray(int parameterIndex, Array x) throws SQLException {
+    super.setArray(parameterIndex, x);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+    super.setDate(parameterIndex, x, cal);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+    super.setTime(parameterIndex, x, cal);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+    super.setTimestamp(parameterIndex, x, cal);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+    super.setNull(parameterIndex, sqlType, typeName);
+    bind(parameterIndex, 0L);
+  }
+
+  @Override
+  public void setURL(int parameterIndex, URL x) throws SQLException {
+    super.setURL(parameterIndex, x);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setRowId(int parameterIndex, RowId x) throws SQLException {
+    super.setRowId(parameterIndex, x);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setNString(int parameterIndex, String value) throws SQLException {
+    super.setNString(parameterIndex, value);
+    bind(parameterIndex, sizeOf(value));
+  }
+
+  @Override
+  public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+    super.setNCharacterStream(parameterIndex, value, length);
+    bind(parameterIndex, length);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, NClob value) throws SQLException {
+    super.setNClob(parameterIndex, value);
+    bind(parameterIndex, sizeOf(value));
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+    super.setClob(parameterIndex, reader, length);
+    bind(parameterIndex, length);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+    super.setBlob(parameterIndex, inputStream, length);
+    bind(parameterIndex, length);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+    super.setNClob(parameterIndex, reader, length);
+    bind(parameterIndex, length);
+  }
+
+  @Override
+  public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+    super.setSQLXML(parameterIndex, xmlObject);
+    bind(parameterIndex, FIXED_WIDTH_SIZE);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+    super.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+    bind(parameterIndex, sizeOf(x));
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+    super.setAsciiStream(parameterIndex, x, length);
+    bind(parameterIndex, length);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+    super.setBinaryStream(parameterIndex, x, length);
+    bind(parameterIndex, length);
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+    super.setCharacterStream(parameterIndex, reader, length);
+    bind(parameterIndex, length);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+    super.setAsciiStream(parameterIndex, x);
+    bind(parameterIndex, 0L);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+    super.setBinaryStream(parameterIndex, x);
+    bind(parameterIndex, 0L);
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+    super.setCharacterStream(parameterIndex, reader);
+    bind(parameterIndex, 0L);
+  }
+
+  @Override
+  public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+    super.setNCharacterStream(parameterIndex, value);
+    bind(parameterIndex, 0L);
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Reader reader) throws SQLException {
+    super.setClob(parameterIndex, reader);
+    bind(parameterIndex, 0L);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+    super.setBlob(parameterIndex, inputStream);
+    bind(parameterIndex, 0L);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+    super.setNClob(parameterIndex, reader);
+    bind(parameterIndex, 0L);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+    super.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+    bind(parameterIndex, sizeOf(x));
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+    super.setObject(parameterIndex, x, targetSqlType);
+    bind(parameterIndex, sizeOf(x));
+  }
+
+  private void bind(int parameterIndex, long size) {
+    Long previous = parameterSizes.put(parameterIndex, size);
+    rowBytes += size - (previous == null ? 0L : previous);
+  }
+
+  private static long sizeOf(Object value) throws SQLException {
+    if (value == null) {
+      return 0L;
+    }
+    if (value instanceof String) {
+      return ((String) value).length();
+    }
+    if (value instanceof byte[]) {
+      return ((byte[]) value).length;
+    }
+    if (value instanceof BigDecimal) {
+      return ((BigDecimal) value).unscaledValue().bitLength() / Byte.SIZE + 1;
+    }
+    if (value instanceof Blob) {
+      return ((Blob) value).length();
+    }
+    if (value instanceof Clob) {
+      return ((Clob) value).length();
+    }
+    return FIXED_WIDTH_SIZE;
+  }
+}
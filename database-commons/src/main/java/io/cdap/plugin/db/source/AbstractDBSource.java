@@ -40,13 +40,16 @@ import io.cdap.plugin.common.SourceInputFormatProvider;
 import io.cdap.plugin.db.CommonSchemaReader;
 import io.cdap.plugin.db.ConnectionConfig;
 import io.cdap.plugin.db.ConnectionConfigAccessor;
+import io.cdap.plugin.db.ConnectionPool;
 import io.cdap.plugin.db.DBConfig;
 import io.cdap.plugin.db.DBRecord;
+import io.cdap.plugin.db.QueryMetadataReader;
 import io.cdap.plugin.db.SchemaReader;
 import io.cdap.plugin.db.TransactionIsolationLevel;
 import io.cdap.plugin.db.config.DatabaseSourceConfig;
 import io.cdap.plugin.util.DBUtils;
 import io.cdap.plugin.util.DriverCleanup;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.mapreduce.MRJobConfig;
 import org.apache.hadoop.mapreduce.lib.db.DBConfiguration;
@@ -57,12 +60,15 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.Driver;
-import java.sql.DriverManager;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
+import java.util.UUID;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -76,6 +82,10 @@ public abstract class AbstractDBSource<T extends PluginConfig & DatabaseSourceCo
 
   private static final Logger LOG = LoggerFactory.getLogger(AbstractDBSource.class);
   private static final SchemaTypeAdapter SCHEMA_TYPE_ADAPTER = new SchemaTypeAdapter();
+  private static final List<String> INPUT_ARGUMENTS = Arrays.asList(
+    DataDrivenETLDBInputFormat.MAX_CONCURRENT_READERS, DataDrivenETLDBInputFormat.TARGET_FETCH_LATENCY_MS,
+    DataDrivenETLDBInputFormat.HEALTH_QUERY, DataDrivenETLDBInputFormat.MAX_HEALTH_VALUE,
+    DataDrivenETLDBInputFormat.HEALTH_CHECK_INTERVAL_MS, DataDrivenETLDBInputFormat.SPLIT_STATISTICS_DIR);
   private static final Pattern CONDITIONS_AND = Pattern.compile("\\$conditions (and|or)\\s+",
                                                                 Pattern.CASE_INSENSITIVE);
   private static final Pattern AND_CONDITIONS = Pattern.compile("\\s+(and|or) \\$conditions",
@@ -85,6 +95,11 @@ public abstract class AbstractDBSource<T extends PluginConfig & DatabaseSourceCo
 
   protected final T sourceConfig;
   protected Class<? extends Driver> driverClass;
+  // connection that holds the snapshot read by the splits until the end of the run, if the snapshot needs it
+  private Connection snapshotConnection;
+  private DriverCleanup snapshotDriverCleanup;
+  // configuration of the input of the run, to finish recording its split statistics at the end of the run
+  private Configuration inputConfiguration;
 
   public AbstractDBSource(T sourceConfig) {
     super(new ReferencePluginConfig(sourceConfig.getReferenceName()));
@@ -134,7 +149,7 @@ public abstract class AbstractDBSource<T extends PluginConfig & DatabaseSourceCo
 
       driverCleanup = loadPluginClassAndGetDriver(driverClass);
       try {
-        return getSchema();
+        return getSchema(driverCleanup.getDriver());
       } finally {
         driverCleanup.destroy();
       }
@@ -147,28 +162,26 @@ public abstract class AbstractDBSource<T extends PluginConfig & DatabaseSourceCo
   /**
    * Returns the schema of the importQuery from the database using the SourceConfig details.
    *
+   * @param driver JDBC driver to connect with
    * @return Schema instance
    * @throws SQLException In case of
    *                      1. Error while creating connection to the database.
    *                      2. Error while running any init queries.
    *                      3. Error while running the import query.
    */
-  public Schema getSchema() throws SQLException {
-    try (Connection connection = getConnection()) {
-      executeInitQueries(connection, sourceConfig.getInitQueries());
+  public Schema getSchema(Driver driver) throws SQLException {
+    try (Connection connection = getConnection(driver)) {
       String query = sourceConfig.getImportQuery();
       return loadSchemaFromDB(connection, query);
     }
   }
 
   private Schema loadSchemaFromDB(Connection connection, String query) throws SQLException {
-    Statement statement = connection.createStatement();
-    statement.setMaxRows(1);
     if (query.contains("$CONDITIONS")) {
       query = removeConditionsClause(query);
     }
-    ResultSet resultSet = statement.executeQuery(query);
-    return Schema.recordOf("outputSchema", getSchemaReader().getSchemaFields(resultSet));
+    return Schema.recordOf("outputSchema",
+                           QueryMetadataReader.getSchemaFields(connection, query, getSchemaReader(), null));
   }
 
   @VisibleForTesting
@@ -188,8 +201,8 @@ public abstract class AbstractDBSource<T extends PluginConfig & DatabaseSourceCo
 
     Properties connectionProperties = new Properties();
     connectionProperties.putAll(sourceConfig.getConnectionArguments());
-    try (Connection connection = DriverManager.getConnection(connectionString, connectionProperties)) {
-      executeInitQueries(connection, sourceConfig.getInitQueries());
+    try (Connection connection = ConnectionPool.getConnection(driverCleanup.getDriver(), connectionString,
+                                                              connectionProperties, sourceConfig.getInitQueries())) {
       return loadSchemaFromDB(connection, sourceConfig.getImportQuery());
 
     } catch (SQLException e) {
@@ -200,14 +213,6 @@ public abstract class AbstractDBSource<T extends PluginConfig & DatabaseSourceCo
     }
   }
 
-  private void executeInitQueries(Connection connection, List<String> initQueries) throws SQLException {
-    for (String query : initQueries) {
-      try (Statement statement = connection.createStatement()) {
-        statement.execute(query);
-      }
-    }
-  }
-
   protected SchemaReader getSchemaReader() {
     return new CommonSchemaReader();
   }
@@ -231,11 +236,12 @@ public abstract class AbstractDBSource<T extends PluginConfig & DatabaseSourceCo
     }
   }
 
-  private Connection getConnection() throws SQLException {
+  private Connection getConnection(Driver driver) throws SQLException {
     String connectionString = createConnectionString();
     Properties connectionProperties = new Properties();
     connectionProperties.putAll(sourceConfig.getConnectionArguments());
-    return DriverManager.getConnection(connectionString, connectionProperties);
+    return ConnectionPool.getConnection(driver, connectionString, connectionProperties,
+                                        sourceConfig.getInitQueries());
   }
 
   @Override
@@ -260,6 +266,43 @@ public abstract class AbstractDBSource<T extends PluginConfig & DatabaseSourceCo
                                                             driverClass.getName(),
                                                             schemaFromDB,
                                                             collector);
+    Snapshot snapshot = getSnapshot();
+    if (snapshot != null) {
+      if (connectionConfigAccessor.isAutoCommitEnabled()) {
+        collector.addFailure("A consistent snapshot can not be read with auto-commit enabled.",
+                             "Disable auto-commit or stop reading from a consistent snapshot.");
+      }
+      if (!connectionConfigAccessor.getReplicaConnectionStrings().isEmpty()) {
+        collector.addFailure("A consistent snapshot can not be read from read replicas.",
+                             "Remove the read replicas or stop reading from a consistent snapshot.")
+          .withConfigProperty(ConnectionConfig.READ_REPLICAS);
+      }
+      collector.getOrThrowException();
+      connectionConfigAccessor.setInitQueries(
+        getSnapshotInitQueries(beginSnapshot(driverClass, snapshot), sourceConfig.getInitQueries()));
+    }
+    // Limit the load on the database if specified in pipeline arguments.
+    for (String inputProperty : INPUT_ARGUMENTS) {
+      if (context.getArguments().has(inputProperty)) {
+        connectionConfigAccessor.getConfiguration().set(inputProperty, context.getArguments().get(inputProperty));
+      }
+    }
+    connectionConfigAccessor.getConfiguration().set(DataDrivenETLDBInputFormat.SPLIT_STATISTICS_NAME,
+                                                    sourceConfig.getReferenceName());
+    if (!Strings.isNullOrEmpty(connectionConfigAccessor.getConfiguration()
+                                 .get(DataDrivenETLDBInputFormat.SPLIT_STATISTICS_DIR))
+      && getSplitPlanner() == null && !Integer.valueOf(1).equals(sourceConfig.getNumSplits())
+      && connectionConfigAccessor.getShardConnectionStrings().isEmpty()
+      && connectionConfigAccessor.getShardMapQuery() == null) {
+      String reason = getUnrecordedSplitStatisticsReason(sourceConfig.getImportQuery(), sourceConfig.getSplitBy(),
+                                                         schemaFromDB);
+      if (reason != null) {
+        LOG.warn("The range splits do not record their statistics and are not rebalanced, since {}.", reason);
+      }
+    }
+    connectionConfigAccessor.getConfiguration().set(DataDrivenETLDBInputFormat.SPLIT_STATISTICS_RUN,
+                                                    UUID.randomUUID().toString());
+    inputConfiguration = connectionConfigAccessor.getConfiguration();
 
     LineageRecorder lineageRecorder = getLineageRecorder(context);
     Schema schema = sourceConfig.getSchema() == null ? schemaFromDB : sourceConfig.getSchema();
@@ -272,6 +315,123 @@ public abstract class AbstractDBSource<T extends PluginConfig & DatabaseSourceCo
       DataDrivenETLDBInputFormat.class, connectionConfigAccessor.getConfiguration())));
   }
 
+  @Override
+  public void onRunFinish(boolean succeeded, BatchSourceContext context) {
+    super.onRunFinish(succeeded, context);
+    endSnapshot();
+    if (inputConfiguration != null) {
+      try {
+        DataDrivenETLDBInputFormat.finishSplitStatistics(inputConfiguration, succeeded);
+      } catch (IOException e) {
+        LOG.warn("Failed to replace the split statistics of the source.", e);
+      }
+      inputConfiguration = null;
+    }
+  }
+
+  /**
+   * Opens the connection that takes the snapshot read by all the splits, and keeps it open until the end of the run if
+   * the snapshot is held by its connection.
+   *
+   * @return the queries that make a connection read from the snapshot
+   */
+  private List<String> beginSnapshot(Class<? extends Driver> driverClass, Snapshot snapshot) throws Exception {
+    snapshotDriverCleanup = loadPluginClassAndGetDriver(driverClass);
+    try {
+      Properties connectionProperties = new Properties();
+      connectionProperties.putAll(sourceConfig.getConnectionArguments());
+      snapshotConnection = snapshotDriverCleanup.getDriver().connect(createConnectionString(), connectionProperties);
+      if (snapshotConnection == null) {
+        throw new SQLException("Failed to open a connection to take the snapshot of the database.");
+      }
+      List<String> snapshotQueries = takeSnapshot(snapshotConnection, sourceConfig.getInitQueries(), snapshot);
+      if (!snapshot.isHeld()) {
+        endSnapshot();
+      }
+      return snapshotQueries;
+    } catch (Exception e) {
+      endSnapshot();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns why the range splits of the given import query can not record their statistics, or null if they can as
+   * far as the schema of the query tells. Only the splits whose bounds are bound as query parameters are recorded,
+   * which needs an integer or decimal split-by field and an import query without question marks.
+   */
+  @Nullable
+  @VisibleForTesting
+  static String getUnrecordedSplitStatisticsReason(String importQuery, @Nullable String splitBy,
+                                                   @Nullable Schema schema) {
+    if (importQuery.indexOf('?') >= 0) {
+      return "the import query contains a question mark, so the split bounds are not bound as parameters";
+    }
+    if (splitBy == null || schema == null || schema.getFields() == null) {
+      return null;
+    }
+    // the split-by field may be qualified with its table or quoted
+    String name = splitBy.substring(splitBy.lastIndexOf('.') + 1).replaceAll("[\"`\\[\\]]", "").trim();
+    for (Schema.Field field : schema.getFields()) {
+      if (!field.getName().equalsIgnoreCase(name)) {
+        continue;
+      }
+      Schema fieldSchema = field.getSchema().isNullable() ? field.getSchema().getNonNullable() : field.getSchema();
+      if (fieldSchema.getLogicalType() == Schema.LogicalType.DECIMAL
+        || (fieldSchema.getLogicalType() == null
+        && (fieldSchema.getType() == Schema.Type.INT || fieldSchema.getType() == Schema.Type.LONG))) {
+        return null;
+      }
+      return String.format("the split-by field '%s' is not an integer or decimal", splitBy);
+    }
+    return null;
+  }
+
+  /**
+   * Takes the snapshot on a connection set up like the connections of the splits, with the init queries executed
+   * first.
+   *
+   * @return the queries that make a connection read from the snapshot
+   */
+  @VisibleForTesting
+  static List<String> takeSnapshot(Connection connection, List<String> initQueries,
+                                   Snapshot snapshot) throws SQLException {
+    for (String query : initQueries) {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute(query);
+      }
+    }
+    List<String> snapshotQueries = snapshot.take(connection);
+    LOG.debug("Reading all splits from a consistent snapshot with queries {}.", snapshotQueries);
+    return snapshotQueries;
+  }
+
+  /**
+   * @return the queries executed on every connection of the splits, with the snapshot queries first, since a
+   *         snapshot can only be read from a transaction that has not executed any query yet
+   */
+  @VisibleForTesting
+  static List<String> getSnapshotInitQueries(List<String> snapshotQueries, List<String> initQueries) {
+    List<String> queries = new ArrayList<>(snapshotQueries);
+    queries.addAll(initQueries);
+    return queries;
+  }
+
+  private void endSnapshot() {
+    if (snapshotConnection != null) {
+      try {
+        snapshotConnection.close();
+      } catch (SQLException e) {
+        LOG.warn("Failed to close the connection of the snapshot of the database.", e);
+      }
+      snapshotConnection = null;
+    }
+    if (snapshotDriverCleanup != null) {
+      snapshotDriverCleanup.destroy();
+      snapshotDriverCleanup = null;
+    }
+  }
+
   /**
    * Returns the ConnectionConfigAccessor object containing the Configuration object for the SourceConfig
    * and Schema. The configuration is later used by the InputFormat object for split calculation, reader creation.
@@ -309,13 +469,43 @@ public abstract class AbstractDBSource<T extends PluginConfig & DatabaseSourceCo
     }
     connectionConfigAccessor.setConnectionArguments(sourceConfig.getConnectionArguments());
     connectionConfigAccessor.setInitQueries(sourceConfig.getInitQueries());
+    List<String> replicaConnectionStrings = createReplicaConnectionStrings();
+    if (!replicaConnectionStrings.isEmpty()) {
+      connectionConfigAccessor.setReplicaConnectionStrings(replicaConnectionStrings);
+      String replicaLagQuery = getReplicaLagQuery();
+      if (replicaLagQuery != null) {
+        connectionConfigAccessor.setReplicaLagQuery(replicaLagQuery);
+      }
+      Integer maxReplicaLag = getMaxReplicaLag();
+      if (maxReplicaLag != null) {
+        connectionConfigAccessor.setMaxReplicaLag(maxReplicaLag);
+      }
+    }
+    List<String> shardConnectionStrings = createShardConnectionStrings();
+    if (!shardConnectionStrings.isEmpty()) {
+      connectionConfigAccessor.setShardConnectionStrings(shardConnectionStrings);
+    }
+    String shardMapQuery = getShardMapQuery();
+    if (shardMapQuery != null) {
+      connectionConfigAccessor.setShardMapQuery(shardMapQuery);
+    }
+    Class<? extends SplitPlanner> splitPlanner = getSplitPlanner();
+    if (splitPlanner != null) {
+      connectionConfigAccessor.setSplitPlanner(splitPlanner);
+      String splitTable = getSplitTable();
+      if (splitTable != null) {
+        connectionConfigAccessor.setSplitTable(splitTable);
+      }
+    }
     if (sourceConfig.getNumSplits() == null || sourceConfig.getNumSplits() != 1) {
       if (!sourceConfig.getImportQuery().contains("$CONDITIONS")) {
         throw new IllegalArgumentException(String.format("Import Query %s must contain the string '$CONDITIONS'.",
                                                          sourceConfig.getImportQuery()));
       }
-      connectionConfigAccessor.getConfiguration()
-        .set(DBConfiguration.INPUT_ORDER_BY_PROPERTY, sourceConfig.getSplitBy());
+      if (sourceConfig.getSplitBy() != null) {
+        connectionConfigAccessor.getConfiguration()
+          .set(DBConfiguration.INPUT_ORDER_BY_PROPERTY, sourceConfig.getSplitBy());
+      }
     }
     if (sourceConfig.getNumSplits() != null) {
       connectionConfigAccessor.getConfiguration().setInt(MRJobConfig.NUM_MAPS, sourceConfig.getNumSplits());
@@ -363,6 +553,110 @@ public abstract class AbstractDBSource<T extends PluginConfig & DatabaseSourceCo
 
   protected abstract String createConnectionString();
 
+  /**
+   * Returns the connection strings of the read replicas to read the splits from. Splits are spread over the replicas
+   * and are read through {@link #createConnectionString()} only if no replica is available. By default, there are no
+   * read replicas.
+   */
+  protected List<String> createReplicaConnectionStrings() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Returns a query that returns the replication lag in seconds of the read replica it runs on in the first column,
+   * or in a 'Seconds_Behind_Master' or 'Seconds_Behind_Source' column, or no rows if the database is not a replica.
+   * A replica whose lag is null or above {@link #getMaxReplicaLag()} is not read from.
+   *
+   * @return the query, or null if the replication lag can not be checked
+   */
+  @Nullable
+  protected String getReplicaLagQuery() {
+    return null;
+  }
+
+  /**
+   * @return the maximum replication lag in seconds of the read replicas to read from, or null for the default
+   */
+  @Nullable
+  protected Integer getMaxReplicaLag() {
+    return null;
+  }
+
+  /**
+   * Returns the connection strings of the shards to read from. All the shards must have the same schema, which is
+   * read through {@link #createConnectionString()}, and the splits are generated for every shard. By default, the
+   * source is not sharded.
+   */
+  protected List<String> createShardConnectionStrings() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Returns a query that is run through {@link #createConnectionString()} when the splits are generated and that
+   * returns the connection strings of the shards to read from in its first column. It takes precedence over
+   * {@link #createShardConnectionStrings()}.
+   *
+   * @return the query, or null if the shards are not read from a shard map
+   */
+  @Nullable
+  protected String getShardMapQuery() {
+    return null;
+  }
+
+  /**
+   * Returns the class that computes the splits from the physical layout of the table returned by
+   * {@link #getSplitTable()}, for databases that support it.
+   *
+   * @return the split planner, or null if the splits are ranges of the split-by field
+   */
+  @Nullable
+  protected Class<? extends SplitPlanner> getSplitPlanner() {
+    return null;
+  }
+
+  /**
+   * @return the table split by the split planner, as written in the import query, or null if there is no planner
+   */
+  @Nullable
+  protected String getSplitTable() {
+    return sourceConfig.getSplitTable();
+  }
+
+  /**
+   * Returns the snapshot of the database read by all the splits, taken when the run starts.
+   *
+   * @return the snapshot, or null if the splits do not read from a consistent snapshot, which is the case for
+   *         databases that do not support it
+   */
+  @Nullable
+  protected Snapshot getSnapshot() {
+    return null;
+  }
+
+  /**
+   * Snapshot of the database read by all the splits.
+   */
+  @FunctionalInterface
+  protected interface Snapshot {
+
+    /**
+     * Takes the snapshot.
+     *
+     * @param connection connection to take the snapshot on, after its init queries
+     * @return the queries that make a connection read from the snapshot, executed on every connection of the splits
+     *         before the init queries
+     */
+    List<String> take(Connection connection) throws SQLException;
+
+    /**
+     * @return whether the connection that took the snapshot must stay open until the end of the run for the splits to
+     *         read it, rather than being closed once the snapshot is taken
+     */
+    default boolean isHeld() {
+      return false;
+    }
+  }
+
   /**
    * {@link PluginConfig} for {@link AbstractDBSource}
    */
@@ -374,6 +668,10 @@ public abstract class AbstractDBSource<T extends PluginConfig & DatabaseSourceCo
     public static final String SCHEMA = "schema";
     public static final String TRANSACTION_ISOLATION_LEVEL = "transactionIsolationLevel";
     public static final String FETCH_SIZE = "fetchSize";
+    public static final String SPLIT_MODE = "splitMode";
+    public static final String SPLIT_TABLE = "splitTable";
+    public static final String SPLIT_MODE_RANGE = "range";
+    public static final String SPLIT_MODE_HASH = "hash";
 
     @Name(IMPORT_QUERY)
     @Description("The SELECT query to use to import data from the specified table. " +
@@ -420,6 +718,20 @@ public abstract class AbstractDBSource<T extends PluginConfig & DatabaseSourceCo
       "with the tradeoff of higher memory usage.")
     private Integer fetchSize;
 
+    @Nullable
+    @Name(SPLIT_MODE)
+    @Description("How the table is split. 'range' splits the range of values of the split-by field returned by the " +
+      "bounding query. The other modes split the split table from its physical layout. Defaults to 'range'.")
+    @Macro
+    public String splitMode;
+
+    @Nullable
+    @Name(SPLIT_TABLE)
+    @Description("The table split from its physical layout, written the same way as in the import query. Required " +
+      "unless the split mode is 'range'.")
+    @Macro
+    public String splitTable;
+
     public String getImportQuery() {
       return cleanQuery(importQuery);
     }
@@ -466,19 +778,75 @@ public abstract class AbstractDBSource<T extends PluginConfig & DatabaseSourceCo
           .withConfigProperty(IMPORT_QUERY);
       }
 
-      if (!hasOneSplit && !containsMacro(NUM_SPLITS) && !containsMacro("splitBy") && (splitBy == null || splitBy
-        .isEmpty())) {
+      if (!containsMacro(SPLIT_MODE) && !getSplitModes().contains(getSplitMode())) {
+        collector.addFailure(String.format("Invalid split mode '%s'.", splitMode),
+                             String.format("Set the split mode to %s.", describeSplitModes(getSplitModes())))
+          .withConfigProperty(SPLIT_MODE);
+      } else if (!containsMacro(SPLIT_MODE) && !isRangeSplit() && !isHashSplit() && !containsMacro(SPLIT_TABLE)
+        && Strings.isNullOrEmpty(splitTable)) {
+        collector.addFailure(String.format("Split table must be specified if the split mode is '%s'.",
+                                           getSplitMode()), "Specify the split table.")
+          .withConfigProperty(SPLIT_TABLE);
+      }
+
+      if (!hasOneSplit && (isRangeSplit() || isHashSplit()) && !containsMacro(NUM_SPLITS)
+        && !containsMacro("splitBy") && (splitBy == null || splitBy.isEmpty())) {
         collector.addFailure("Split-By Field Name must be specified if Number of Splits is not set to 1.",
                              null).withConfigProperty(SPLIT_BY).withConfigProperty(NUM_SPLITS);
       }
 
-      if (!hasOneSplit && !containsMacro(NUM_SPLITS) && !containsMacro(
+      if (!hasOneSplit && isRangeSplit() && !containsMacro(NUM_SPLITS) && !containsMacro(
         "boundingQuery") && (boundingQuery == null || boundingQuery.isEmpty())) {
         collector.addFailure("Bounding Query must be specified if Number of Splits is not set to 1.", null)
           .withConfigProperty(BOUNDING_QUERY).withConfigProperty(NUM_SPLITS);
       }
     }
 
+    /**
+     * @return the split mode in lower case, 'range' if it is not set
+     */
+    public String getSplitMode() {
+      return Strings.isNullOrEmpty(splitMode) ? SPLIT_MODE_RANGE : splitMode.toLowerCase(Locale.ROOT);
+    }
+
+    @Nullable
+    @Override
+    public String getSplitTable() {
+      return splitTable;
+    }
+
+    /**
+     * @return the split modes supported by the database, 'range' unless the source also splits the table from its
+     * physical layout or by hash
+     */
+    protected List<String> getSplitModes() {
+      return Collections.singletonList(SPLIT_MODE_RANGE);
+    }
+
+    /**
+     * @return whether the splits are ranges of the split-by field computed from the bounding query, which is the case
+     * unless the source splits the table from its physical layout
+     */
+    protected boolean isRangeSplit() {
+      return SPLIT_MODE_RANGE.equals(getSplitMode());
+    }
+
+    /**
+     * @return whether the splits are buckets of a hash of the split-by field, which need the split-by field but not
+     * the bounding query
+     */
+    protected boolean isHashSplit() {
+      return SPLIT_MODE_HASH.equals(getSplitMode());
+    }
+
+    private static String describeSplitModes(List<String> splitModes) {
+      String last = "'" + splitModes.get(splitModes.size() - 1) + "'";
+      if (splitModes.size() == 1) {
+        return last;
+      }
+      return "'" + String.join("', '", splitModes.subList(0, splitModes.size() - 1)) + "' or " + last;
+    }
+
     public void validateSchema(Schema actualSchema, FailureCollector collector) {
       validateSchema(actualSchema, getSchema(), collector);
     }
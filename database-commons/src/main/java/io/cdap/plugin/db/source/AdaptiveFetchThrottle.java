@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.source;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Limits the rate at which a record reader fetches rows from the database, based on how loaded the database is.
+ * <p>
+ * Rows are observed in windows of the fetch size. The database is considered overloaded if fetching the rows of a
+ * window took longer than the target latency, or if the health query returns a value above the maximum. The rate
+ * limit is then halved, and it is raised by a fixed step after every window that is not overloaded (additive
+ * increase, multiplicative decrease). The reader is paused between windows to keep to the rate limit, so that it
+ * backs off rather than fails when the database is busy. No limit applies until the database is first overloaded.
+ */
+public class AdaptiveFetchThrottle implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(AdaptiveFetchThrottle.class);
+  // the rate limit is raised by this fraction of the rate observed when the database was first overloaded
+  private static final double INCREASE_FRACTION = 0.05;
+  private static final double MIN_RATE = 1;
+
+  private final int windowRows;
+  private final long targetLatencyNanos;
+  @Nullable
+  private final String healthQuery;
+  private final double maxHealthValue;
+  private final long healthCheckIntervalNanos;
+  private final ConnectionFactory connectionFactory;
+
+  private int rows;
+  private long fetchNanos;
+  private long windowStart;
+  // rows per second, or 0 if the rate is not limited
+  private double rate;
+  private double increase;
+  private long lastHealthCheck;
+  private boolean healthy = true;
+  private Connection healthConnection;
+
+  /**
+   * @param windowRows number of rows after which the load of the database is evaluated
+   * @param targetLatencyMillis maximum time spent fetching the rows of a window, or 0 to not check it
+   * @param healthQuery query returning a measure of the load of the database in its first column, or null
+   * @param maxHealthValue maximum value returned by the health query for the database not to be overloaded
+   * @param healthCheckIntervalMillis minimum time between two runs of the health query
+   * @param connectionFactory opens the connection the health query is run on
+   */
+  public AdaptiveFetchThrottle(int windowRows, long targetLatencyMillis, @Nullable String healthQuery,
+                               double maxHealthValue, long healthCheckIntervalMillis,
+                               ConnectionFactory connectionFactory) {
+    this.windowRows = Math.max(1, windowRows);
+    this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+    this.healthQuery = healthQuery;
+    this.maxHealthValue = maxHealthValue;
+    this.healthCheckIntervalNanos = TimeUnit.MILLISECONDS.toNanos(healthCheckIntervalMillis);
+    this.connectionFactory = connectionFactory;
+  }
+
+  /**
+   * Records a fetched row and pauses the reader if it is ahead of the rate limit.
+   *
+   * @param elapsedNanos time spent fetching the row
+   */
+  public void fetched(long elapsedNanos) throws InterruptedException {
+    long now = System.nanoTime();
+    if (rows == 0) {
+      windowStart = now - elapsedNanos;
+    }
+    rows++;
+    fetchNanos += elapsedNanos;
+    if (rows < windowRows) {
+      return;
+    }
+    long pauseMillis = update(fetchNanos, now - windowStart, isOverloaded(now));
+    rows = 0;
+    fetchNanos = 0;
+    if (pauseMillis > 0) {
+      TimeUnit.MILLISECONDS.sleep(pauseMillis);
+    }
+  }
+
+  /**
+   * Updates the rate limit at the end of a window.
+   *
+   * @param windowFetchNanos time spent fetching the rows of the window
+   * @param windowNanos time elapsed since the start of the window
+   * @param overloaded whether the health query reported the database as overloaded
+   * @return the time in milliseconds to pause the reader for
+   */
+  @VisibleForTesting
+  long update(long windowFetchNanos, long windowNanos, boolean overloaded) {
+    double observedRate = windowRows * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(windowNanos, 1L);
+    if (overloaded || (targetLatencyNanos > 0 && windowFetchNanos > targetLatencyNanos)) {
+      if (rate == 0) {
+        increase = Math.max(MIN_RATE, observedRate * INCREASE_FRACTION);
+        rate = observedRate;
+      }
+      rate = Math.max(MIN_RATE, Math.min(rate, observedRate) / 2);
+      LOG.debug("Database is overloaded, limiting the fetch rate to {} rows per second.", (long) rate);
+    } else if (rate > 0) {
+      rate += increase;
+    }
+    if (rate == 0) {
+      return 0;
+    }
+    long targetNanos = (long) (windowRows * TimeUnit.SECONDS.toNanos(1) / rate);
+    return TimeUnit.NANOSECONDS.toMillis(Math.max(0, targetNanos - windowNanos));
+  }
+
+  /**
+   * @return the current rate limit in rows per second, or 0 if the rate is not limited
+   */
+  @VisibleForTesting
+  double getRate() {
+    return rate;
+  }
+
+  private boolean isOverloaded(long now) {
+    if (healthQuery == null) {
+      return false;
+    }
+    if (lastHealthCheck != 0 && now - lastHealthCheck < healthCheckIntervalNanos) {
+      return !healthy;
+    }
+    lastHealthCheck = now;
+    try {
+      if (healthConnection == null) {
+        healthConnection = connectionFactory.getConnection();
+      }
+      try (Statement statement = healthConnection.createStatement();
+           ResultSet resultSet = statement.executeQuery(healthQuery)) {
+        double value = resultSet.next() ? resultSet.getDouble(1) : 0;
+        healthy = value <= maxHealthValue;
+        if (!healthy) {
+          LOG.debug("Health query returned {}, above the maximum of {}.", value, maxHealthValue);
+        }
+      }
+      if (!healthConnection.getAutoCommit()) {
+        healthConnection.commit();
+      }
+    } catch (SQLException e) {
+      // the reads are not throttled on the health of the database if it cannot be checked
+      LOG.warn("Failed to run the health query: {}", e.getMessage());
+      healthy = true;
+    }
+    return !healthy;
+  }
+
+  @Override
+  public void close() {
+    if (healthConnection != null) {
+      try {
+        healthConnection.close();
+      } catch (SQLException e) {
+        LOG.debug("Failed to close the health query connection.", e);
+      }
+      healthConnection = null;
+    }
+  }
+
+  /**
+   * Opens connections to the database the health query is run on.
+   */
+  public interface ConnectionFactory {
+
+    /**
+     * @return a new connection to the database
+     */
+    Connection getConnection() throws SQLException;
+  }
+}
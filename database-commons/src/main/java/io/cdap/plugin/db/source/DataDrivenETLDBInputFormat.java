@@ -16,39 +16,88 @@
 
 package io.cdap.plugin.db.source;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
 import io.cdap.plugin.db.ConnectionConfigAccessor;
-import io.cdap.plugin.db.JDBCDriverShim;
+import io.cdap.plugin.db.DriverRegistry;
 import io.cdap.plugin.db.NoOpCommitConnection;
 import io.cdap.plugin.db.TransactionIsolationLevel;
-import io.cdap.plugin.util.DBUtils;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.MRJobConfig;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapreduce.lib.db.DBConfiguration;
 import org.apache.hadoop.mapreduce.lib.db.DBInputFormat;
+import org.apache.hadoop.mapreduce.lib.db.DBSplitter;
 import org.apache.hadoop.mapreduce.lib.db.DBWritable;
 import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat;
+import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBRecordReader;
+import org.apache.hadoop.mapreduce.lib.db.OracleDBRecordReader;
+import org.apache.hadoop.util.ReflectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.Driver;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
 /**
  * Class that extends {@link DBInputFormat} to load the database driver class correctly.
  */
 public class DataDrivenETLDBInputFormat extends DataDrivenDBInputFormat {
+  // Maximum number of splits read at the same time across all the tasks of the run. If there are more splits, they
+  // are grouped so that every task reads several splits one after the other. If set to 0, the number is not limited.
+  public static final String MAX_CONCURRENT_READERS = "io.cdap.plugin.db.input.max.concurrent.readers";
+  // Maximum time to fetch a window of rows, of the fetch size, before the reader slows down. If set to 0, the rate
+  // at which rows are fetched is not limited based on the fetch latency.
+  public static final String TARGET_FETCH_LATENCY_MS = "io.cdap.plugin.db.input.throttle.target.latency.ms";
+  // Query run periodically by every reader that returns a measure of the load of the database, such as the number
+  // of active sessions. The reader slows down while the value is above the maximum health value.
+  public static final String HEALTH_QUERY = "io.cdap.plugin.db.input.throttle.health.query";
+  public static final String MAX_HEALTH_VALUE = "io.cdap.plugin.db.input.throttle.health.max.value";
+  // Minimum time between two runs of the health query by the same reader.
+  public static final String HEALTH_CHECK_INTERVAL_MS = "io.cdap.plugin.db.input.throttle.health.interval.ms";
+  public static final long DEFAULT_HEALTH_CHECK_INTERVAL_MS = 10000;
+  // Directory of a Hadoop file system, local or distributed, where every range split records its number of rows and
+  // the time taken to read it. The next run moves the bounds of its range splits so that they are expected to take
+  // the same time. The statistics of every source are kept in a subdirectory named after its reference name. The
+  // splits of a run write to a directory of the run, which replaces the statistics of the source when the run succeeds.
+  public static final String SPLIT_STATISTICS_DIR = "io.cdap.plugin.db.input.split.statistics.dir";
+  public static final String SPLIT_STATISTICS_NAME = "io.cdap.plugin.db.input.split.statistics.name";
+  public static final String SPLIT_STATISTICS_RUN = "io.cdap.plugin.db.input.split.statistics.run";
+  // Number of rows between two evaluations of the load of the database if no fetch size is set.
+  private static final int DEFAULT_THROTTLE_WINDOW_ROWS = 1000;
 
   private static final Logger LOG = LoggerFactory.getLogger(DataDrivenETLDBInputFormat.class);
+  private Class<? extends Driver> driverClass;
   private Driver driver;
-  private JDBCDriverShim driverShim;
+  // connection string of the current connection
+  private String connectionString;
 
   public static void setInput(Configuration conf,
                               Class<? extends DBWritable> inputClass,
@@ -68,58 +117,359 @@ public class DataDrivenETLDBInputFormat extends DataDrivenDBInputFormat {
       ConnectionConfigAccessor connectionConfigAccessor = new ConnectionConfigAccessor(getConf());
       try {
         String url = connectionConfigAccessor.getConfiguration().get(DBConfiguration.URL_PROPERTY);
-        try {
-          // throws SQLException if no suitable driver is found
-          DriverManager.getDriver(url);
-        } catch (SQLException e) {
-          if (driverShim == null) {
-            if (driver == null) {
-              ClassLoader classLoader = connectionConfigAccessor.getConfiguration().getClassLoader();
-              String driverClassName = connectionConfigAccessor.getConfiguration()
-                .get(DBConfiguration.DRIVER_CLASS_PROPERTY);
-              @SuppressWarnings("unchecked")
-              Class<? extends Driver> driverClass =
-                (Class<? extends Driver>) classLoader.loadClass(driverClassName);
-              driver = driverClass.newInstance();
-
-              // De-register the default driver that gets registered when driver class is loaded.
-              DBUtils.deregisterAllDrivers(driverClass);
-            }
-            driverShim = new JDBCDriverShim(driver);
-            DriverManager.registerDriver(driverShim);
-            LOG.debug("Registered JDBC driver via shim {}. Actual Driver {}.", driverShim, driver);
-          }
+        this.connection = openConnection(connectionConfigAccessor, url);
+        this.connectionString = url;
+      } catch (Exception e) {
+        throw Throwables.propagate(e);
+      }
+    }
+    return this.connection;
+  }
+
+  private Connection openConnection(ConnectionConfigAccessor connectionConfigAccessor, String url) throws Exception {
+    if (driver == null) {
+      ClassLoader classLoader = connectionConfigAccessor.getConfiguration().getClassLoader();
+      String driverClassName = connectionConfigAccessor.getConfiguration()
+        .get(DBConfiguration.DRIVER_CLASS_PROPERTY);
+      @SuppressWarnings("unchecked")
+      Class<? extends Driver> loadedClass = (Class<? extends Driver>) classLoader.loadClass(driverClassName);
+      driver = DriverRegistry.acquire(loadedClass);
+      driverClass = loadedClass;
+    }
+
+    Properties properties = new Properties();
+    properties.putAll(connectionConfigAccessor.getConnectionArguments());
+    Connection connection = DriverRegistry.connect(driver, url, properties);
+    try {
+      if (connectionConfigAccessor.isAutoCommitEnabled()) {
+        // hack to work around jdbc drivers like the hive driver that throw exceptions on commit
+        connection = new NoOpCommitConnection(connection);
+      } else {
+        connection.setAutoCommit(false);
+      }
+
+      if (connectionConfigAccessor.getFetchSize() > 0) {
+        connection = new ConnectionWithFetchSize(connection, connectionConfigAccessor.getFetchSize());
+      }
+
+      String level = connectionConfigAccessor.getConfiguration().get(TransactionIsolationLevel.CONF_KEY);
+      LOG.debug("Transaction isolation level: {}", level);
+      connection.setTransactionIsolation(TransactionIsolationLevel.getLevel(level));
+      // execute initialization queries if any
+      for (String query : connectionConfigAccessor.getInitQueries()) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute(query);
         }
+      }
+    } catch (Exception e) {
+      connection.close();
+      throw e;
+    }
+    return connection;
+  }
 
-        Properties properties = new Properties();
-        properties.putAll(connectionConfigAccessor.getConnectionArguments());
-        connection = DriverManager.getConnection(url, properties);
+  @Override
+  public List<InputSplit> getSplits(JobContext job) throws IOException {
+    ConnectionConfigAccessor connectionConfigAccessor = new ConnectionConfigAccessor(job.getConfiguration());
+    List<String> shards = getShardConnectionStrings(connectionConfigAccessor);
+    List<InputSplit> splits = shards.isEmpty() ? rebalance(job.getConfiguration(), getDatabaseSplits(job))
+      : getShardSplits(job, connectionConfigAccessor, shards);
+    int maxReaders = job.getConfiguration().getInt(MAX_CONCURRENT_READERS, 0);
+    if (maxReaders <= 0 || splits.size() <= maxReaders) {
+      return splits;
+    }
+    LOG.debug("Grouping {} splits to read at most {} splits at the same time.", splits.size(), maxReaders);
+    return group(splits, maxReaders);
+  }
 
-        if (connectionConfigAccessor.isAutoCommitEnabled()) {
-          // hack to work around jdbc drivers like the hive driver that throw exceptions on commit
-          this.connection = new NoOpCommitConnection(this.connection);
-        } else {
-          this.connection.setAutoCommit(false);
+  /**
+   * Moves the bounds of the range splits based on the statistics recorded by the splits of the previous run, if the
+   * split statistics directory is set.
+   */
+  private static List<InputSplit> rebalance(Configuration conf, List<InputSplit> splits) throws IOException {
+    Path directory = getSplitStatisticsDirectory(conf);
+    if (directory == null) {
+      return splits;
+    }
+    List<SplitStatistics> statistics = SplitStatistics.read(conf, directory);
+    if (statistics.isEmpty()) {
+      return splits;
+    }
+    LOG.debug("Rebalancing {} splits from the statistics of {} splits of the previous run.", splits.size(),
+              statistics.size());
+    return SplitStatistics.rebalance(splits, statistics);
+  }
+
+  /**
+   * Returns the directory of the split statistics of the source, or null if they are not recorded. Splits of shards
+   * are not recorded, since the splits of different shards have the same bounds.
+   */
+  @Nullable
+  private static Path getSplitStatisticsDirectory(Configuration conf) {
+    String directory = Strings.emptyToNull(conf.get(SPLIT_STATISTICS_DIR));
+    ConnectionConfigAccessor connectionConfigAccessor = new ConnectionConfigAccessor(conf);
+    if (directory == null || !connectionConfigAccessor.getShardConnectionStrings().isEmpty()
+      || connectionConfigAccessor.getShardMapQuery() != null) {
+      return null;
+    }
+    return new Path(directory, conf.get(SPLIT_STATISTICS_NAME, ""));
+  }
+
+  /**
+   * Returns the directory the splits of the current run record their statistics to, or null if they are not recorded.
+   */
+  @Nullable
+  private static Path getSplitStatisticsRunDirectory(Configuration conf) {
+    Path directory = getSplitStatisticsDirectory(conf);
+    String run = Strings.emptyToNull(conf.get(SPLIT_STATISTICS_RUN));
+    if (directory == null || run == null) {
+      return null;
+    }
+    return new Path(directory.getParent(), directory.getName() + "." + run);
+  }
+
+  /**
+   * Replaces the split statistics of the source with the ones recorded by the splits of the current run if it
+   * succeeded, or discards them otherwise.
+   */
+  public static void finishSplitStatistics(Configuration conf, boolean succeeded) throws IOException {
+    Path directory = getSplitStatisticsDirectory(conf);
+    Path runDirectory = getSplitStatisticsRunDirectory(conf);
+    if (directory != null && runDirectory != null) {
+      SplitStatistics.replace(conf, directory, runDirectory, succeeded);
+    }
+  }
+
+  private List<InputSplit> getShardSplits(JobContext job, ConnectionConfigAccessor connectionConfigAccessor,
+                                          List<String> shards) throws IOException {
+    List<List<InputSplit>> splitsByShard = new ArrayList<>();
+    for (int i = 0; i < shards.size(); i++) {
+      closeConnection();
+      try {
+        connection = openConnection(connectionConfigAccessor, shards.get(i));
+      } catch (Exception e) {
+        closeConnection();
+        throw new IOException(String.format("Failed to connect to shard %d: %s", i, e.getMessage()), e);
+      }
+      List<InputSplit> splits = new ArrayList<>();
+      try {
+        List<InputSplit> shardSplits = getDatabaseSplits(job);
+        for (InputSplit split : shardSplits) {
+          splits.add(new ShardInputSplit(shards.get(i), (DBInputSplit) split));
+        }
+      } finally {
+        closeConnection();
+      }
+      splitsByShard.add(splits);
+    }
+    LOG.debug("Generated splits for {} shards.", shards.size());
+    return interleave(splitsByShard);
+  }
+
+  /**
+   * Distributes the splits round-robin over the given number of groups. Every group is read by a single task, one
+   * split after the other, which limits the number of connections reading from the database at the same time no
+   * matter how many executors are available.
+   */
+  @VisibleForTesting
+  static List<InputSplit> group(List<InputSplit> splits, int maxSplits) {
+    List<List<DBInputSplit>> groups = new ArrayList<>();
+    for (int i = 0; i < splits.size(); i++) {
+      if (i < maxSplits) {
+        groups.add(new ArrayList<>());
+      }
+      groups.get(i % maxSplits).add((DBInputSplit) splits.get(i));
+    }
+    return groups.stream().map(GroupedInputSplit::new).collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the splits of the database of the current connection, computed by the split planner if there is one,
+   * or from the range of the split-by field otherwise.
+   */
+  private List<InputSplit> getDatabaseSplits(JobContext job) throws IOException {
+    ConnectionConfigAccessor connectionConfigAccessor = new ConnectionConfigAccessor(job.getConfiguration());
+    Class<? extends SplitPlanner> plannerClass = connectionConfigAccessor.getSplitPlanner();
+    int numSplits = job.getConfiguration().getInt(MRJobConfig.NUM_MAPS, 1);
+    if (plannerClass == null || numSplits == 1) {
+      @SuppressWarnings("unchecked")
+      List<InputSplit> splits = super.getSplits(job);
+      return splits;
+    }
+
+    SplitPlanner planner = ReflectionUtils.newInstance(plannerClass, job.getConfiguration());
+    String table = connectionConfigAccessor.getSplitTable();
+    List<InputSplit> splits = new ArrayList<>();
+    try {
+      Connection connection = getConnection();
+      splits.addAll(planner.getSplits(connection, table, numSplits));
+      if (!connection.getAutoCommit()) {
+        connection.commit();
+      }
+    } catch (SQLException e) {
+      throw new IOException(String.format("Failed to compute the splits of table '%s': %s", table, e.getMessage()), e);
+    } finally {
+      closeConnection();
+    }
+    if (splits.isEmpty()) {
+      splits.add(new DataDrivenDBInputSplit("1=1", "1=1"));
+    }
+    LOG.debug("Split planner {} generated {} splits for table '{}'.", plannerClass.getName(), splits.size(), table);
+    return splits;
+  }
+
+  /**
+   * Returns the connection strings of the shards, reading them from the shard map if there is one.
+   */
+  private List<String> getShardConnectionStrings(ConnectionConfigAccessor connectionConfigAccessor)
+    throws IOException {
+    String shardMapQuery = connectionConfigAccessor.getShardMapQuery();
+    if (shardMapQuery == null) {
+      return connectionConfigAccessor.getShardConnectionStrings();
+    }
+    List<String> shards = new ArrayList<>();
+    try {
+      Connection connection = getConnection();
+      try (Statement statement = connection.createStatement();
+           ResultSet resultSet = statement.executeQuery(shardMapQuery)) {
+        while (resultSet.next()) {
+          String shard = resultSet.getString(1);
+          if (shard != null) {
+            shards.add(shard);
+          }
         }
+      }
+      if (!connection.getAutoCommit()) {
+        connection.commit();
+      }
+    } catch (SQLException e) {
+      throw new IOException("Failed to read the shard map: " + e.getMessage(), e);
+    } finally {
+      closeConnection();
+    }
+    if (shards.isEmpty()) {
+      throw new IOException(String.format("The shard map query '%s' did not return any shard.", shardMapQuery));
+    }
+    return shards;
+  }
 
-        if (connectionConfigAccessor.getFetchSize() > 0) {
-          this.connection = new ConnectionWithFetchSize(connection, connectionConfigAccessor.getFetchSize());
+  /**
+   * Orders the splits of the shards so that consecutive splits belong to different shards. Splits are scheduled in
+   * order, hence the reads are spread over all the shards rather than running the splits of one shard at a time.
+   */
+  @VisibleForTesting
+  static List<InputSplit> interleave(List<List<InputSplit>> shardSplits) {
+    List<InputSplit> splits = new ArrayList<>();
+    int maxSplits = shardSplits.stream().mapToInt(List::size).max().orElse(0);
+    for (int i = 0; i < maxSplits; i++) {
+      for (List<InputSplit> shard : shardSplits) {
+        if (i < shard.size()) {
+          splits.add(shard.get(i));
         }
+      }
+    }
+    return splits;
+  }
 
-        String level = connectionConfigAccessor.getConfiguration().get(TransactionIsolationLevel.CONF_KEY);
-        LOG.debug("Transaction isolation level: {}", level);
-        connection.setTransactionIsolation(TransactionIsolationLevel.getLevel(level));
-        // execute initialization queries if any
-        for (String query : connectionConfigAccessor.getInitQueries()) {
-          try (Statement statement = connection.createStatement()) {
-            statement.execute(query);
+  @Override
+  public RecordReader createRecordReader(InputSplit split, TaskAttemptContext context)
+    throws IOException, InterruptedException {
+    if (split instanceof GroupedInputSplit) {
+      return new GroupedRecordReader(((GroupedInputSplit) split).getSplits(), context);
+    }
+    ConnectionConfigAccessor connectionConfigAccessor = new ConnectionConfigAccessor(getConf());
+    if (split instanceof ShardInputSplit) {
+      ShardInputSplit shardSplit = (ShardInputSplit) split;
+      closeConnection();
+      try {
+        connection = openConnection(connectionConfigAccessor, shardSplit.getConnectionString());
+        connectionString = shardSplit.getConnectionString();
+      } catch (Exception e) {
+        closeConnection();
+        throw new IOException("Failed to connect to shard: " + e.getMessage(), e);
+      }
+      return super.createRecordReader(shardSplit.getSplit(), context);
+    }
+    List<String> replicas = connectionConfigAccessor.getReplicaConnectionStrings();
+    if (!replicas.isEmpty()) {
+      // the task id is the index of the split, which spreads the splits round-robin over the replicas
+      useReplica(connectionConfigAccessor, replicas, context.getTaskAttemptID().getTaskID().getId());
+    }
+    return super.createRecordReader(split, context);
+  }
+
+  /**
+   * Replaces the connection of this input format with a connection to the first available replica, starting with the
+   * one at the given index. The connection to the primary database is kept if no replica is available.
+   */
+  private void useReplica(ConnectionConfigAccessor connectionConfigAccessor, List<String> replicas, int index) {
+    for (int i = 0; i < replicas.size(); i++) {
+      int replica = (index + i) % replicas.size();
+      Connection replicaConnection = null;
+      try {
+        replicaConnection = openConnection(connectionConfigAccessor, replicas.get(replica));
+        if (isReplicaAvailable(replicaConnection, connectionConfigAccessor)) {
+          LOG.debug("Reading split from read replica {}.", replica);
+          if (connection != null) {
+            connection.close();
           }
+          connection = replicaConnection;
+          connectionString = replicas.get(replica);
+          return;
         }
+        replicaConnection.close();
       } catch (Exception e) {
-        throw Throwables.propagate(e);
+        LOG.warn("Read replica {} is not available.", replica, e);
+        if (replicaConnection != null) {
+          try {
+            replicaConnection.close();
+          } catch (SQLException ex) {
+            LOG.debug("Failed to close connection to read replica {}.", replica, ex);
+          }
+        }
       }
     }
-    return this.connection;
+    LOG.warn("None of the {} read replicas is available, reading split from the primary database.", replicas.size());
+  }
+
+  @VisibleForTesting
+  static boolean isReplicaAvailable(Connection connection,
+                                    ConnectionConfigAccessor connectionConfigAccessor) throws SQLException {
+    String lagQuery = connectionConfigAccessor.getReplicaLagQuery();
+    if (lagQuery == null) {
+      return true;
+    }
+    Double lag = 0d;
+    try (Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery(lagQuery)) {
+      if (resultSet.next()) {
+        lag = getReplicaLag(resultSet);
+      }
+    }
+    if (!connection.getAutoCommit()) {
+      connection.commit();
+    }
+    if (lag == null || lag > connectionConfigAccessor.getMaxReplicaLag()) {
+      LOG.warn("Replication lag of read replica is {} seconds, above the maximum of {} seconds.", lag,
+               connectionConfigAccessor.getMaxReplicaLag());
+      return false;
+    }
+    return true;
+  }
+
+  @Nullable
+  private static Double getReplicaLag(ResultSet resultSet) throws SQLException {
+    int column = 1;
+    ResultSetMetaData metadata = resultSet.getMetaData();
+    for (int i = 1; i <= metadata.getColumnCount(); i++) {
+      // column of SHOW SLAVE STATUS and SHOW REPLICA STATUS in MySQL
+      if ("Seconds_Behind_Master".equalsIgnoreCase(metadata.getColumnLabel(i))
+        || "Seconds_Behind_Source".equalsIgnoreCase(metadata.getColumnLabel(i))) {
+        column = i;
+      }
+    }
+    double lag = resultSet.getDouble(column);
+    return resultSet.wasNull() ? null : lag;
   }
 
   // versions > HDP-2.3.4 started using createConnection instead of getConnection,
@@ -128,18 +478,70 @@ public class DataDrivenETLDBInputFormat extends DataDrivenDBInputFormat {
     return getConnection();
   }
 
+  @Override
+  protected DBSplitter getSplitter(int sqlDataType) {
+    DBSplitter splitter = super.getSplitter(sqlDataType);
+    switch (sqlDataType) {
+      case Types.TINYINT:
+      case Types.SMALLINT:
+      case Types.INTEGER:
+      case Types.BIGINT:
+      case Types.NUMERIC:
+      case Types.DECIMAL:
+        return new ParameterizedSplitter(splitter, sqlDataType);
+      default:
+        return splitter;
+    }
+  }
+
   @Override
   public RecordReader createDBRecordReader(DBInputSplit split, Configuration conf) throws IOException {
-    final RecordReader dbRecordReader = super.createDBRecordReader(split, conf);
+    final RecordReader dbRecordReader;
+    if (split instanceof ParameterizedInputSplit) {
+      DBConfiguration dbConf = getDBConf();
+      try {
+        dbRecordReader = new ParameterizedRecordReader(split, dbConf.getInputClass(), conf, getConnection(), dbConf,
+                                                       getDBProductName());
+      } catch (SQLException e) {
+        throw new IOException(e.getMessage(), e);
+      }
+    } else if (split instanceof PlannedInputSplit) {
+      DBConfiguration dbConf = getDBConf();
+      try {
+        dbRecordReader = new PlannedRecordReader(split, dbConf.getInputClass(), conf, getConnection(), dbConf,
+                                                 getDBProductName());
+      } catch (SQLException e) {
+        throw new IOException(e.getMessage(), e);
+      }
+    } else {
+      dbRecordReader = super.createDBRecordReader(split, conf);
+    }
+    AdaptiveFetchThrottle throttle = createThrottle(conf);
+    Path statisticsDirectory = split instanceof ParameterizedInputSplit ? getSplitStatisticsRunDirectory(conf) : null;
     return new RecordReader() {
+      private long startNanos;
+      private long rows;
+      private long durationNanos = -1;
+
       @Override
       public void initialize(InputSplit split, TaskAttemptContext context) throws IOException, InterruptedException {
+        startNanos = System.nanoTime();
         dbRecordReader.initialize(split, context);
       }
 
       @Override
       public boolean nextKeyValue() throws IOException, InterruptedException {
-        return dbRecordReader.nextKeyValue();
+        long start = System.nanoTime();
+        boolean hasNext = dbRecordReader.nextKeyValue();
+        if (hasNext) {
+          rows++;
+          if (throttle != null) {
+            throttle.fetched(System.nanoTime() - start);
+          }
+        } else if (durationNanos < 0) {
+          durationNanos = System.nanoTime() - startNanos;
+        }
+        return hasNext;
       }
 
       @Override
@@ -159,23 +561,534 @@ public class DataDrivenETLDBInputFormat extends DataDrivenDBInputFormat {
 
       @Override
       public void close() throws IOException {
+        if (throttle != null) {
+          throttle.close();
+        }
         dbRecordReader.close();
-        try {
-          DriverManager.deregisterDriver(driverShim);
-        } catch (SQLException e) {
-          throw new IOException(e);
+        releaseDriver();
+        // only the splits read to the end are recorded
+        if (statisticsDirectory != null && durationNanos >= 0) {
+          ParameterizedInputSplit parameterizedSplit = (ParameterizedInputSplit) split;
+          try {
+            new SplitStatistics(new BigDecimal(parameterizedSplit.getLowerValue()),
+                                new BigDecimal(parameterizedSplit.getUpperValue()), rows, durationNanos)
+              .write(conf, statisticsDirectory);
+          } catch (IOException e) {
+            LOG.warn("Failed to record the statistics of the split.", e);
+          }
         }
       }
     };
   }
 
+  /**
+   * Returns the throttle that limits the rate at which the reader of a split fetches rows, or null if the rate is
+   * not limited. The health query is run on a separate connection to the database the split is read from.
+   */
+  @Nullable
+  private AdaptiveFetchThrottle createThrottle(Configuration conf) {
+    long targetLatency = conf.getLong(TARGET_FETCH_LATENCY_MS, 0);
+    String healthQuery = Strings.emptyToNull(conf.get(HEALTH_QUERY));
+    if (targetLatency <= 0 && healthQuery == null) {
+      return null;
+    }
+    ConnectionConfigAccessor connectionConfigAccessor = new ConnectionConfigAccessor(conf);
+    int fetchSize = connectionConfigAccessor.getFetchSize();
+    String url = connectionString;
+    return new AdaptiveFetchThrottle(
+      fetchSize > 0 ? fetchSize : DEFAULT_THROTTLE_WINDOW_ROWS, targetLatency, healthQuery,
+      conf.getDouble(MAX_HEALTH_VALUE, Double.MAX_VALUE),
+      conf.getLong(HEALTH_CHECK_INTERVAL_MS, DEFAULT_HEALTH_CHECK_INTERVAL_MS), () -> {
+        try {
+          return openConnection(connectionConfigAccessor, url);
+        } catch (SQLException e) {
+          throw e;
+        } catch (Exception e) {
+          throw new SQLException(e.getMessage(), e);
+        }
+      });
+  }
+
   @Override
   protected void closeConnection() {
     super.closeConnection();
-    try {
-      DriverManager.deregisterDriver(driverShim);
-    } catch (SQLException e) {
-      throw Throwables.propagate(e);
+    releaseDriver();
+  }
+
+  private void releaseDriver() {
+    if (driver != null) {
+      driver = null;
+      DriverRegistry.release(driverClass);
+    }
+  }
+
+  /**
+   * Reads the splits of a {@link GroupedInputSplit} one after the other, with a new connection for every split.
+   */
+  private class GroupedRecordReader extends RecordReader {
+    private final List<DBInputSplit> splits;
+    private final TaskAttemptContext context;
+    private int index = -1;
+    private RecordReader reader;
+
+    GroupedRecordReader(List<DBInputSplit> splits, TaskAttemptContext context) {
+      this.splits = splits;
+      this.context = context;
+    }
+
+    @Override
+    public void initialize(InputSplit split, TaskAttemptContext context) {
+      // the reader of every split is initialized when the split is reached
+    }
+
+    @Override
+    public boolean nextKeyValue() throws IOException, InterruptedException {
+      while (reader == null || !reader.nextKeyValue()) {
+        closeReader();
+        if (index + 1 >= splits.size()) {
+          return false;
+        }
+        index++;
+        reader = createRecordReader(splits.get(index), context);
+        reader.initialize(splits.get(index), context);
+      }
+      return true;
+    }
+
+    @Override
+    public Object getCurrentKey() throws IOException, InterruptedException {
+      return reader.getCurrentKey();
+    }
+
+    @Override
+    public Object getCurrentValue() throws IOException, InterruptedException {
+      return reader.getCurrentValue();
+    }
+
+    @Override
+    public float getProgress() throws IOException, InterruptedException {
+      float splitProgress = reader == null ? 0 : reader.getProgress();
+      return Math.min(1, (Math.max(index, 0) + splitProgress) / splits.size());
+    }
+
+    @Override
+    public void close() throws IOException {
+      closeReader();
+      closeConnection();
+    }
+
+    private void closeReader() throws IOException {
+      if (reader != null) {
+        reader.close();
+        reader = null;
+        // the reader closes the connection, but the next split needs a new one
+        closeConnection();
+      }
+    }
+  }
+
+  /**
+   * Several splits read one after the other by the same task.
+   */
+  public static class GroupedInputSplit extends DBInputSplit {
+    private List<DBInputSplit> splits;
+
+    public GroupedInputSplit() {
+    }
+
+    GroupedInputSplit(List<DBInputSplit> splits) {
+      this.splits = splits;
+    }
+
+    List<DBInputSplit> getSplits() {
+      return splits;
+    }
+
+    @Override
+    public long getLength() throws IOException {
+      long length = 0;
+      for (DBInputSplit split : splits) {
+        length += split.getLength();
+      }
+      return length;
+    }
+
+    @Override
+    public void readFields(DataInput input) throws IOException {
+      int size = input.readInt();
+      splits = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        String splitClassName = Text.readString(input);
+        DBInputSplit split;
+        try {
+          split = (DBInputSplit) ReflectionUtils.newInstance(
+            Class.forName(splitClassName, true, GroupedInputSplit.class.getClassLoader()), null);
+        } catch (ClassNotFoundException e) {
+          throw new IOException("Failed to load split class " + splitClassName, e);
+        }
+        split.readFields(input);
+        splits.add(split);
+      }
+    }
+
+    @Override
+    public void write(DataOutput output) throws IOException {
+      output.writeInt(splits.size());
+      for (DBInputSplit split : splits) {
+        Text.writeString(output, split.getClass().getName());
+        split.write(output);
+      }
+    }
+  }
+
+  /**
+   * Split read through a given connection string instead of the connection string of the source, such as a split of
+   * one shard of a sharded source, or a split computed by a {@link SplitPlanner} for the host that holds its data.
+   */
+  public static class ShardInputSplit extends DBInputSplit {
+    private String connectionString;
+    private DBInputSplit split;
+
+    public ShardInputSplit() {
+    }
+
+    public ShardInputSplit(String connectionString, DBInputSplit split) {
+      this.connectionString = connectionString;
+      this.split = split;
+    }
+
+    String getConnectionString() {
+      return connectionString;
+    }
+
+    DBInputSplit getSplit() {
+      return split;
+    }
+
+    @Override
+    public long getLength() throws IOException {
+      return split.getLength();
+    }
+
+    @Override
+    public void readFields(DataInput input) throws IOException {
+      connectionString = Text.readString(input);
+      String splitClassName = Text.readString(input);
+      try {
+        split = (DBInputSplit) ReflectionUtils.newInstance(
+          Class.forName(splitClassName, true, ShardInputSplit.class.getClassLoader()), null);
+      } catch (ClassNotFoundException e) {
+        throw new IOException("Failed to load split class " + splitClassName, e);
+      }
+      split.readFields(input);
+    }
+
+    @Override
+    public void write(DataOutput output) throws IOException {
+      Text.writeString(output, connectionString);
+      Text.writeString(output, split.getClass().getName());
+      split.write(output);
+    }
+  }
+
+  /**
+   * Split computed by a {@link SplitPlanner}. Besides the clauses substituted for $CONDITIONS, the split replaces the
+   * split table in the import query, for example with one of its partitions.
+   */
+  public static class PlannedInputSplit extends DataDrivenDBInputSplit {
+    // the word that follows a table in a FROM clause that has no alias
+    private static final Pattern FOLLOWING_WORD = Pattern.compile("^\\s+(\\w+)");
+    private static final Set<String> CLAUSE_KEYWORDS = new HashSet<>(Arrays.asList(
+      "WHERE", "JOIN", "INNER", "LEFT", "RIGHT", "FULL", "CROSS", "NATURAL", "ON", "USING", "GROUP", "ORDER", "HAVING",
+      "LIMIT", "OFFSET", "FETCH", "UNION", "INTERSECT", "EXCEPT", "MINUS", "WINDOW", "FOR", "TABLESAMPLE", "WITH"));
+
+    private String table;
+    private String replacement;
+    private String alias;
+
+    public PlannedInputSplit() {
+    }
+
+    /**
+     * @param lowerClause the lower bound of the split, substituted for $CONDITIONS with the upper bound
+     * @param upperClause the upper bound of the split
+     * @param table the split table, as written in the import query
+     * @param replacement the text that replaces the split table in the import query
+     */
+    public PlannedInputSplit(String lowerClause, String upperClause, String table, String replacement) {
+      this(lowerClause, upperClause, table, replacement, null);
+    }
+
+    /**
+     * @param lowerClause the lower bound of the split, substituted for $CONDITIONS with the upper bound
+     * @param upperClause the upper bound of the split
+     * @param table the split table, as written in the import query
+     * @param replacement the text that replaces the split table in the import query
+     * @param alias the alias given to the replacement where the import query does not alias the split table, so that
+     *              the columns qualified with the name of the split table still resolve, or null if not needed. It
+     *              is given without AS, which Oracle does not accept for tables
+     */
+    public PlannedInputSplit(String lowerClause, String upperClause, String table, String replacement,
+                             @Nullable String alias) {
+      super(lowerClause, upperClause);
+      this.table = table;
+      this.replacement = replacement;
+      this.alias = Strings.nullToEmpty(alias);
+    }
+
+    /**
+     * Replaces the occurrences of the split table in the given query that are not part of another identifier.
+     */
+    public String rewrite(String query) {
+      Pattern pattern = Pattern.compile("(?<![\\w.\"`])" + Pattern.quote(table) + "(?![\\w.\"`])",
+                                        Pattern.CASE_INSENSITIVE);
+      Matcher matcher = pattern.matcher(query);
+      StringBuffer rewritten = new StringBuffer();
+      while (matcher.find()) {
+        String text = alias.isEmpty() || isAliased(query.substring(matcher.end())) ? replacement
+          : replacement + " " + alias;
+        matcher.appendReplacement(rewritten, Matcher.quoteReplacement(text));
+      }
+      matcher.appendTail(rewritten);
+      return rewritten.toString();
+    }
+
+    /**
+     * Returns whether the table followed by the given text is given an alias, with or without AS.
+     */
+    private static boolean isAliased(String following) {
+      Matcher matcher = FOLLOWING_WORD.matcher(following);
+      return matcher.find() && !CLAUSE_KEYWORDS.contains(matcher.group(1).toUpperCase(Locale.ROOT));
+    }
+
+    @Override
+    public void readFields(DataInput input) throws IOException {
+      super.readFields(input);
+      table = Text.readString(input);
+      replacement = Text.readString(input);
+      alias = Text.readString(input);
+    }
+
+    @Override
+    public void write(DataOutput output) throws IOException {
+      super.write(output);
+      Text.writeString(output, table);
+      Text.writeString(output, replacement);
+      Text.writeString(output, alias);
+    }
+  }
+
+  /**
+   * Split whose bounds are bind parameters of the split query rather than literals. All the splits of a query then
+   * run the same statement, which the database parses and plans once instead of once per split.
+   * <p>
+   * The bounds are bound to the parameters in the order in which the bounds appear in the query. They are not used if
+   * the import query already contains a question mark, such as the PostgreSQL jsonb ? operator, since the driver would
+   * take it for a parameter.
+   */
+  public static class ParameterizedInputSplit extends DataDrivenDBInputSplit {
+    private int sqlType;
+    private String lowerValue;
+    private String upperValue;
+
+    public ParameterizedInputSplit() {
+    }
+
+    ParameterizedInputSplit(String lowerClause, String upperClause, int sqlType, String lowerValue,
+                            String upperValue) {
+      super(lowerClause, upperClause);
+      this.sqlType = sqlType;
+      this.lowerValue = lowerValue;
+      this.upperValue = upperValue;
+    }
+
+    /**
+     * Binds the lower and upper bound of the split to the given parameter and the next one.
+     *
+     * @return index of the parameter after the upper bound
+     */
+    int bind(PreparedStatement statement, int index) throws SQLException {
+      statement.setObject(index, getValue(lowerValue), sqlType);
+      statement.setObject(index + 1, getValue(upperValue), sqlType);
+      return index + 2;
+    }
+
+    int getSqlType() {
+      return sqlType;
+    }
+
+    String getLowerValue() {
+      return lowerValue;
+    }
+
+    String getUpperValue() {
+      return upperValue;
+    }
+
+    private Object getValue(String value) {
+      return sqlType == Types.NUMERIC || sqlType == Types.DECIMAL ? new BigDecimal(value) : Long.valueOf(value);
+    }
+
+    @Override
+    public void readFields(DataInput input) throws IOException {
+      super.readFields(input);
+      sqlType = input.readInt();
+      lowerValue = Text.readString(input);
+      upperValue = Text.readString(input);
+    }
+
+    @Override
+    public void write(DataOutput output) throws IOException {
+      super.write(output);
+      output.writeInt(sqlType);
+      Text.writeString(output, lowerValue);
+      Text.writeString(output, upperValue);
+    }
+  }
+
+  /**
+   * Splits the range of a numeric column the same way as the given splitter, but turns the bounds of the splits into
+   * bind parameters. Splits that are not bounded by values, such as the one for null values, are left unchanged. All
+   * the splits keep literal bounds if the import query contains a question mark.
+   */
+  private static class ParameterizedSplitter implements DBSplitter {
+    private static final String[] OPERATORS = {" >= ", " <= ", " < "};
+
+    private final DBSplitter delegate;
+    private final int sqlType;
+
+    ParameterizedSplitter(DBSplitter delegate, int sqlType) {
+      this.delegate = delegate;
+      this.sqlType = sqlType;
+    }
+
+    @Override
+    public List<InputSplit> split(Configuration conf, ResultSet results, String colName) throws SQLException {
+      List<InputSplit> delegateSplits = delegate.split(conf, results, colName);
+      String inputQuery = conf.get(DBConfiguration.INPUT_QUERY);
+      if (inputQuery != null && inputQuery.indexOf('?') >= 0) {
+        return delegateSplits;
+      }
+      List<InputSplit> splits = new ArrayList<>();
+      for (InputSplit split : delegateSplits) {
+        DataDrivenDBInputSplit dataSplit = (DataDrivenDBInputSplit) split;
+        String[] lower = parseClause(dataSplit.getLowerClause(), colName);
+        String[] upper = parseClause(dataSplit.getUpperClause(), colName);
+        if (lower == null || upper == null) {
+          splits.add(split);
+        } else {
+          splits.add(new ParameterizedInputSplit(lower[0], upper[0], sqlType, lower[1], upper[1]));
+        }
+      }
+      return splits;
+    }
+
+    /**
+     * Parses a clause of the form 'column operator value'.
+     *
+     * @return the clause with the value replaced with a parameter, and the value, or null if the clause has
+     * another form
+     */
+    @Nullable
+    private static String[] parseClause(String clause, String colName) {
+      for (String operator : OPERATORS) {
+        String prefix = colName + operator;
+        if (clause.startsWith(prefix)) {
+          return new String[] {prefix + "?", clause.substring(prefix.length())};
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Record reader for the splits of this input format, which sets up the connection and the statement the same way
+   * as the record readers that {@link DataDrivenDBInputFormat} creates for the product of the database.
+   */
+  private abstract static class ETLDataDrivenRecordReader extends DataDrivenDBRecordReader {
+    private final String dbProductName;
+
+    ETLDataDrivenRecordReader(DBInputSplit split, Class inputClass, Configuration conf, Connection connection,
+                              DBConfiguration dbConf, String dbProductName) throws SQLException {
+      super(split, inputClass, conf, connection, dbConf, dbConf.getInputConditions(), dbConf.getInputFieldNames(),
+            dbConf.getInputTableName(), dbProductName);
+      this.dbProductName = dbProductName;
+      if (dbProductName.startsWith("ORACLE")) {
+        // same as OracleDataDrivenDBRecordReader
+        OracleDBRecordReader.setSessionTimeZone(conf, connection);
+      }
+    }
+
+    /**
+     * Prepares the statement that runs the given query.
+     */
+    protected PreparedStatement prepareStatement(String query) throws SQLException {
+      statement = getConnection().prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      if (dbProductName.startsWith("MYSQL")) {
+        // same as MySQLDataDrivenDBRecordReader, streams the results instead of reading them all in memory
+        statement.setFetchSize(Integer.MIN_VALUE);
+      }
+      return statement;
+    }
+
+    @Override
+    protected ResultSet executeQuery(String query) throws SQLException {
+      return prepareStatement(query).executeQuery();
+    }
+  }
+
+  /**
+   * Record reader that replaces the split table of a {@link PlannedInputSplit} in the split query.
+   */
+  private static class PlannedRecordReader extends ETLDataDrivenRecordReader {
+
+    PlannedRecordReader(DBInputSplit split, Class inputClass, Configuration conf, Connection connection,
+                        DBConfiguration dbConf, String dbProductName) throws SQLException {
+      super(split, inputClass, conf, connection, dbConf, dbProductName);
+    }
+
+    @Override
+    protected String getSelectQuery() {
+      return ((PlannedInputSplit) getSplit()).rewrite(super.getSelectQuery());
+    }
+  }
+
+  /**
+   * Record reader that binds the bounds of a {@link ParameterizedInputSplit} to the split query.
+   */
+  private static class ParameterizedRecordReader extends ETLDataDrivenRecordReader {
+
+    ParameterizedRecordReader(DBInputSplit split, Class inputClass, Configuration conf, Connection connection,
+                              DBConfiguration dbConf, String dbProductName) throws SQLException {
+      super(split, inputClass, conf, connection, dbConf, dbProductName);
+    }
+
+    @Override
+    protected ResultSet executeQuery(String query) throws SQLException {
+      PreparedStatement preparedStatement = prepareStatement(query);
+      ParameterizedInputSplit split = (ParameterizedInputSplit) getSplit();
+      int index = 1;
+      for (int i = 0; i < getConditionsCount(); i++) {
+        index = split.bind(preparedStatement, index);
+      }
+      return preparedStatement.executeQuery();
+    }
+
+    /**
+     * Returns the number of times the split conditions appear in the query, since they are substituted for every
+     * occurrence of $CONDITIONS in the import query.
+     */
+    private int getConditionsCount() {
+      String inputQuery = getDBConf().getInputQuery();
+      if (inputQuery == null) {
+        return 1;
+      }
+      int count = 0;
+      for (int i = inputQuery.indexOf(SUBSTITUTE_TOKEN); i >= 0;
+           i = inputQuery.indexOf(SUBSTITUTE_TOKEN, i + SUBSTITUTE_TOKEN.length())) {
+        count++;
+      }
+      return count;
     }
   }
 }
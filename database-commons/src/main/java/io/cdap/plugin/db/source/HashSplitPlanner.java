@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.source;
+
+import org.apache.hadoop.conf.Configured;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.db.DBConfiguration;
+import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Splits a table into buckets of a hash of the split-by field, with one split per bucket and an additional split for
+ * the rows whose split-by field is null. Unlike range splits, the buckets are about the same size whatever the type
+ * and the distribution of the split-by field, such as strings or UUIDs, and no bounding query is needed.
+ * <p>
+ * Subclasses provide the expression that computes the bucket of a row with the hash function of their database.
+ */
+public abstract class HashSplitPlanner extends Configured implements SplitPlanner {
+
+  @Override
+  public List<InputSplit> getSplits(Connection connection, @Nullable String table, int numSplits) {
+    String column = getConf().get(DBConfiguration.INPUT_ORDER_BY_PROPERTY);
+    String bucket = getBucketExpression(column, numSplits);
+    List<InputSplit> splits = new ArrayList<>();
+    for (int i = 0; i < numSplits; i++) {
+      splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(String.format("%s IS NOT NULL", column),
+                                                                    String.format("%s = %d", bucket, i)));
+    }
+    splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(String.format("%s IS NULL", column), "1=1"));
+    return splits;
+  }
+
+  /**
+   * Returns the expression that computes the bucket of the rows whose split-by field is not null.
+   *
+   * @param column the split-by field
+   * @param numSplits the number of buckets
+   * @return an expression returning an integer between 0 and numSplits - 1
+   */
+  protected abstract String getBucketExpression(String column, int numSplits);
+}
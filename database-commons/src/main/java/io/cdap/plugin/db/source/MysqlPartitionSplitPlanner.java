@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.source;
+
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Splits a partitioned MySQL or MariaDB table along its partitions, by replacing the table with a PARTITION clause
+ * in the import query, so that every split only reads its own partitions. The subpartitions are used instead of the
+ * partitions if the table has any. Consecutive partitions are grouped into splits of about the same number of rows
+ * if there are more partitions than the requested number of splits.
+ */
+public class MysqlPartitionSplitPlanner implements SplitPlanner {
+  private static final Logger LOG = LoggerFactory.getLogger(MysqlPartitionSplitPlanner.class);
+  private static final String PARTITIONS_QUERY = "SELECT COALESCE(SUBPARTITION_NAME, PARTITION_NAME), TABLE_ROWS " +
+    "FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = COALESCE(?, DATABASE()) AND TABLE_NAME = ? " +
+    "AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION, SUBPARTITION_ORDINAL_POSITION";
+  private static final String NO_BOUND = "1=1";
+
+  @Override
+  public List<InputSplit> getSplits(Connection connection, String table, int numSplits) throws SQLException {
+    String schema = null;
+    String name = table;
+    int separator = table.lastIndexOf('.');
+    if (separator > 0) {
+      schema = unquote(table.substring(0, separator));
+      name = table.substring(separator + 1);
+    }
+
+    List<Partition> partitions = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(PARTITIONS_QUERY)) {
+      statement.setString(1, schema);
+      statement.setString(2, unquote(name));
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          partitions.add(new Partition(resultSet.getString(1), resultSet.getLong(2)));
+        }
+      }
+    }
+    if (partitions.isEmpty()) {
+      LOG.warn("Table '{}' is not partitioned, it is read as a single split.", table);
+      return Collections.emptyList();
+    }
+
+    List<InputSplit> splits = new ArrayList<>();
+    for (List<Partition> group : PartitionGroups.group(partitions, partition -> partition.rows, numSplits)) {
+      String clause = group.stream().map(partition -> "`" + partition.name.replace("`", "``") + "`")
+        .collect(Collectors.joining(", "));
+      splits.add(new DataDrivenETLDBInputFormat.PlannedInputSplit(
+        NO_BOUND, NO_BOUND, table, String.format("%s PARTITION (%s)", table, clause)));
+    }
+    return splits;
+  }
+
+  private static String unquote(String identifier) {
+    String trimmed = identifier.trim();
+    if (trimmed.length() > 1 && (trimmed.startsWith("`") && trimmed.endsWith("`")
+      || trimmed.startsWith("\"") && trimmed.endsWith("\""))) {
+      return trimmed.substring(1, trimmed.length() - 1);
+    }
+    return trimmed;
+  }
+
+  /**
+   * A partition or subpartition of a table.
+   */
+  private static class Partition {
+    private final String name;
+    private final long rows;
+
+    Partition(String name, long rows) {
+      this.name = name;
+      this.rows = rows;
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.source;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Groups the consecutive partitions of a table into splits of about the same number of rows, for the split planners
+ * that split a table along its partitions.
+ */
+public final class PartitionGroups {
+
+  private PartitionGroups() {
+    throw new AssertionError("Should not instantiate static utility class.");
+  }
+
+  /**
+   * Groups consecutive partitions into about the given number of groups of about the same number of rows. Every
+   * partition is in its own group if there are no more partitions than groups.
+   *
+   * @param partitions the partitions, in the order they are grouped
+   * @param rows the number of rows of a partition
+   * @param numGroups the requested number of groups
+   * @return the groups of partitions, in order
+   */
+  public static <T> List<List<T>> group(List<T> partitions, ToLongFunction<T> rows, int numGroups) {
+    return group(partitions, rows, partition -> null, numGroups);
+  }
+
+  /**
+   * Groups consecutive partitions into about the given number of groups of about the same number of rows, without
+   * ever grouping partitions with different keys, such as partitions held by different hosts.
+   *
+   * @param partitions the partitions, in the order they are grouped, with the partitions of the same key together
+   * @param rows the number of rows of a partition
+   * @param key the key of a partition
+   * @param numGroups the requested number of groups
+   * @return the groups of partitions, in order
+   */
+  public static <T> List<List<T>> group(List<T> partitions, ToLongFunction<T> rows, Function<T, ?> key,
+                                        int numGroups) {
+    long totalRows = partitions.stream().mapToLong(rows).sum();
+    long rowsPerGroup = Math.max(1, (totalRows + numGroups - 1) / numGroups);
+    List<List<T>> groups = new ArrayList<>();
+    List<T> group = new ArrayList<>();
+    long groupRows = 0;
+    for (int i = 0; i < partitions.size(); i++) {
+      T partition = partitions.get(i);
+      group.add(partition);
+      groupRows += rows.applyAsLong(partition);
+      int remainingPartitions = partitions.size() - i - 1;
+      int remainingGroups = numGroups - groups.size() - 1;
+      boolean lastOfKey = remainingPartitions == 0
+        || !Objects.equals(key.apply(partitions.get(i + 1)), key.apply(partition));
+      // a group is closed once it has enough rows, or when every remaining partition is needed for its own group
+      if (groupRows >= rowsPerGroup || remainingPartitions <= remainingGroups || lastOfKey) {
+        groups.add(group);
+        group = new ArrayList<>();
+        groupRows = 0;
+      }
+    }
+    return groups;
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.source;
+
+import org.apache.hadoop.mapreduce.InputSplit;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Computes the splits of a source from the physical layout of the table it reads, such as its blocks or its
+ * partitions, instead of from the range of values of the split-by field.
+ * <p>
+ * Implementations are created by the input format with a public no-argument constructor. Implementations that need
+ * other settings can implement {@link org.apache.hadoop.conf.Configurable} to receive the configuration of the source.
+ */
+public interface SplitPlanner {
+
+  /**
+   * Returns the splits of the given table. Every split is either a
+   * {@link org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat.DataDrivenDBInputSplit}, whose clauses are
+   * substituted for the $CONDITIONS string of the import query, or a
+   * {@link DataDrivenETLDBInputFormat.PlannedInputSplit}, which can also replace the table in the import query.
+   * Either can be wrapped in a {@link DataDrivenETLDBInputFormat.ShardInputSplit} to be read from a given host.
+   *
+   * @param connection connection to the database
+   * @param table the table to split, as written in the import query
+   * @param numSplits the requested number of splits, which the planner can adjust to the layout of the table
+   * @return the splits, or an empty list to read the table as a single split
+   */
+  List<InputSplit> getSplits(Connection connection, String table, int numSplits) throws SQLException;
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.source;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Number of rows and duration of the read of a range split, recorded to learn how the cost of reading the table is
+ * distributed over the values of the split-by field.
+ * <p>
+ * Every split of a run writes its statistics to a file named after its bounds, in a directory of the run that
+ * replaces the statistics of the previous run once the run succeeds. The next run reads them back and moves the
+ * bounds of its splits so that they are expected to take the same time, assuming that the time to read a split of the
+ * previous run was spread evenly over its range. Values outside the ranges of the previous run are assumed to cost
+ * the average of the previous run. This learns the distribution of the keys without running any query on the
+ * database.
+ */
+public class SplitStatistics {
+  private static final Logger LOG = LoggerFactory.getLogger(SplitStatistics.class);
+  private static final String SEPARATOR = "\t";
+  private static final MathContext MATH_CONTEXT = MathContext.DECIMAL128;
+  private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+  private final BigDecimal lower;
+  private final BigDecimal upper;
+  private final long rows;
+  private final long nanos;
+
+  /**
+   * @param lower the lowest value of the split-by field in the split
+   * @param upper the highest value of the split-by field in the split
+   * @param rows the number of rows read
+   * @param nanos the time taken to read the split
+   */
+  public SplitStatistics(BigDecimal lower, BigDecimal upper, long rows, long nanos) {
+    this.lower = lower;
+    this.upper = upper;
+    this.rows = rows;
+    this.nanos = nanos;
+  }
+
+  /**
+   * Writes the statistics to the given directory, replacing the statistics of a previous attempt at the same split.
+   */
+  public void write(Configuration conf, Path directory) throws IOException {
+    Path path = new Path(directory, lower.toPlainString() + "_" + upper.toPlainString());
+    FileSystem fileSystem = path.getFileSystem(conf);
+    try (FSDataOutputStream output = fileSystem.create(path, true)) {
+      output.write(String.join(SEPARATOR, lower.toPlainString(), upper.toPlainString(), String.valueOf(rows),
+                               String.valueOf(nanos)).getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Reads the statistics of the splits of the previous successful run from the given directory. Files that cannot be
+   * parsed are skipped.
+   */
+  public static List<SplitStatistics> read(Configuration conf, Path directory) throws IOException {
+    List<SplitStatistics> statistics = new ArrayList<>();
+    FileSystem fileSystem = directory.getFileSystem(conf);
+    if (!fileSystem.exists(directory)) {
+      return statistics;
+    }
+    for (FileStatus status : fileSystem.listStatus(directory)) {
+      if (status.isDirectory()) {
+        continue;
+      }
+      try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(fileSystem.open(status.getPath()), StandardCharsets.UTF_8))) {
+        String[] fields = reader.readLine().split(SEPARATOR);
+        statistics.add(new SplitStatistics(new BigDecimal(fields[0]), new BigDecimal(fields[1]),
+                                           Long.parseLong(fields[2]), Long.parseLong(fields[3])));
+      } catch (RuntimeException e) {
+        LOG.warn("Ignoring invalid split statistics in {}.", status.getPath(), e);
+      }
+    }
+    return statistics;
+  }
+
+  /**
+   * Replaces the statistics in the given directory with the ones written to the run directory by the splits of the
+   * current run if it succeeded, then deletes the run directory. The statistics of the previous run are kept if the
+   * current run failed or did not record any split, so that the next run can still be rebalanced.
+   */
+  public static void replace(Configuration conf, Path directory, Path runDirectory,
+                             boolean succeeded) throws IOException {
+    FileSystem fileSystem = runDirectory.getFileSystem(conf);
+    if (!fileSystem.exists(runDirectory)) {
+      return;
+    }
+    if (succeeded) {
+      fileSystem.delete(directory, true);
+      if (fileSystem.rename(runDirectory, directory)) {
+        return;
+      }
+      LOG.warn("Failed to move the split statistics from {} to {}.", runDirectory, directory);
+    }
+    fileSystem.delete(runDirectory, true);
+  }
+
+  /**
+   * Moves the bounds of the range splits of the split-by field so that their reads are expected to take the same
+   * time, based on the statistics of the previous run. The number of splits is unchanged, except that splits that
+   * would be empty are dropped for integer fields. Other splits, such as the one for null values, are kept as is.
+   */
+  @VisibleForTesting
+  static List<InputSplit> rebalance(List<InputSplit> splits, List<SplitStatistics> statistics) {
+    List<DataDrivenETLDBInputFormat.ParameterizedInputSplit> rangeSplits = new ArrayList<>();
+    List<InputSplit> otherSplits = new ArrayList<>();
+    for (InputSplit split : splits) {
+      if (split instanceof DataDrivenETLDBInputFormat.ParameterizedInputSplit) {
+        rangeSplits.add((DataDrivenETLDBInputFormat.ParameterizedInputSplit) split);
+      } else {
+        otherSplits.add(split);
+      }
+    }
+    List<SplitStatistics> ranges = new ArrayList<>();
+    for (SplitStatistics split : statistics) {
+      if (split.upper.compareTo(split.lower) > 0 && split.nanos > 0) {
+        ranges.add(split);
+      }
+    }
+    if (rangeSplits.size() < 2 || ranges.isEmpty()) {
+      return splits;
+    }
+    ranges.sort(Comparator.comparing(split -> split.lower));
+
+    DataDrivenETLDBInputFormat.ParameterizedInputSplit first = rangeSplits.get(0);
+    DataDrivenETLDBInputFormat.ParameterizedInputSplit last = rangeSplits.get(rangeSplits.size() - 1);
+    int sqlType = first.getSqlType();
+    boolean integral = sqlType != Types.NUMERIC && sqlType != Types.DECIMAL;
+    // bounds are interpolated in decimal, since a double loses the precision of large BIGINT and DECIMAL values
+    BigDecimal min = new BigDecimal(first.getLowerValue());
+    BigDecimal max = new BigDecimal(last.getUpperValue());
+    if (max.compareTo(min) <= 0) {
+      return splits;
+    }
+
+    // cuts the range at the bounds of the previous splits, with the cost per unit of the split each piece falls in
+    BigDecimal totalNanos = BigDecimal.ZERO;
+    BigDecimal totalWidth = BigDecimal.ZERO;
+    for (SplitStatistics split : ranges) {
+      totalNanos = totalNanos.add(BigDecimal.valueOf(split.nanos));
+      totalWidth = totalWidth.add(split.upper.subtract(split.lower));
+    }
+    BigDecimal defaultDensity = totalNanos.divide(totalWidth, MATH_CONTEXT);
+    TreeSet<BigDecimal> points = new TreeSet<>();
+    points.add(min);
+    points.add(max);
+    for (SplitStatistics split : ranges) {
+      for (BigDecimal bound : new BigDecimal[] {split.lower, split.upper}) {
+        if (bound.compareTo(min) > 0 && bound.compareTo(max) < 0) {
+          points.add(bound);
+        }
+      }
+    }
+    List<Piece> pieces = new ArrayList<>();
+    BigDecimal totalCost = BigDecimal.ZERO;
+    BigDecimal start = null;
+    for (BigDecimal point : points) {
+      if (start != null) {
+        BigDecimal middle = start.add(point).divide(TWO);
+        Piece piece = new Piece(start, point, getDensity(ranges, middle, defaultDensity));
+        pieces.add(piece);
+        totalCost = totalCost.add(piece.getCost());
+      }
+      start = point;
+    }
+
+    List<String> bounds = new ArrayList<>();
+    bounds.add(first.getLowerValue());
+    int piece = 0;
+    BigDecimal cost = BigDecimal.ZERO;
+    for (int i = 1; i < rangeSplits.size(); i++) {
+      BigDecimal target = totalCost.multiply(BigDecimal.valueOf(i))
+        .divide(BigDecimal.valueOf(rangeSplits.size()), MATH_CONTEXT);
+      while (cost.add(pieces.get(piece).getCost()).compareTo(target) < 0 && piece < pieces.size() - 1) {
+        cost = cost.add(pieces.get(piece).getCost());
+        piece++;
+      }
+      Piece current = pieces.get(piece);
+      BigDecimal value = current.start.add(target.subtract(cost).divide(current.density, MATH_CONTEXT))
+        .min(current.end);
+      value = integral ? value.setScale(0, RoundingMode.HALF_UP) : value.stripTrailingZeros();
+      BigDecimal previous = new BigDecimal(bounds.get(bounds.size() - 1));
+      if (value.compareTo(previous) > 0 && value.compareTo(max) < 0) {
+        bounds.add(value.toPlainString());
+      }
+    }
+    bounds.add(last.getUpperValue());
+
+    List<InputSplit> rebalanced = new ArrayList<>();
+    for (int i = 0; i < bounds.size() - 1; i++) {
+      rebalanced.add(new DataDrivenETLDBInputFormat.ParameterizedInputSplit(
+        first.getLowerClause(), i == bounds.size() - 2 ? last.getUpperClause() : first.getUpperClause(), sqlType,
+        bounds.get(i), bounds.get(i + 1)));
+    }
+    rebalanced.addAll(otherSplits);
+    return rebalanced;
+  }
+
+  private static BigDecimal getDensity(List<SplitStatistics> ranges, BigDecimal value, BigDecimal defaultDensity) {
+    for (SplitStatistics split : ranges) {
+      if (split.lower.compareTo(value) <= 0 && value.compareTo(split.upper) <= 0) {
+        return BigDecimal.valueOf(Math.max(split.nanos, 1)).divide(split.upper.subtract(split.lower), MATH_CONTEXT);
+      }
+    }
+    return defaultDensity;
+  }
+
+  /**
+   * Part of the range of the split-by field that is read at the same cost per unit.
+   */
+  private static final class Piece {
+    private final BigDecimal start;
+    private final BigDecimal end;
+    private final BigDecimal density;
+
+    private Piece(BigDecimal start, BigDecimal end, BigDecimal density) {
+      this.start = start;
+      this.end = end;
+      this.density = density;
+    }
+
+    private BigDecimal getCost() {
+      return density.multiply(end.subtract(start), MATH_CONTEXT);
+    }
+  }
+}
@@ -16,12 +16,15 @@
 
 package io.cdap.plugin.util;
 
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import io.cdap.cdap.api.plugin.PluginConfig;
 import io.cdap.cdap.api.plugin.PluginProperties;
 import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.cdap.etl.api.PipelineConfigurer;
 import io.cdap.plugin.db.ConnectionConfig;
-import io.cdap.plugin.db.JDBCDriverShim;
+import io.cdap.plugin.db.DriverRegistry;
 import io.cdap.plugin.db.config.DatabaseConnectionConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,7 +40,9 @@ import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.Hashtable;
@@ -89,30 +94,16 @@ public final class DBUtils {
   }
 
   /**
-   * Ensures that the JDBC Driver specified in configuration is available and can be loaded. Also registers it with
-   * {@link DriverManager} if it is not already registered.
+   * Ensures that the JDBC Driver specified in configuration is available and can be loaded. The returned
+   * {@link DriverCleanup} provides the driver to open connections with and must be destroyed once the driver is no
+   * longer needed.
    */
   public static DriverCleanup ensureJDBCDriverIsAvailable(Class<? extends Driver> jdbcDriverClass,
                                                           String connectionString, String jdbcPluginName)
     throws IllegalAccessException, InstantiationException, SQLException {
-
-    try {
-      DriverManager.getDriver(connectionString);
-      return new DriverCleanup(null);
-    } catch (SQLException e) {
-      // Driver not found. We will try to register it with the DriverManager.
-      LOG.debug("Plugin Name: {}; Driver Class: {} not found. Registering JDBC driver via shim {} ",
-                jdbcPluginName, jdbcDriverClass.getName(), JDBCDriverShim.class.getName());
-
-      final JDBCDriverShim driverShim = new JDBCDriverShim(jdbcDriverClass.newInstance());
-      try {
-        DBUtils.deregisterAllDrivers(jdbcDriverClass);
-      } catch (NoSuchFieldException | ClassNotFoundException e1) {
-        LOG.error("Unable to deregister JDBC Driver class {}", jdbcDriverClass);
-      }
-      DriverManager.registerDriver(driverShim);
-      return new DriverCleanup(driverShim);
-    }
+    LOG.debug("Plugin Name: {}; Driver Class: {}; using JDBC driver from registry {}.",
+              jdbcPluginName, jdbcDriverClass.getName(), DriverRegistry.class.getName());
+    return new DriverCleanup(jdbcDriverClass, DriverRegistry.acquire(jdbcDriverClass));
   }
 
   @Nullable
@@ -284,6 +275,42 @@ public final class DBUtils {
     return String.format("%s://%s:%s/%s.%s", dbType, host, port, db, tableName);
   }
 
+  /**
+   * Splits a comma-separated list of read replicas.
+   *
+   * @param readReplicas comma-separated list of read replicas, may be null
+   * @return the read replicas, empty if none
+   */
+  public static List<String> parseReadReplicas(@Nullable String readReplicas) {
+    if (Strings.isNullOrEmpty(readReplicas)) {
+      return Collections.emptyList();
+    }
+    return Lists.newArrayList(Splitter.on(',').trimResults().omitEmptyStrings().split(readReplicas));
+  }
+
+  /**
+   * Creates the connection strings of the read replicas from a comma-separated list of host names, each optionally
+   * followed by ':' and the port.
+   *
+   * @param connectionStringFormat format of the connection string, taking the host, the port and the database
+   * @param readReplicas comma-separated list of read replicas, may be null
+   * @param defaultPort port of the replicas for which it is not specified
+   * @param database database name
+   * @return the connection strings of the read replicas
+   */
+  public static List<String> createReplicaConnectionStrings(String connectionStringFormat,
+                                                            @Nullable String readReplicas,
+                                                            Integer defaultPort, String database) {
+    List<String> connectionStrings = new ArrayList<>();
+    for (String replica : parseReadReplicas(readReplicas)) {
+      int separator = replica.lastIndexOf(':');
+      String host = separator < 0 ? replica : replica.substring(0, separator);
+      String port = separator < 0 ? String.valueOf(defaultPort) : replica.substring(separator + 1);
+      connectionStrings.add(String.format(connectionStringFormat, host, port, database));
+    }
+    return connectionStrings;
+  }
+
   private DBUtils() {
     throw new AssertionError("Should not instantiate static utility class.");
   }
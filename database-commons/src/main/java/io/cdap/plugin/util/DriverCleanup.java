@@ -16,31 +16,35 @@
 
 package io.cdap.plugin.util;
 
-import com.google.common.base.Throwables;
 import io.cdap.cdap.etl.api.Destroyable;
-import io.cdap.plugin.db.JDBCDriverShim;
+import io.cdap.plugin.db.DriverRegistry;
 
-import java.sql.DriverManager;
-import java.sql.SQLException;
-import javax.annotation.Nullable;
+import java.sql.Driver;
 
 /**
- * class to de-register driver
+ * Releases a JDBC driver acquired from the {@link DriverRegistry}.
  */
 public class DriverCleanup implements Destroyable {
-  private final JDBCDriverShim driverShim;
+  private final Class<? extends Driver> driverClass;
+  private final Driver driver;
+  private boolean destroyed;
 
-  DriverCleanup(@Nullable JDBCDriverShim driverShim) {
-    this.driverShim = driverShim;
+  DriverCleanup(Class<? extends Driver> driverClass, Driver driver) {
+    this.driverClass = driverClass;
+    this.driver = driver;
   }
 
-  public void destroy() {
-    if (driverShim != null) {
-      try {
-        DriverManager.deregisterDriver(driverShim);
-      } catch (SQLException e) {
-        throw Throwables.propagate(e);
-      }
+  /**
+   * @return driver to open connections with until this cleanup is destroyed
+   */
+  public Driver getDriver() {
+    return driver;
+  }
+
+  public synchronized void destroy() {
+    if (!destroyed) {
+      destroyed = true;
+      DriverRegistry.release(driverClass);
     }
   }
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Test class for {@link ConnectionPool}.
+ */
+public class ConnectionPoolTest {
+  private static final String URL = "jdbc:pooltest://localhost/db";
+
+  private Driver driver;
+
+  @Before
+  public void setUp() throws SQLException {
+    driver = Mockito.mock(Driver.class);
+    Mockito.when(driver.connect(Mockito.eq(URL), Mockito.any())).thenAnswer(invocation -> {
+      Connection connection = Mockito.mock(Connection.class);
+      Mockito.when(connection.isValid(Mockito.anyInt())).thenReturn(true);
+      Mockito.when(connection.getAutoCommit()).thenReturn(true);
+      Mockito.when(connection.createStatement()).thenReturn(Mockito.mock(Statement.class));
+      return connection;
+    });
+  }
+
+  @Test
+  public void testConnectionIsReused() throws SQLException {
+    ConnectionPool pool = new ConnectionPool(4, 60000, 0);
+    Connection first = pool.borrow(driver, URL, getArguments("user"), Collections.emptyList());
+    first.close();
+    Assert.assertTrue(first.isClosed());
+    Assert.assertEquals(1, pool.getIdleCount());
+
+    Connection second = pool.borrow(driver, URL, getArguments("user"), Collections.emptyList());
+    Assert.assertEquals(0, pool.getIdleCount());
+    second.close();
+    Mockito.verify(driver, Mockito.times(1)).connect(Mockito.eq(URL), Mockito.any());
+
+    // connections opened with other credentials or init queries are not shared
+    pool.borrow(driver, URL, getArguments("other"), Collections.emptyList()).close();
+    pool.borrow(driver, URL, getArguments("user"), Collections.singletonList("SET x = 1")).close();
+    Mockito.verify(driver, Mockito.times(3)).connect(Mockito.eq(URL), Mockito.any());
+    Assert.assertEquals(3, pool.getIdleCount());
+  }
+
+  @Test
+  public void testStateIsResetOnRelease() throws SQLException {
+    ConnectionPool pool = new ConnectionPool(4, 60000, 0);
+    Connection connection = pool.borrow(driver, URL, getArguments("user"), Collections.emptyList());
+    Connection physical = ((ForwardingConnection) connection).getDelegate();
+    Mockito.when(physical.getAutoCommit()).thenReturn(false);
+    connection.close();
+
+    Mockito.verify(physical).rollback();
+    Mockito.verify(physical).setAutoCommit(true);
+    Mockito.verify(physical, Mockito.never()).close();
+    Assert.assertEquals(1, pool.getIdleCount());
+  }
+
+  @Test
+  public void testInvalidConnectionIsDiscarded() throws SQLException {
+    ConnectionPool pool = new ConnectionPool(4, 60000, 0);
+    Connection connection = pool.borrow(driver, URL, getArguments("user"), Collections.emptyList());
+    Connection physical = ((ForwardingConnection) connection).getDelegate();
+    connection.close();
+    Mockito.when(physical.isValid(Mockito.anyInt())).thenReturn(false);
+
+    connection = pool.borrow(driver, URL, getArguments("user"), Collections.emptyList());
+    Assert.assertNotSame(physical, ((ForwardingConnection) connection).getDelegate());
+    Mockito.verify(physical).close();
+    connection.close();
+  }
+
+  @Test
+  public void testIdleLimitAndEviction() throws SQLException {
+    ConnectionPool pool = new ConnectionPool(1, -60000, 0);
+    Connection first = pool.borrow(driver, URL, getArguments("user"), Collections.emptyList());
+    Connection second = pool.borrow(driver, URL, getArguments("user"), Collections.emptyList());
+    Connection firstPhysical = ((ForwardingConnection) first).getDelegate();
+    Connection secondPhysical = ((ForwardingConnection) second).getDelegate();
+    first.close();
+    second.close();
+    Mockito.verify(secondPhysical).close();
+
+    pool.evictIdleConnections();
+    Assert.assertEquals(0, pool.getIdleCount());
+    Mockito.verify(firstPhysical).close();
+  }
+
+  @Test
+  public void testConnectionIsReusedAfterDriverRelease() throws Exception {
+    // same sequence as a schema read: acquire the driver, borrow a connection, return it and release the driver
+    Driver first = DriverRegistry.acquire(PoolTestDriver.class);
+    Connection connection = ConnectionPool.getConnection(first, PoolTestDriver.URL, getArguments("user"));
+    Connection physical = ((ForwardingConnection) connection).getDelegate();
+    connection.close();
+    DriverRegistry.release(PoolTestDriver.class);
+    Mockito.verify(physical, Mockito.never()).close();
+
+    Driver second = DriverRegistry.acquire(PoolTestDriver.class);
+    connection = ConnectionPool.getConnection(second, PoolTestDriver.URL, getArguments("user"));
+    Assert.assertSame(physical, ((ForwardingConnection) connection).getDelegate());
+    connection.close();
+    DriverRegistry.release(PoolTestDriver.class);
+    Assert.assertEquals(1, PoolTestDriver.CONNECTIONS.get());
+  }
+
+  private static Properties getArguments(String user) {
+    Properties properties = new Properties();
+    properties.put("user", user);
+    properties.put("password", "secret");
+    return properties;
+  }
+
+  /**
+   * Driver that opens mock connections and counts them.
+   */
+  public static class PoolTestDriver implements Driver {
+    static final String URL = "jdbc:pooltestdriver://localhost/db";
+    static final AtomicInteger CONNECTIONS = new AtomicInteger();
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+      if (!acceptsURL(url)) {
+        return null;
+      }
+      CONNECTIONS.incrementAndGet();
+      Connection connection = Mockito.mock(Connection.class);
+      Mockito.when(connection.isValid(Mockito.anyInt())).thenReturn(true);
+      Mockito.when(connection.getAutoCommit()).thenReturn(true);
+      return connection;
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+      return URL.equals(url);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+      return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+      return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+      return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+      return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+      throw new SQLFeatureNotSupportedException();
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * Test class for {@link DriverRegistry}.
+ */
+public class DriverRegistryTest {
+
+  @Test
+  public void testDriverIsSharedUntilReleased() throws Exception {
+    Driver first = DriverRegistry.acquire(TestDriver.class);
+    Driver second = DriverRegistry.acquire(TestDriver.class);
+    Assert.assertSame(first, second);
+
+    DriverRegistry.release(TestDriver.class);
+    Assert.assertSame(first, DriverRegistry.acquire(TestDriver.class));
+    DriverRegistry.release(TestDriver.class);
+    DriverRegistry.release(TestDriver.class);
+
+    Driver third = DriverRegistry.acquire(TestDriver.class);
+    Assert.assertNotSame(first, third);
+    DriverRegistry.release(TestDriver.class);
+  }
+
+  @Test
+  public void testConnectWithUnsupportedConnectionString() throws Exception {
+    Driver driver = Mockito.mock(Driver.class);
+    Connection connection = Mockito.mock(Connection.class);
+    Mockito.when(driver.connect(Mockito.eq("jdbc:test:db"), Mockito.any())).thenReturn(connection);
+    Assert.assertSame(connection, DriverRegistry.connect(driver, "jdbc:test:db", new Properties()));
+
+    try {
+      DriverRegistry.connect(driver, "jdbc:other:db", new Properties());
+      Assert.fail("Expected connection to fail for a connection string the driver does not accept.");
+    } catch (SQLException e) {
+      Assert.assertEquals("08001", e.getSQLState());
+    }
+  }
+
+  /**
+   * Driver that does not accept any connection string.
+   */
+  public static class TestDriver implements Driver {
+
+    @Override
+    public Connection connect(String url, Properties info) {
+      return null;
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+      return false;
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+      return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+      return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+      return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+      return false;
+    }
+
+    @Override
+    public Logger getParentLogger() {
+      return Logger.getGlobal();
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db;
+
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Test class for {@link QueryMetadataReader}.
+ */
+public class QueryMetadataReaderTest {
+  private static final String QUERY = "SELECT id FROM t ORDER BY id";
+
+  @Test
+  public void testSchemaIsReadFromPreparedStatement() throws SQLException {
+    Connection connection = mockConnection("PostgreSQL");
+    PreparedStatement preparedStatement = Mockito.mock(PreparedStatement.class);
+    ResultSetMetaData metadata = mockMetadata();
+    Mockito.when(connection.prepareStatement(QUERY)).thenReturn(preparedStatement);
+    Mockito.when(preparedStatement.getMetaData()).thenReturn(metadata);
+
+    assertFields(QueryMetadataReader.getSchemaFields(connection, QUERY, new CommonSchemaReader(), null));
+    Mockito.verify(preparedStatement, Mockito.never()).executeQuery();
+    Mockito.verify(connection, Mockito.never()).createStatement();
+  }
+
+  @Test
+  public void testEmptyQueryIsUsedWithoutPreparedStatementMetadata() throws SQLException {
+    Connection connection = mockConnection("PostgreSQL");
+    PreparedStatement preparedStatement = Mockito.mock(PreparedStatement.class);
+    Mockito.when(connection.prepareStatement(QUERY)).thenReturn(preparedStatement);
+    Statement statement = mockStatement(connection);
+
+    assertFields(QueryMetadataReader.getSchemaFields(connection, QUERY, new CommonSchemaReader(), 10));
+    Mockito.verify(statement).executeQuery(QueryMetadataReader.getEmptyQuery(QUERY,
+                                                                             QueryMetadataReader.Mode.WHERE_FALSE));
+    Mockito.verify(statement).setQueryTimeout(10);
+  }
+
+  @Test
+  public void testQueryIsExecutedIfEmptyQueryFails() throws SQLException {
+    Connection connection = mockConnection("MySQL");
+    Statement statement = mockStatement(connection);
+    String emptyQuery = QueryMetadataReader.getEmptyQuery(QUERY, QueryMetadataReader.Mode.LIMIT_ZERO);
+    Mockito.when(statement.executeQuery(emptyQuery)).thenThrow(new SQLException("Syntax error"));
+
+    assertFields(QueryMetadataReader.getSchemaFields(connection, QUERY, new CommonSchemaReader(), null));
+    Mockito.verify(connection, Mockito.never()).prepareStatement(Mockito.anyString());
+    Mockito.verify(statement).executeQuery(emptyQuery);
+    Mockito.verify(statement).executeQuery(QUERY);
+    Mockito.verify(statement, Mockito.times(2)).setMaxRows(1);
+  }
+
+  @Test
+  public void testGetEmptyQuery() {
+    Assert.assertEquals("SELECT * FROM (SELECT * FROM t\n) schema_query WHERE 1 = 0",
+                        QueryMetadataReader.getEmptyQuery("SELECT * FROM t ; ", QueryMetadataReader.Mode.WHERE_FALSE));
+    Assert.assertEquals("SELECT * FROM (SELECT * FROM t -- comment\n) schema_query LIMIT 0",
+                        QueryMetadataReader.getEmptyQuery("SELECT * FROM t -- comment",
+                                                          QueryMetadataReader.Mode.LIMIT_ZERO));
+  }
+
+  @Test
+  public void testGetMode() throws SQLException {
+    Assert.assertEquals(QueryMetadataReader.Mode.PREPARED_STATEMENT,
+                        QueryMetadataReader.getMode(mockConnection("Microsoft SQL Server")));
+    Assert.assertEquals(QueryMetadataReader.Mode.LIMIT_ZERO,
+                        QueryMetadataReader.getMode(mockConnection("MariaDB")));
+    Assert.assertEquals(QueryMetadataReader.Mode.WHERE_FALSE,
+                        QueryMetadataReader.getMode(mockConnection("Unknown")));
+  }
+
+  private static Connection mockConnection(String productName) throws SQLException {
+    Connection connection = Mockito.mock(Connection.class);
+    DatabaseMetaData databaseMetaData = Mockito.mock(DatabaseMetaData.class);
+    Mockito.when(databaseMetaData.getDatabaseProductName()).thenReturn(productName);
+    Mockito.when(connection.getMetaData()).thenReturn(databaseMetaData);
+    Mockito.when(connection.getAutoCommit()).thenReturn(true);
+    return connection;
+  }
+
+  private static Statement mockStatement(Connection connection) throws SQLException {
+    Statement statement = Mockito.mock(Statement.class);
+    ResultSet resultSet = Mockito.mock(ResultSet.class);
+    ResultSetMetaData metadata = mockMetadata();
+    Mockito.when(resultSet.getMetaData()).thenReturn(metadata);
+    Mockito.when(statement.executeQuery(Mockito.anyString())).thenReturn(resultSet);
+    Mockito.when(connection.createStatement()).thenReturn(statement);
+    return statement;
+  }
+
+  private static ResultSetMetaData mockMetadata() throws SQLException {
+    ResultSetMetaData metadata = Mockito.mock(ResultSetMetaData.class);
+    Mockito.when(metadata.getColumnCount()).thenReturn(1);
+    Mockito.when(metadata.getColumnName(1)).thenReturn("id");
+    Mockito.when(metadata.getColumnType(1)).thenReturn(Types.BIGINT);
+    Mockito.when(metadata.isSigned(1)).thenReturn(true);
+    Mockito.when(metadata.isNullable(1)).thenReturn(ResultSetMetaData.columnNoNulls);
+    return metadata;
+  }
+
+  private static void assertFields(List<Schema.Field> fields) {
+    Assert.assertEquals(1, fields.size());
+    Assert.assertEquals("id", fields.get(0).getName());
+    Assert.assertEquals(Schema.of(Schema.Type.LONG), fields.get(0).getSchema());
+  }
+}
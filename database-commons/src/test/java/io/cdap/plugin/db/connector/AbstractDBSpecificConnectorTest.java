@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.connector;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.etl.api.connector.BrowseDetail;
+import io.cdap.cdap.etl.api.connector.BrowseEntity;
+import io.cdap.plugin.db.DBRecord;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.lib.db.DBWritable;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Test class for the catalog browsing of {@link AbstractDBSpecificConnector}.
+ */
+public class AbstractDBSpecificConnectorTest {
+  private static final String DATABASE = "db";
+  private static final String SCHEMA = "public";
+
+  private Connection connection;
+  private DatabaseMetaData metadata;
+  private TestConnector connector;
+
+  @Before
+  public void setUp() throws SQLException {
+    CatalogCache.invalidateAll();
+    connection = Mockito.mock(Connection.class);
+    metadata = Mockito.mock(DatabaseMetaData.class);
+    Mockito.when(connection.getMetaData()).thenReturn(metadata);
+    Mockito.when(metadata.getURL()).thenReturn("jdbc:test://localhost/db");
+
+    ResultSet catalogs = Mockito.mock(ResultSet.class);
+    Mockito.when(catalogs.next()).thenReturn(true, false);
+    Mockito.when(catalogs.getString("TABLE_CAT")).thenReturn(DATABASE);
+    Mockito.when(metadata.getCatalogs()).thenReturn(catalogs);
+
+    ResultSet schemas = Mockito.mock(ResultSet.class);
+    Mockito.when(schemas.next()).thenReturn(true);
+    Mockito.when(metadata.getSchemas(DATABASE, SCHEMA)).thenReturn(schemas);
+
+    Mockito.when(metadata.getTables(DATABASE, SCHEMA, null, null)).thenAnswer(invocation -> {
+      ResultSet tables = Mockito.mock(ResultSet.class);
+      Mockito.when(tables.next()).thenReturn(true, true, true, false);
+      Mockito.when(tables.getString("TABLE_NAME")).thenReturn("a", "b", "c");
+      Mockito.when(tables.getString("TABLE_TYPE")).thenReturn("TABLE", "TABLE", "VIEW");
+      return tables;
+    });
+    connector = new TestConnector();
+  }
+
+  @Test
+  public void testTablesAreListedFromCache() throws SQLException {
+    BrowseDetail detail = connector.listTables(connection, DATABASE, SCHEMA, 2);
+    Assert.assertEquals(3, detail.getTotalCount());
+    Assert.assertEquals(2, detail.getEntities().size());
+    BrowseEntity entity = detail.getEntities().get(1);
+    Assert.assertEquals("b", entity.getName());
+    Assert.assertEquals("/db/public/b", entity.getPath());
+    Assert.assertEquals("table", entity.getType());
+
+    detail = connector.listTables(connection, DATABASE, SCHEMA, Integer.MAX_VALUE);
+    Assert.assertEquals(3, detail.getEntities().size());
+
+    detail = connector.getTableDetail(connection, DATABASE, SCHEMA, "c");
+    Assert.assertEquals(1, detail.getTotalCount());
+    Assert.assertEquals("VIEW", detail.getEntities().get(0).getType());
+
+    Mockito.verify(metadata, Mockito.times(1)).getTables(DATABASE, SCHEMA, null, null);
+    Mockito.verify(metadata, Mockito.times(1)).getCatalogs();
+  }
+
+  @Test
+  public void testUnknownDatabaseIsNotCached() throws SQLException {
+    try {
+      connector.listTables(connection, "other", SCHEMA, Integer.MAX_VALUE);
+      Assert.fail("Expected listing the tables of an unknown database to fail.");
+    } catch (IllegalArgumentException e) {
+      Assert.assertEquals("Database other does not exist.", e.getMessage());
+    }
+    Mockito.verify(metadata, Mockito.never()).getTables(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+  }
+
+  /**
+   * Connector for a database with schemas.
+   */
+  private static class TestConnector extends AbstractDBSpecificConnector<DBRecord> {
+
+    TestConnector() {
+      super(new AbstractDBConnectorConfig() {
+        @Override
+        public String getConnectionString() {
+          return "jdbc:test://localhost/db";
+        }
+      });
+    }
+
+    @Override
+    public boolean supportSchema() {
+      return true;
+    }
+
+    @Override
+    protected Class<? extends DBWritable> getDBRecordType() {
+      return DBRecord.class;
+    }
+
+    @Override
+    public StructuredRecord transform(LongWritable key, DBRecord record) {
+      return record.getRecord();
+    }
+  }
+}
@@ -22,7 +22,10 @@ import com.mockrunner.mock.jdbc.MockResultSetMetaData;
 import io.cdap.plugin.db.ColumnType;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.Mockito;
 
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -202,4 +205,23 @@ public class AbstractDBSinkTest {
       Assert.assertTrue(expectedColumns.contains(acColType));
     }
   }
+
+  @Test
+  public void testStoredIdentifierFollowsCatalogCase() throws SQLException {
+    DatabaseMetaData upperCase = Mockito.mock(DatabaseMetaData.class);
+    Mockito.when(upperCase.getIdentifierQuoteString()).thenReturn("\"");
+    Mockito.when(upperCase.storesUpperCaseIdentifiers()).thenReturn(true);
+    Assert.assertEquals("ORDERS", AbstractDBSink.getStoredIdentifier(upperCase, "orders"));
+    Assert.assertEquals("orders", AbstractDBSink.getStoredIdentifier(upperCase, "\"orders\""));
+    Assert.assertNull(AbstractDBSink.getStoredIdentifier(upperCase, null));
+
+    DatabaseMetaData lowerCase = Mockito.mock(DatabaseMetaData.class);
+    Mockito.when(lowerCase.getIdentifierQuoteString()).thenReturn("\"");
+    Mockito.when(lowerCase.storesLowerCaseIdentifiers()).thenReturn(true);
+    Assert.assertEquals("orders", AbstractDBSink.getStoredIdentifier(lowerCase, "Orders"));
+
+    DatabaseMetaData mixedCase = Mockito.mock(DatabaseMetaData.class);
+    Mockito.when(mixedCase.getIdentifierQuoteString()).thenReturn("`");
+    Assert.assertEquals("Orders", AbstractDBSink.getStoredIdentifier(mixedCase, "Orders"));
+  }
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.sink;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class for {@link AdaptiveBatchSizer}.
+ */
+public class AdaptiveBatchSizerTest {
+
+  @Test
+  public void testGrowsWhenBatchesAreFast() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(1000, 1000, 50000, Long.MAX_VALUE);
+    // 1000 rows in 100ms, target is 1 second
+    sizer.update(1000, 1000, TimeUnit.MILLISECONDS.toNanos(100));
+    Assert.assertEquals(2000, sizer.getBatchSize());
+    for (int i = 0; i < 10; i++) {
+      int rows = sizer.getBatchSize();
+      sizer.update(rows, rows, TimeUnit.MILLISECONDS.toNanos(rows / 10));
+    }
+    Assert.assertEquals(10000, sizer.getBatchSize());
+  }
+
+  @Test
+  public void testShrinksWhenBatchesAreSlow() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(1000, 1000, 50000, Long.MAX_VALUE);
+    sizer.update(1000, 1000, TimeUnit.SECONDS.toNanos(10));
+    Assert.assertEquals(500, sizer.getBatchSize());
+  }
+
+  @Test
+  public void testHardCaps() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100000, 1000, 5000, 1024 * 1024);
+    Assert.assertEquals(5000, sizer.getBatchSize());
+    Assert.assertTrue(sizer.isFull(10, 1024 * 1024));
+    Assert.assertFalse(sizer.isFull(10, 1024));
+
+    // 1kb rows, so at most 1024 rows fit into the byte cap
+    for (int i = 0; i < 10; i++) {
+      int rows = sizer.getBatchSize();
+      sizer.update(rows, rows * 1024L, 1);
+    }
+    Assert.assertEquals(1024, sizer.getBatchSize());
+
+    sizer.update(1, 10L * 1024 * 1024, TimeUnit.SECONDS.toNanos(100));
+    Assert.assertTrue(sizer.getBatchSize() >= AdaptiveBatchSizer.MIN_BATCH_SIZE);
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.sink;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.lib.db.DBWritable;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.annotation.Nullable;
+
+/**
+ * Test class for {@link ETLDBRecordWriter}.
+ */
+public class ETLDBRecordWriterTest {
+  private static final int BAD_VALUE = -1;
+
+  @Test
+  public void testFailedBatchIsBisected() throws Exception {
+    FakeConnection db = new FakeConnection(null);
+    ETLDBRecordWriter<IntRecord, Void> writer = createWriter(getConf(10, 2), db);
+    for (int i = 0; i < 25; i++) {
+      writer.write(new IntRecord(i == 3 || i == 17 ? BAD_VALUE : i), null);
+    }
+    writer.close(null);
+
+    Assert.assertEquals(2, writer.getNumErrorRecords());
+    Assert.assertEquals(23, db.written.size());
+    Assert.assertFalse(db.written.contains(BAD_VALUE));
+    Mockito.verify(db.connection).commit();
+  }
+
+  @Test
+  public void testErrorBudgetExceeded() throws Exception {
+    FakeConnection db = new FakeConnection(null);
+    ETLDBRecordWriter<IntRecord, Void> writer = createWriter(getConf(10, 1), db);
+    for (int i = 0; i < 10; i++) {
+      writer.write(new IntRecord(i == 3 ? BAD_VALUE : i), null);
+    }
+    try {
+      writer.write(new IntRecord(BAD_VALUE), null);
+      writer.close(null);
+      Assert.fail("Expected the error budget to be exceeded");
+    } catch (IOException e) {
+      Assert.assertEquals("23505", ((SQLException) e.getCause()).getSQLState());
+    }
+    Mockito.verify(db.connection).rollback();
+    Mockito.verify(db.connection, Mockito.never()).commit();
+  }
+
+  @Test
+  public void testFailFastByDefault() throws Exception {
+    FakeConnection db = new FakeConnection(null);
+    ETLDBRecordWriter<IntRecord, Void> writer = createWriter(getConf(2, 0), db);
+    writer.write(new IntRecord(1), null);
+    try {
+      writer.write(new IntRecord(BAD_VALUE), null);
+      Assert.fail("Expected the failed batch to fail the writer");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getCause() instanceof BatchUpdateException);
+    }
+    Mockito.verify(db.connection, Mockito.never()).setSavepoint();
+  }
+
+  @Test
+  public void testTransactionIsReplayedAfterConnectionLoss() throws Exception {
+    FakeConnection lost = new FakeConnection(new SQLException("connection reset", "08006"));
+    FakeConnection recovered = new FakeConnection(null);
+    Configuration conf = getConf(10, 0);
+    conf.setInt(ETLDBOutputFormat.MAX_RETRIES, 1);
+    conf.setLong(ETLDBOutputFormat.RETRY_BACKOFF_MS, 1);
+    ETLDBRecordWriter<IntRecord, Void> writer = createWriter(conf, lost, recovered);
+    for (int i = 0; i < 25; i++) {
+      writer.write(new IntRecord(i), null);
+    }
+    writer.close(null);
+
+    Assert.assertEquals(IntStream.range(0, 25).boxed().collect(Collectors.toList()), recovered.written);
+    Mockito.verify(lost.connection).close();
+    Mockito.verify(lost.connection, Mockito.never()).commit();
+    Mockito.verify(recovered.connection).commit();
+  }
+
+  @Test
+  public void testDeadlockedBatchIsSplit() throws Exception {
+    FakeConnection deadlocked = new FakeConnection(new SQLException("deadlock detected", "40P01"));
+    FakeConnection recovered = new FakeConnection(null);
+    Configuration conf = getConf(10, 0);
+    conf.setInt(ETLDBOutputFormat.MAX_RETRIES, 1);
+    conf.setLong(ETLDBOutputFormat.RETRY_BACKOFF_MS, 1);
+    conf.setBoolean(ETLDBOutputFormat.SPLIT_ON_DEADLOCK, true);
+    ETLDBRecordWriter<IntRecord, Void> writer = createWriter(conf, deadlocked, recovered);
+    for (int i = 0; i < 20; i++) {
+      writer.write(new IntRecord(i), null);
+    }
+    writer.close(null);
+
+    Assert.assertEquals(20, recovered.written.size());
+    // first batch is replayed as a whole, the deadlocked batch in two halves
+    Mockito.verify(recovered.statement, Mockito.times(3)).executeBatch();
+  }
+
+  @Test
+  public void testNonTransientErrorIsNotRetried() throws Exception {
+    FakeConnection db = new FakeConnection(null);
+    Configuration conf = getConf(2, 0);
+    conf.setInt(ETLDBOutputFormat.MAX_RETRIES, 3);
+    ETLDBRecordWriter<IntRecord, Void> writer = createWriter(conf, db);
+    writer.write(new IntRecord(1), null);
+    try {
+      writer.write(new IntRecord(BAD_VALUE), null);
+      Assert.fail("Expected the failed batch to fail the writer");
+    } catch (IOException e) {
+      Assert.assertEquals("23505", ((SQLException) e.getCause()).getSQLState());
+    }
+    Mockito.verify(db.connection, Mockito.never()).close();
+  }
+
+  private static ETLDBRecordWriter<IntRecord, Void> createWriter(Configuration conf,
+                                                                FakeConnection... connections) throws SQLException {
+    Iterator<FakeConnection> iterator = Arrays.asList(connections).iterator();
+    return new ETLDBRecordWriter<>(() -> iterator.next().connection, "INSERT INTO t VALUES (?)", conf);
+  }
+
+  private static Configuration getConf(int batchSize, int maxErrorRecords) {
+    Configuration conf = new Configuration(false);
+    conf.setInt(ETLDBOutputFormat.COMMIT_BATCH_SIZE, batchSize);
+    conf.setInt(ETLDBOutputFormat.MAX_ERROR_RECORDS, maxErrorRecords);
+    return conf;
+  }
+
+  /**
+   * Mocked connection that keeps the values written by a statement with a single integer parameter.
+   * A batch fails if it contains a bad value.
+   */
+  private static class FakeConnection {
+    private final List<Integer> written = new ArrayList<>();
+    private final Connection connection = Mockito.mock(Connection.class);
+    private final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+
+    /**
+     * @param transientError error to fail the second batch with, if any
+     */
+    FakeConnection(@Nullable SQLException transientError) throws SQLException {
+      List<Integer> bound = new ArrayList<>();
+      List<Integer> batch = new ArrayList<>();
+      Mockito.when(connection.setSavepoint()).thenReturn(Mockito.mock(Savepoint.class));
+      Mockito.when(connection.prepareStatement(Mockito.anyString())).thenReturn(statement);
+      Mockito.doAnswer(invocation -> bound.add(invocation.getArgument(1)))
+        .when(statement).setInt(Mockito.eq(1), Mockito.anyInt());
+      Mockito.doAnswer(invocation -> {
+        batch.addAll(bound);
+        bound.clear();
+        return null;
+      }).when(statement).addBatch();
+      Mockito.doAnswer(invocation -> {
+        batch.clear();
+        return null;
+      }).when(statement).clearBatch();
+      Mockito.when(statement.executeBatch()).thenAnswer(invocation -> {
+        if (transientError != null && !written.isEmpty()) {
+          throw transientError;
+        }
+        if (batch.contains(BAD_VALUE)) {
+          throw new BatchUpdateException("duplicate key", "23505", 0, new int[0]);
+        }
+        written.addAll(batch);
+        int[] result = new int[batch.size()];
+        batch.clear();
+        return result;
+      });
+    }
+  }
+
+  /**
+   * Record with a single integer column.
+   */
+  private static class IntRecord implements DBWritable {
+    private final int value;
+
+    IntRecord(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public void write(PreparedStatement statement) throws SQLException {
+      statement.setInt(1, value);
+    }
+
+    @Override
+    public void readFields(ResultSet resultSet) {
+      // not used
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.sink;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.db.DBRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Test class for {@link PrimaryKeyComparator}.
+ */
+public class PrimaryKeyComparatorTest {
+  private static final Schema SCHEMA = Schema.recordOf(
+    "record",
+    Schema.Field.of("region", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("amount", Schema.decimalOf(10, 2)),
+    Schema.Field.of("name", Schema.of(Schema.Type.STRING)));
+
+  @Test
+  public void testCompositeKey() {
+    List<DBRecord> records = new ArrayList<>(Arrays.asList(
+      createRecord("us", "100.00", "a"),
+      createRecord("eu", "-5.50", "b"),
+      createRecord(null, "7.00", "c"),
+      createRecord("eu", "20.00", "d"),
+      createRecord("us", "9.99", "e")));
+
+    records.sort(new PrimaryKeyComparator(Arrays.asList("region", "amount")));
+    Assert.assertEquals(Arrays.asList("c", "b", "d", "e", "a"), getNames(records));
+  }
+
+  @Test
+  public void testStableForEqualKeys() {
+    List<DBRecord> records = new ArrayList<>(Arrays.asList(
+      createRecord("us", "1.00", "a"),
+      createRecord("us", "1.00", "b"),
+      createRecord("eu", "1.00", "c")));
+
+    records.sort(new PrimaryKeyComparator(Collections.singletonList("region")));
+    Assert.assertEquals(Arrays.asList("c", "a", "b"), getNames(records));
+  }
+
+  private static DBRecord createRecord(String region, String amount, String name) {
+    StructuredRecord record = StructuredRecord.builder(SCHEMA)
+      .set("region", region)
+      .setDecimal("amount", new BigDecimal(amount))
+      .set("name", name)
+      .build();
+    return new DBRecord(record, Collections.emptyList());
+  }
+
+  private static List<String> getNames(List<DBRecord> records) {
+    return records.stream().map(record -> record.getRecord().<String>get("name")).collect(Collectors.toList());
+  }
+}
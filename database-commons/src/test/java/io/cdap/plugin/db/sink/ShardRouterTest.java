@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.sink;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.db.DBRecord;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Test class for {@link ShardRouter} and {@link ShardedRecordWriter}.
+ */
+public class ShardRouterTest {
+  private static final Schema SCHEMA = Schema.recordOf(
+    "record",
+    Schema.Field.of("id", Schema.nullableOf(Schema.of(Schema.Type.LONG))),
+    Schema.Field.of("region", Schema.of(Schema.Type.STRING)));
+
+  @Test
+  public void testHashRouting() {
+    ShardRouter router = new ShardRouter("id", null, null, 4);
+    Set<Integer> shards = new HashSet<>();
+    for (long id = 0; id < 100; id++) {
+      int shard = router.getShard(createRecord(id, "us"));
+      Assert.assertEquals(shard, router.getShard(createRecord(id, "eu")));
+      shards.add(shard);
+    }
+    Assert.assertEquals(4, shards.size());
+    Assert.assertEquals(0, router.getShard(createRecord(null, "us")));
+  }
+
+  @Test
+  public void testRangeRouting() {
+    ShardRouter router = new ShardRouter("id", "range", "100, 200", 3);
+    Assert.assertEquals(0, router.getShard(createRecord(-5L, "us")));
+    Assert.assertEquals(0, router.getShard(createRecord(99L, "us")));
+    Assert.assertEquals(1, router.getShard(createRecord(100L, "us")));
+    Assert.assertEquals(2, router.getShard(createRecord(200L, "us")));
+    Assert.assertEquals(2, router.getShard(createRecord(1000L, "us")));
+  }
+
+  @Test
+  public void testLookupRouting() {
+    ShardRouter router = new ShardRouter("region", "LOOKUP", "us:0,eu:1,apac:1", 2);
+    Assert.assertEquals(0, router.getShard(createRecord(1L, "us")));
+    Assert.assertEquals(1, router.getShard(createRecord(1L, "apac")));
+    try {
+      router.getShard(createRecord(1L, "latam"));
+      Assert.fail("Expected a key without a shard to fail.");
+    } catch (IllegalArgumentException e) {
+      Assert.assertEquals("No shard is mapped to value 'latam' of shard key 'region'.", e.getMessage());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRangeMap() {
+    new ShardRouter("id", "range", "100", 3);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidLookupShard() {
+    new ShardRouter("region", "lookup", "us:2", 2);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testRecordsAreWrittenToTheirShard() throws IOException, InterruptedException {
+    List<RecordWriter<DBRecord, Void>> writers = new ArrayList<>();
+    ShardedRecordWriter<DBRecord, Void> writer = new ShardedRecordWriter<>(
+      new ShardRouter("region", "lookup", "us:0,eu:2", 3), shard -> {
+        RecordWriter<DBRecord, Void> shardWriter = Mockito.mock(RecordWriter.class);
+        writers.add(shardWriter);
+        return shardWriter;
+      }, 3);
+
+    DBRecord us = createRecord(1L, "us");
+    DBRecord eu = createRecord(2L, "eu");
+    writer.write(us, null);
+    writer.write(eu, null);
+    writer.write(us, null);
+    // shard 1 has no records, so no writer is opened for it
+    Assert.assertEquals(2, writers.size());
+    Mockito.verify(writers.get(0), Mockito.times(2)).write(us, null);
+    Mockito.verify(writers.get(1)).write(eu, null);
+
+    Mockito.doThrow(new IOException("commit failed")).when(writers.get(0)).close(null);
+    try {
+      writer.close(null);
+      Assert.fail("Expected the failure of a shard to fail the writer.");
+    } catch (IOException e) {
+      Assert.assertEquals("commit failed", e.getMessage());
+    }
+    // the other shards are still closed
+    Mockito.verify(writers.get(1)).close(null);
+  }
+
+  private static DBRecord createRecord(Long id, String region) {
+    StructuredRecord record = StructuredRecord.builder(SCHEMA)
+      .set("id", id)
+      .set("region", region)
+      .build();
+    return new DBRecord(record, Collections.emptyList());
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.sink;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import javax.sql.rowset.serial.SerialBlob;
+
+/**
+ * Test class for {@link SizeTrackingPreparedStatement}.
+ */
+public class SizeTrackingPreparedStatementTest {
+
+  @Test
+  public void testTracksBoundParameters() throws SQLException {
+    PreparedStatement delegate = Mockito.mock(PreparedStatement.class);
+    SizeTrackingPreparedStatement statement = new SizeTrackingPreparedStatement(delegate);
+
+    statement.setString(1, "abcdefghij");
+    statement.setBlob(2, new SerialBlob(new byte[100]));
+    statement.setInt(3, 1);
+    statement.addBatch();
+    Assert.assertEquals(110 + SizeTrackingPreparedStatement.FIXED_WIDTH_SIZE, statement.getBatchBytes());
+
+    // rebinding a parameter replaces its size, parameters that are not rebound keep their previous value
+    statement.setString(1, "abc");
+    statement.setNull(2, Types.BLOB);
+    statement.addBatch();
+    Assert.assertEquals(110 + 3 + 2 * SizeTrackingPreparedStatement.FIXED_WIDTH_SIZE, statement.getBatchBytes());
+
+    statement.executeBatch();
+    Assert.assertEquals(0, statement.getBatchBytes());
+    Mockito.verify(delegate, Mockito.times(2)).addBatch();
+    Mockito.verify(delegate).executeBatch();
+
+    statement.setObject(1, new byte[50]);
+    statement.setBigDecimal(2, BigDecimal.valueOf(Long.MAX_VALUE));
+    statement.addBatch();
+    Assert.assertEquals(50 + 8 + SizeTrackingPreparedStatement.FIXED_WIDTH_SIZE, statement.getBatchBytes());
+
+    statement.clearParameters();
+    statement.clearBatch();
+    statement.setBytes(1, new byte[20]);
+    statement.addBatch();
+    Assert.assertEquals(20, statement.getBatchBytes());
+  }
+}
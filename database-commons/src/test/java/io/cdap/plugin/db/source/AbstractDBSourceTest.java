@@ -22,13 +22,20 @@ import io.cdap.cdap.etl.api.validation.ValidationFailure;
 import io.cdap.cdap.etl.mock.validation.MockFailureCollector;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 
 /**
- * Test class for source schema validation.
+ * Test class for source schema validation and consistent snapshots.
  */
 public class AbstractDBSourceTest {
   private static final String MOCK_STAGE = "mockStage";
@@ -44,6 +51,61 @@ public class AbstractDBSourceTest {
     Schema.Field.of("boolean_column", Schema.nullableOf(Schema.of(Schema.Type.BOOLEAN)))
   );
 
+  @Test
+  public void testSplitStatisticsAreRecordedForNumericSplitBy() {
+    String query = "SELECT * FROM my_table WHERE $CONDITIONS";
+    Assert.assertNull(AbstractDBSource.getUnrecordedSplitStatisticsReason(query, "ID", SCHEMA));
+    Assert.assertNull(AbstractDBSource.getUnrecordedSplitStatisticsReason(query, "t.\"long_column\"", SCHEMA));
+    Schema decimalSchema = Schema.recordOf("schema", Schema.Field.of("amount", Schema.decimalOf(10, 2)));
+    Assert.assertNull(AbstractDBSource.getUnrecordedSplitStatisticsReason(query, "amount", decimalSchema));
+    // an expression is not checked against the schema
+    Assert.assertNull(AbstractDBSource.getUnrecordedSplitStatisticsReason(query, "MOD(id, 10)", SCHEMA));
+  }
+
+  @Test
+  public void testSplitStatisticsAreNotRecordedForUnparameterizedSplits() {
+    Assert.assertNotNull(AbstractDBSource.getUnrecordedSplitStatisticsReason(
+      "SELECT * FROM my_table WHERE string_column <> '?' AND $CONDITIONS", "id", SCHEMA));
+    Assert.assertNotNull(AbstractDBSource.getUnrecordedSplitStatisticsReason(
+      "SELECT * FROM my_table WHERE $CONDITIONS", "string_column", SCHEMA));
+    Assert.assertNotNull(AbstractDBSource.getUnrecordedSplitStatisticsReason(
+      "SELECT * FROM my_table WHERE $CONDITIONS", "double_column", SCHEMA));
+  }
+
+  @Test
+  public void testSnapshotIsTakenAfterInitQueries() throws SQLException {
+    Statement statement = Mockito.mock(Statement.class);
+    Connection connection = Mockito.mock(Connection.class);
+    Mockito.when(connection.createStatement()).thenReturn(statement);
+    AbstractDBSource.Snapshot snapshot = Mockito.mock(AbstractDBSource.Snapshot.class);
+    Mockito.when(snapshot.take(connection)).thenReturn(Collections.singletonList("SET SNAPSHOT 1"));
+
+    List<String> snapshotQueries = AbstractDBSource.takeSnapshot(connection, Arrays.asList("SET a", "SET b"),
+                                                                 snapshot);
+    Assert.assertEquals(Collections.singletonList("SET SNAPSHOT 1"), snapshotQueries);
+    InOrder inOrder = Mockito.inOrder(statement, snapshot);
+    inOrder.verify(statement).execute("SET a");
+    inOrder.verify(statement).execute("SET b");
+    inOrder.verify(snapshot).take(connection);
+  }
+
+  @Test
+  public void testSnapshotIsNotHeldByDefault() {
+    AbstractDBSource.Snapshot snapshot = connection -> Collections.singletonList("SET SNAPSHOT 1");
+    // the connection that took the snapshot is closed right away, unless the snapshot needs it
+    Assert.assertFalse(snapshot.isHeld());
+  }
+
+  @Test
+  public void testSplitsReadSnapshotBeforeInitQueries() {
+    Assert.assertEquals(Arrays.asList("SET SNAPSHOT 1", "SET a", "SET b"),
+                        AbstractDBSource.getSnapshotInitQueries(Collections.singletonList("SET SNAPSHOT 1"),
+                                                                Arrays.asList("SET a", "SET b")));
+    Assert.assertEquals(Collections.singletonList("SET SNAPSHOT 1"),
+                        AbstractDBSource.getSnapshotInitQueries(Collections.singletonList("SET SNAPSHOT 1"),
+                                                                Collections.emptyList()));
+  }
+
   @Test
   public void testValidateSourceSchemaCorrectSchema() {
     MockFailureCollector collector = new MockFailureCollector(MOCK_STAGE);
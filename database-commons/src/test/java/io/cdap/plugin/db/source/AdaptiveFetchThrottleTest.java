@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.source;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class for {@link AdaptiveFetchThrottle}.
+ */
+public class AdaptiveFetchThrottleTest {
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  public void testRateIsLimitedOnHighLatency() {
+    AdaptiveFetchThrottle throttle = new AdaptiveFetchThrottle(100, 500, null, 0, 0, () -> {
+      throw new SQLException("not used");
+    });
+    // 100 rows per second, below the target latency
+    Assert.assertEquals(0, throttle.update(SECOND / 10, SECOND, false));
+    Assert.assertEquals(0d, throttle.getRate(), 0d);
+
+    // the rate is halved, so the next window of 100 rows takes 2 seconds
+    Assert.assertEquals(1000, throttle.update(SECOND, SECOND, false));
+    Assert.assertEquals(50d, throttle.getRate(), 0.01d);
+    Assert.assertEquals(2500, throttle.update(SECOND, SECOND + SECOND / 2, false));
+    Assert.assertEquals(25d, throttle.getRate(), 0.01d);
+
+    // the rate is raised by 5% of the initial rate after every window that is not overloaded
+    throttle.update(SECOND / 10, SECOND, false);
+    Assert.assertEquals(30d, throttle.getRate(), 0.01d);
+    throttle.update(SECOND / 10, SECOND, false);
+    Assert.assertEquals(35d, throttle.getRate(), 0.01d);
+  }
+
+  @Test
+  public void testRateIsLimitedOnHealthQuery() throws Exception {
+    ResultSet resultSet = Mockito.mock(ResultSet.class);
+    Mockito.when(resultSet.next()).thenReturn(true);
+    Mockito.when(resultSet.getDouble(1)).thenReturn(80d, 20d);
+    Statement statement = Mockito.mock(Statement.class);
+    Mockito.when(statement.executeQuery("SELECT active_sessions")).thenReturn(resultSet);
+    Connection connection = Mockito.mock(Connection.class);
+    Mockito.when(connection.createStatement()).thenReturn(statement);
+    Mockito.when(connection.getAutoCommit()).thenReturn(true);
+
+    AdaptiveFetchThrottle throttle = new AdaptiveFetchThrottle(1, 0, "SELECT active_sessions", 50, 0,
+                                                               () -> connection);
+    throttle.fetched(0);
+    Assert.assertTrue(throttle.getRate() > 0);
+    double rate = throttle.getRate();
+    throttle.fetched(0);
+    Assert.assertTrue(throttle.getRate() > rate);
+
+    throttle.close();
+    Mockito.verify(statement, Mockito.times(2)).executeQuery("SELECT active_sessions");
+    Mockito.verify(connection).close();
+  }
+
+  @Test
+  public void testHealthQueryFailureDoesNotLimitRate() throws Exception {
+    AdaptiveFetchThrottle throttle = new AdaptiveFetchThrottle(1, 0, "SELECT active_sessions", 50, 0, () -> {
+      throw new SQLException("connection refused");
+    });
+    throttle.fetched(0);
+    throttle.fetched(0);
+    Assert.assertEquals(0d, throttle.getRate(), 0d);
+  }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.source;
+
+import io.cdap.plugin.db.ConnectionConfigAccessor;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.MRJobConfig;
+import org.apache.hadoop.mapreduce.lib.db.DBConfiguration;
+import org.apache.hadoop.mapreduce.lib.db.DBInputFormat;
+import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Test class for the split generation and replica selection of {@link DataDrivenETLDBInputFormat}.
+ */
+public class DataDrivenETLDBInputFormatTest {
+
+  @Test
+  public void testIntegerSplitsUseParameters() throws SQLException {
+    List<InputSplit> splits = split(Types.INTEGER, "0", "100", 2);
+    Assert.assertEquals(2, splits.size());
+    for (InputSplit split : splits) {
+      DataDrivenETLDBInputFormat.ParameterizedInputSplit parameterizedSplit =
+        (DataDrivenETLDBInputFormat.ParameterizedInputSplit) split;
+      Assert.assertEquals("id >= ?", parameterizedSplit.getLowerClause());
+    }
+    Assert.assertEquals("id < ?", ((DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(0)).getUpperClause());
+    Assert.assertEquals("id <= ?", ((DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(1)).getUpperClause());
+
+    PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+    Assert.assertEquals(3, ((DataDrivenETLDBInputFormat.ParameterizedInputSplit) splits.get(1)).bind(statement, 1));
+    Mockito.verify(statement).setObject(1, 50L, Types.INTEGER);
+    Mockito.verify(statement).setObject(2, 100L, Types.INTEGER);
+  }
+
+  @Test
+  public void testQueryWithQuestionMarkUsesLiteralBounds() throws SQLException {
+    List<InputSplit> splits = split(Types.INTEGER, "0", "100", 2,
+                                    "SELECT * FROM docs WHERE data ? 'key' AND $CONDITIONS");
+    Assert.assertEquals(2, splits.size());
+    for (InputSplit split : splits) {
+      Assert.assertFalse(split instanceof DataDrivenETLDBInputFormat.ParameterizedInputSplit);
+    }
+    Assert.assertEquals("id >= 50", ((DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(1)).getLowerClause());
+  }
+
+  @Test
+  public void testNullSplitIsNotParameterized() throws SQLException {
+    List<InputSplit> splits = split(Types.BIGINT, "0", null, 2);
+    InputSplit last = splits.get(splits.size() - 1);
+    Assert.assertFalse(last instanceof DataDrivenETLDBInputFormat.ParameterizedInputSplit);
+    Assert.assertEquals("id IS NULL", ((DataDrivenDBInputFormat.DataDrivenDBInputSplit) last).getLowerClause());
+  }
+
+  @Test
+  public void testSplitSerialization() throws SQLException, IOException {
+    DataDrivenETLDBInputFormat.ParameterizedInputSplit split =
+      (DataDrivenETLDBInputFormat.ParameterizedInputSplit) split(Types.DECIMAL, "1.5", "10.5", 1).get(0);
+    DataOutputBuffer output = new DataOutputBuffer();
+    split.write(output);
+    DataInputBuffer input = new DataInputBuffer();
+    input.reset(output.getData(), output.getLength());
+    DataDrivenETLDBInputFormat.ParameterizedInputSplit copy = new DataDrivenETLDBInputFormat.ParameterizedInputSplit();
+    copy.readFields(input);
+
+    Assert.assertEquals(split.getLowerClause(), copy.getLowerClause());
+    Assert.assertEquals(split.getUpperClause(), copy.getUpperClause());
+    PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+    copy.bind(statement, 1);
+    Mockito.verify(statement).setObject(1, new BigDecimal("1.5"), Types.DECIMAL);
+    Mockito.verify(statement).setObject(2, new BigDecimal("10.5"), Types.DECIMAL);
+  }
+
+  @Test
+  public void testShardSplitSerialization() throws SQLException, IOException {
+    DataDrivenETLDBInputFormat.ShardInputSplit split = new DataDrivenETLDBInputFormat.ShardInputSplit(
+      "jdbc:test://shard1/db", (DBInputFormat.DBInputSplit) split(Types.INTEGER, "0", "100", 1).get(0));
+    DataOutputBuffer output = new DataOutputBuffer();
+    split.write(output);
+    DataInputBuffer input = new DataInputBuffer();
+    input.reset(output.getData(), output.getLength());
+    DataDrivenETLDBInputFormat.ShardInputSplit copy = new DataDrivenETLDBInputFormat.ShardInputSplit();
+    copy.readFields(input);
+
+    Assert.assertEquals("jdbc:test://shard1/db", copy.getConnectionString());
+    DataDrivenETLDBInputFormat.ParameterizedInputSplit copySplit =
+      (DataDrivenETLDBInputFormat.ParameterizedInputSplit) copy.getSplit();
+    Assert.assertEquals("id >= ?", copySplit.getLowerClause());
+    Assert.assertEquals("id <= ?", copySplit.getUpperClause());
+  }
+
+  @Test
+  public void testShardSplitsAreInterleaved() {
+    InputSplit a1 = new DataDrivenDBInputFormat.DataDrivenDBInputSplit("a1", "a1");
+    InputSplit a2 = new DataDrivenDBInputFormat.DataDrivenDBInputSplit("a2", "a2");
+    InputSplit a3 = new DataDrivenDBInputFormat.DataDrivenDBInputSplit("a3", "a3");
+    InputSplit b1 = new DataDrivenDBInputFormat.DataDrivenDBInputSplit("b1", "b1");
+    Assert.assertEquals(Arrays.asList(a1, b1, a2, a3),
+                        DataDrivenETLDBInputFormat.interleave(Arrays.asList(Arrays.asList(a1, a2, a3),
+                                                                            Collections.singletonList(b1))));
+  }
+
+  @Test
+  public void testSplitsAreGrouped() throws IOException {
+    List<InputSplit> splits = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit("id >= " + i, "id < " + (i + 1)));
+    }
+    List<InputSplit> groups = DataDrivenETLDBInputFormat.group(splits, 2);
+    Assert.assertEquals(2, groups.size());
+
+    DataOutputBuffer output = new DataOutputBuffer();
+    ((DataDrivenETLDBInputFormat.GroupedInputSplit) groups.get(0)).write(output);
+    DataInputBuffer input = new DataInputBuffer();
+    input.reset(output.getData(), output.getLength());
+    DataDrivenETLDBInputFormat.GroupedInputSplit copy = new DataDrivenETLDBInputFormat.GroupedInputSplit();
+    copy.readFields(input);
+
+    List<String> lowerClauses = new ArrayList<>();
+    for (DBInputFormat.DBInputSplit split : copy.getSplits()) {
+      lowerClauses.add(((DataDrivenDBInputFormat.DataDrivenDBInputSplit) split).getLowerClause());
+    }
+    Assert.assertEquals(Arrays.asList("id >= 0", "id >= 2", "id >= 4"), lowerClauses);
+    Assert.assertEquals(2, ((DataDrivenETLDBInputFormat.GroupedInputSplit) groups.get(1)).getSplits().size());
+  }
+
+  @Test
+  public void testHashSplitsCoverNulls() {
+    Configuration conf = new Configuration();
+    conf.set(DBConfiguration.INPUT_ORDER_BY_PROPERTY, "uuid");
+    HashSplitPlanner planner = new HashSplitPlanner() {
+      @Override
+      protected String getBucketExpression(String column, int numSplits) {
+        return String.format("MOD(HASH(%s), %d)", column, numSplits);
+      }
+    };
+    planner.setConf(conf);
+
+    List<InputSplit> splits = planner.getSplits(Mockito.mock(Connection.class), null, 2);
+    Assert.assertEquals(3, splits.size());
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit bucket =
+      (DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(1);
+    Assert.assertEquals("uuid IS NOT NULL", bucket.getLowerClause());
+    Assert.assertEquals("MOD(HASH(uuid), 2) = 1", bucket.getUpperClause());
+    Assert.assertEquals("uuid IS NULL",
+                        ((DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(2)).getLowerClause());
+  }
+
+  @Test
+  public void testPlannedSplitReplacesTable() throws IOException {
+    DataDrivenETLDBInputFormat.PlannedInputSplit split = new DataDrivenETLDBInputFormat.PlannedInputSplit(
+      "ctid >= '(10,0)'::tid", "1=1", "events", "ONLY events_2023");
+    DataOutputBuffer output = new DataOutputBuffer();
+    split.write(output);
+    DataInputBuffer input = new DataInputBuffer();
+    input.reset(output.getData(), output.getLength());
+    DataDrivenETLDBInputFormat.PlannedInputSplit copy = new DataDrivenETLDBInputFormat.PlannedInputSplit();
+    copy.readFields(input);
+
+    Assert.assertEquals("ctid >= '(10,0)'::tid", copy.getLowerClause());
+    Assert.assertEquals("SELECT e.id, e.events_count FROM ONLY events_2023 e WHERE ( 1=1 )",
+                        copy.rewrite("SELECT e.id, e.events_count FROM Events e WHERE ( 1=1 )"));
+  }
+
+  @Test
+  public void testPlannedSplitKeepsQualifiedColumns() throws IOException {
+    DataDrivenETLDBInputFormat.PlannedInputSplit split = new DataDrivenETLDBInputFormat.PlannedInputSplit(
+      "1=1", "1=1", "public.orders", "ONLY public.orders_2023", "orders");
+    DataOutputBuffer output = new DataOutputBuffer();
+    split.write(output);
+    DataInputBuffer input = new DataInputBuffer();
+    input.reset(output.getData(), output.getLength());
+    DataDrivenETLDBInputFormat.PlannedInputSplit copy = new DataDrivenETLDBInputFormat.PlannedInputSplit();
+    copy.readFields(input);
+
+    // the replacement takes the name of the table where the query does not alias it
+    Assert.assertEquals("SELECT orders.id FROM ONLY public.orders_2023 orders WHERE orders.id > 0 AND ( 1=1 )",
+                        copy.rewrite("SELECT orders.id FROM public.orders WHERE orders.id > 0 AND ( 1=1 )"));
+    Assert.assertEquals("SELECT orders.id FROM ONLY public.orders_2023 orders",
+                        copy.rewrite("SELECT orders.id FROM public.orders"));
+    Assert.assertEquals("SELECT o.id FROM ONLY public.orders_2023 o WHERE ( 1=1 )",
+                        copy.rewrite("SELECT o.id FROM public.orders o WHERE ( 1=1 )"));
+    Assert.assertEquals("SELECT o.id FROM ONLY public.orders_2023 AS o WHERE ( 1=1 )",
+                        copy.rewrite("SELECT o.id FROM public.orders AS o WHERE ( 1=1 )"));
+  }
+
+  @Test
+  public void testReplicaLagIsChecked() throws SQLException {
+    ConnectionConfigAccessor connectionConfigAccessor = new ConnectionConfigAccessor();
+    connectionConfigAccessor.setReplicaLagQuery("SHOW SLAVE STATUS");
+    connectionConfigAccessor.setMaxReplicaLag(30);
+
+    Assert.assertTrue(DataDrivenETLDBInputFormat.isReplicaAvailable(mockReplica(10d), connectionConfigAccessor));
+    Assert.assertFalse(DataDrivenETLDBInputFormat.isReplicaAvailable(mockReplica(60d), connectionConfigAccessor));
+    // replication stopped
+    Assert.assertFalse(DataDrivenETLDBInputFormat.isReplicaAvailable(mockReplica(null), connectionConfigAccessor));
+  }
+
+  private static Connection mockReplica(@Nullable Double lag) throws SQLException {
+    ResultSetMetaData metadata = Mockito.mock(ResultSetMetaData.class);
+    Mockito.when(metadata.getColumnCount()).thenReturn(2);
+    Mockito.when(metadata.getColumnLabel(1)).thenReturn("Slave_IO_State");
+    Mockito.when(metadata.getColumnLabel(2)).thenReturn("Seconds_Behind_Master");
+    ResultSet resultSet = Mockito.mock(ResultSet.class);
+    Mockito.when(resultSet.next()).thenReturn(true, false);
+    Mockito.when(resultSet.getMetaData()).thenReturn(metadata);
+    Mockito.when(resultSet.getDouble(2)).thenReturn(lag == null ? 0d : lag);
+    Mockito.when(resultSet.wasNull()).thenReturn(lag == null);
+    Statement statement = Mockito.mock(Statement.class);
+    Mockito.when(statement.executeQuery("SHOW SLAVE STATUS")).thenReturn(resultSet);
+    Connection connection = Mockito.mock(Connection.class);
+    Mockito.when(connection.createStatement()).thenReturn(statement);
+    Mockito.when(connection.getAutoCommit()).thenReturn(true);
+    return connection;
+  }
+
+  private static List<InputSplit> split(int sqlType, String min, String max, int numSplits) throws SQLException {
+    return split(sqlType, min, max, numSplits, null);
+  }
+
+  private static List<InputSplit> split(int sqlType, String min, String max, int numSplits,
+                                        @Nullable String inputQuery) throws SQLException {
+    ResultSet results = Mockito.mock(ResultSet.class);
+    Mockito.when(results.getString(1)).thenReturn(min);
+    Mockito.when(results.getString(2)).thenReturn(max);
+    Mockito.when(results.getLong(1)).thenReturn(min == null ? 0L : Long.parseLong(min.split("\\.")[0]));
+    Mockito.when(results.getLong(2)).thenReturn(max == null ? 0L : Long.parseLong(max.split("\\.")[0]));
+    Mockito.when(results.getBigDecimal(1)).thenReturn(min == null ? null : new BigDecimal(min));
+    Mockito.when(results.getBigDecimal(2)).thenReturn(max == null ? null : new BigDecimal(max));
+    Configuration conf = new Configuration(false);
+    conf.setInt(MRJobConfig.NUM_MAPS, numSplits);
+    if (inputQuery != null) {
+      conf.set(DBConfiguration.INPUT_QUERY, inputQuery);
+    }
+    return new DataDrivenETLDBInputFormat().getSplitter(sqlType).split(conf, results, "id");
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.source;
+
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for {@link MysqlPartitionSplitPlanner}.
+ */
+public class MysqlPartitionSplitPlannerTest {
+
+  @Test
+  public void testPartitionsAreGroupedByRows() throws SQLException {
+    ResultSet partitions = Mockito.mock(ResultSet.class);
+    Mockito.when(partitions.next()).thenReturn(true, true, true, false);
+    Mockito.when(partitions.getString(1)).thenReturn("p2021", "p2022", "p2023");
+    Mockito.when(partitions.getLong(2)).thenReturn(50L, 50L, 100L);
+    PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+    Mockito.when(statement.executeQuery()).thenReturn(partitions);
+    Connection connection = Mockito.mock(Connection.class);
+    Mockito.when(connection.prepareStatement(Mockito.contains("information_schema.PARTITIONS"))).thenReturn(statement);
+
+    List<InputSplit> splits = new MysqlPartitionSplitPlanner().getSplits(connection, "sales.`orders`", 2);
+    Mockito.verify(statement).setString(1, "sales");
+    Mockito.verify(statement).setString(2, "orders");
+    Assert.assertEquals(2, splits.size());
+    DataDrivenETLDBInputFormat.PlannedInputSplit first = (DataDrivenETLDBInputFormat.PlannedInputSplit) splits.get(0);
+    Assert.assertEquals("1=1", first.getLowerClause());
+    Assert.assertEquals("SELECT * FROM sales.`orders` PARTITION (`p2021`, `p2022`) o WHERE ( 1=1 ) AND ( 1=1 )",
+                        first.rewrite("SELECT * FROM sales.`orders` o WHERE ( 1=1 ) AND ( 1=1 )"));
+  }
+
+  @Test
+  public void testTableWithoutPartitionsIsNotSplit() throws SQLException {
+    ResultSet partitions = Mockito.mock(ResultSet.class);
+    PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+    Mockito.when(statement.executeQuery()).thenReturn(partitions);
+    Connection connection = Mockito.mock(Connection.class);
+    Mockito.when(connection.prepareStatement(Mockito.anyString())).thenReturn(statement);
+
+    Assert.assertEquals(Collections.emptyList(), new MysqlPartitionSplitPlanner().getSplits(connection, "orders", 4));
+    Mockito.verify(statement).setString(1, null);
+  }
+}
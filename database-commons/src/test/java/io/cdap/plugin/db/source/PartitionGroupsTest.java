@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.source;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test class for {@link PartitionGroups}.
+ */
+public class PartitionGroupsTest {
+
+  @Test
+  public void testPartitionsAreGroupedByRows() {
+    List<Long> rows = Arrays.asList(10L, 10L, 20L, 5L, 5L, 10L);
+    Assert.assertEquals(Arrays.asList(Arrays.asList(10L, 10L), Arrays.asList(20L), Arrays.asList(5L, 5L, 10L)),
+                        PartitionGroups.group(rows, Long::longValue, 3));
+  }
+
+  @Test
+  public void testEveryPartitionIsGroupedAloneIfThereAreFewerPartitionsThanGroups() {
+    List<Long> rows = Arrays.asList(100L, 0L, 0L);
+    Assert.assertEquals(Arrays.asList(Arrays.asList(100L), Arrays.asList(0L), Arrays.asList(0L)),
+                        PartitionGroups.group(rows, Long::longValue, 4));
+  }
+
+  @Test
+  public void testPartitionsWithDifferentKeysAreNotGrouped() {
+    // partition ids, the tens are the host
+    List<Long> ids = Arrays.asList(11L, 12L, 13L, 21L);
+    List<List<Long>> groups = PartitionGroups.group(ids, id -> 1, id -> id / 10, 1);
+    Assert.assertEquals(Arrays.asList(Arrays.asList(11L, 12L, 13L), Arrays.asList(21L)), groups);
+  }
+}
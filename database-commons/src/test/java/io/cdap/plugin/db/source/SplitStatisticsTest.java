@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.source;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test class for {@link SplitStatistics}.
+ */
+public class SplitStatisticsTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testSplitsAreRebalancedByDuration() {
+    List<InputSplit> splits = Arrays.asList(
+      new DataDrivenETLDBInputFormat.ParameterizedInputSplit("id >= ?", "id < ?", Types.INTEGER, "0", "50"),
+      new DataDrivenETLDBInputFormat.ParameterizedInputSplit("id >= ?", "id <= ?", Types.INTEGER, "50", "100"),
+      new DataDrivenDBInputFormat.DataDrivenDBInputSplit("id IS NULL", "id IS NULL"));
+    // the first half of the range took 3 times as long as the second half
+    List<SplitStatistics> statistics = Arrays.asList(
+      new SplitStatistics(BigDecimal.valueOf(0), BigDecimal.valueOf(50), 1000, 300),
+      new SplitStatistics(BigDecimal.valueOf(50), BigDecimal.valueOf(100), 1000, 100));
+
+    List<InputSplit> rebalanced = SplitStatistics.rebalance(splits, statistics);
+    Assert.assertEquals(3, rebalanced.size());
+    DataDrivenETLDBInputFormat.ParameterizedInputSplit first =
+      (DataDrivenETLDBInputFormat.ParameterizedInputSplit) rebalanced.get(0);
+    DataDrivenETLDBInputFormat.ParameterizedInputSplit second =
+      (DataDrivenETLDBInputFormat.ParameterizedInputSplit) rebalanced.get(1);
+    Assert.assertEquals("0", first.getLowerValue());
+    Assert.assertEquals("33", first.getUpperValue());
+    Assert.assertEquals("id < ?", first.getUpperClause());
+    Assert.assertEquals("33", second.getLowerValue());
+    Assert.assertEquals("100", second.getUpperValue());
+    Assert.assertEquals("id <= ?", second.getUpperClause());
+    Assert.assertSame(splits.get(2), rebalanced.get(2));
+  }
+
+  @Test
+  public void testUncoveredRangeUsesAverageDuration() {
+    List<InputSplit> splits = Arrays.asList(
+      new DataDrivenETLDBInputFormat.ParameterizedInputSplit("v >= ?", "v < ?", Types.DECIMAL, "0", "100"),
+      new DataDrivenETLDBInputFormat.ParameterizedInputSplit("v >= ?", "v <= ?", Types.DECIMAL, "100", "200"));
+    // the previous run only read up to 100, evenly
+    List<SplitStatistics> statistics = Collections.singletonList(
+      new SplitStatistics(BigDecimal.valueOf(0), BigDecimal.valueOf(100), 1000, 100));
+
+    List<InputSplit> rebalanced = SplitStatistics.rebalance(splits, statistics);
+    Assert.assertEquals(2, rebalanced.size());
+    Assert.assertEquals(0, new BigDecimal("100").compareTo(new BigDecimal(
+      ((DataDrivenETLDBInputFormat.ParameterizedInputSplit) rebalanced.get(0)).getUpperValue())));
+  }
+
+  @Test
+  public void testLargeBigintBoundsAreInterpolatedExactly() {
+    // 2^60, above which consecutive values can not be told apart as doubles
+    String lower = "1152921504606846976";
+    String middle = "1152921504606847076";
+    String upper = "1152921504606847176";
+    List<InputSplit> splits = Arrays.asList(
+      new DataDrivenETLDBInputFormat.ParameterizedInputSplit("id >= ?", "id < ?", Types.BIGINT, lower, middle),
+      new DataDrivenETLDBInputFormat.ParameterizedInputSplit("id >= ?", "id <= ?", Types.BIGINT, middle, upper));
+    List<SplitStatistics> statistics = Arrays.asList(
+      new SplitStatistics(new BigDecimal(lower), new BigDecimal(middle), 1000, 300),
+      new SplitStatistics(new BigDecimal(middle), new BigDecimal(upper), 1000, 100));
+
+    List<InputSplit> rebalanced = SplitStatistics.rebalance(splits, statistics);
+    Assert.assertEquals(2, rebalanced.size());
+    Assert.assertEquals("1152921504606847043",
+                        ((DataDrivenETLDBInputFormat.ParameterizedInputSplit) rebalanced.get(0)).getUpperValue());
+    Assert.assertEquals("1152921504606847043",
+                        ((DataDrivenETLDBInputFormat.ParameterizedInputSplit) rebalanced.get(1)).getLowerValue());
+  }
+
+  @Test
+  public void testHighPrecisionDecimalBoundsAreInterpolatedExactly() {
+    String lower = "12345678901234567890.000001";
+    String middle = "12345678901234567890.000004";
+    String upper = "12345678901234567890.000005";
+    List<InputSplit> splits = Arrays.asList(
+      new DataDrivenETLDBInputFormat.ParameterizedInputSplit("v >= ?", "v < ?", Types.DECIMAL, lower, middle),
+      new DataDrivenETLDBInputFormat.ParameterizedInputSplit("v >= ?", "v <= ?", Types.DECIMAL, middle, upper));
+    // the previous run read the whole range evenly
+    List<SplitStatistics> statistics = Collections.singletonList(
+      new SplitStatistics(new BigDecimal(lower), new BigDecimal(upper), 1000, 100));
+
+    List<InputSplit> rebalanced = SplitStatistics.rebalance(splits, statistics);
+    Assert.assertEquals(2, rebalanced.size());
+    Assert.assertEquals("12345678901234567890.000003",
+                        ((DataDrivenETLDBInputFormat.ParameterizedInputSplit) rebalanced.get(0)).getUpperValue());
+  }
+
+  @Test
+  public void testStatisticsAreReplacedWhenRunSucceeds() throws Exception {
+    Configuration conf = new Configuration();
+    String root = temporaryFolder.newFolder().toURI().toString();
+    Path directory = new Path(root, "source");
+    Path runDirectory = new Path(root, "source.run1");
+    new SplitStatistics(BigDecimal.valueOf(0), BigDecimal.valueOf(50), 10, 300).write(conf, runDirectory);
+    new SplitStatistics(BigDecimal.valueOf(50), new BigDecimal("100.5"), 20, 100).write(conf, runDirectory);
+    // the splits of a run do not see the statistics of the run before it succeeds
+    Assert.assertTrue(SplitStatistics.read(conf, directory).isEmpty());
+
+    SplitStatistics.replace(conf, directory, runDirectory, true);
+    List<SplitStatistics> statistics = SplitStatistics.read(conf, directory);
+    Assert.assertEquals(2, statistics.size());
+    // reading the statistics does not delete them
+    Assert.assertEquals(2, SplitStatistics.read(conf, directory).size());
+
+    List<InputSplit> splits = Arrays.asList(
+      new DataDrivenETLDBInputFormat.ParameterizedInputSplit("id >= ?", "id < ?", Types.BIGINT, "0", "50"),
+      new DataDrivenETLDBInputFormat.ParameterizedInputSplit("id >= ?", "id <= ?", Types.BIGINT, "50", "100"));
+    Assert.assertEquals("33", ((DataDrivenETLDBInputFormat.ParameterizedInputSplit) SplitStatistics
+      .rebalance(splits, statistics).get(0)).getUpperValue());
+  }
+
+  @Test
+  public void testStatisticsAreKeptWhenRunFails() throws Exception {
+    Configuration conf = new Configuration();
+    String root = temporaryFolder.newFolder().toURI().toString();
+    Path directory = new Path(root, "source");
+    new SplitStatistics(BigDecimal.valueOf(0), BigDecimal.valueOf(50), 10, 300).write(conf, directory);
+    Path runDirectory = new Path(root, "source.run2");
+    new SplitStatistics(BigDecimal.valueOf(0), BigDecimal.valueOf(20), 5, 100).write(conf, runDirectory);
+    new SplitStatistics(BigDecimal.valueOf(20), BigDecimal.valueOf(50), 5, 100).write(conf, runDirectory);
+
+    SplitStatistics.replace(conf, directory, runDirectory, false);
+    List<SplitStatistics> statistics = SplitStatistics.read(conf, directory);
+    Assert.assertEquals(1, statistics.size());
+    Assert.assertFalse(runDirectory.getFileSystem(conf).exists(runDirectory));
+
+    // a successful run that recorded no split keeps the statistics too
+    SplitStatistics.replace(conf, directory, new Path(root, "source.run3"), true);
+    Assert.assertEquals(1, SplitStatistics.read(conf, directory).size());
+  }
+}
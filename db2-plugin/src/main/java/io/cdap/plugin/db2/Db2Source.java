@@ -23,8 +23,12 @@ import io.cdap.cdap.etl.api.batch.BatchSource;
 import io.cdap.plugin.db.SchemaReader;
 import io.cdap.plugin.db.config.DBSpecificSourceConfig;
 import io.cdap.plugin.db.source.AbstractDBSource;
+import io.cdap.plugin.db.source.SplitPlanner;
 import org.apache.hadoop.mapreduce.lib.db.DBWritable;
 
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nullable;
 
 /**
  * Batch source to read from DB2.
@@ -58,13 +62,25 @@ public class Db2Source extends AbstractDBSource<Db2Source.Db2SourceConfig> {
                          db2SourceConfig.database);
   }
 
+  @Nullable
+  @Override
+  protected Class<? extends SplitPlanner> getSplitPlanner() {
+    return Db2Constants.SPLIT_MODE_PARTITION.equals(db2SourceConfig.getSplitMode()) ? Db2SplitPlanner.class : null;
+  }
+
   /**
    * DB2 source config.
    */
   public static class Db2SourceConfig extends DBSpecificSourceConfig {
+
     @Override
     public String getConnectionString() {
       return String.format(Db2Constants.DB2_CONNECTION_STRING_FORMAT, host, port, database);
     }
+
+    @Override
+    protected List<String> getSplitModes() {
+      return Arrays.asList(SPLIT_MODE_RANGE, Db2Constants.SPLIT_MODE_PARTITION);
+    }
   }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db2;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.cdap.plugin.db.source.SplitPlanner;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits a DB2 table along its database partitions and its data partitions.
+ * <p>
+ * If the table is distributed over several database partitions, every split reads the rows of a single database
+ * partition, selected with DBPARTITIONNUM. If the table is range partitioned, the data partitions are spread over the
+ * splits of every database partition, and selected with DATAPARTITIONNUM. Both functions take any column of the table
+ * and return the partition of its row, so the first column of the table is used.
+ */
+public class Db2SplitPlanner implements SplitPlanner {
+  private static final Logger LOG = LoggerFactory.getLogger(Db2SplitPlanner.class);
+  private static final String CURRENT_SCHEMA_QUERY = "VALUES CURRENT SCHEMA";
+  private static final String FIRST_COLUMN_QUERY = "SELECT COLNAME FROM SYSCAT.COLUMNS " +
+    "WHERE TABSCHEMA = ? AND TABNAME = ? AND COLNO = 0";
+  // a table that is not range partitioned has a single data partition
+  private static final String DATA_PARTITIONS_QUERY = "SELECT SEQNO FROM SYSCAT.DATAPARTITIONS " +
+    "WHERE TABSCHEMA = ? AND TABNAME = ? ORDER BY SEQNO";
+  // the database partitions of the partition group of the table space of the table
+  private static final String DATABASE_PARTITIONS_QUERY = "SELECT d.DBPARTITIONNUM FROM SYSCAT.TABLES t " +
+    "JOIN SYSCAT.TABLESPACES s ON s.TBSPACE = t.TBSPACE " +
+    "JOIN SYSCAT.DBPARTITIONGROUPDEF d ON d.DBPGNAME = s.DBPGNAME " +
+    "WHERE t.TABSCHEMA = ? AND t.TABNAME = ? AND d.IN_USE = 'Y' ORDER BY d.DBPARTITIONNUM";
+  private static final String NO_BOUND = "1=1";
+
+  @Override
+  public List<InputSplit> getSplits(Connection connection, String table, int numSplits) throws SQLException {
+    String schema;
+    String name;
+    int separator = table.lastIndexOf('.');
+    if (separator > 0) {
+      schema = toCatalogName(table.substring(0, separator));
+      name = toCatalogName(table.substring(separator + 1));
+    } else {
+      schema = getCurrentSchema(connection);
+      name = toCatalogName(table);
+    }
+
+    List<Integer> dataPartitions = getNumbers(connection, DATA_PARTITIONS_QUERY, schema, name);
+    List<Integer> databasePartitions = getNumbers(connection, DATABASE_PARTITIONS_QUERY, schema, name);
+    if (dataPartitions.size() < 2 && databasePartitions.size() < 2) {
+      LOG.warn("Table '{}' is not partitioned, it is read as a single split.", table);
+      return Collections.emptyList();
+    }
+    String column = "\"" + getFirstColumn(connection, schema, name).replace("\"", "\"\"") + "\"";
+
+    return getPartitionSplits(column, databasePartitions, dataPartitions, numSplits);
+  }
+
+  /**
+   * Returns a split for every database partition and group of contiguous data partitions. Every database partition
+   * is read with its own splits, even if there are more database partitions than the requested number of splits.
+   *
+   * @param column the quoted column passed to DBPARTITIONNUM and DATAPARTITIONNUM
+   * @param databasePartitions the numbers of the database partitions of the table
+   * @param dataPartitions the numbers of the data partitions of the table
+   * @param numSplits the requested number of splits
+   */
+  @VisibleForTesting
+  static List<InputSplit> getPartitionSplits(String column, List<Integer> databasePartitions,
+                                             List<Integer> dataPartitions, int numSplits) {
+    List<String> databaseClauses = new ArrayList<>();
+    if (databasePartitions.size() < 2) {
+      databaseClauses.add(NO_BOUND);
+    } else {
+      for (int partition : databasePartitions) {
+        databaseClauses.add(String.format("DBPARTITIONNUM(%s) = %d", column, partition));
+      }
+    }
+    List<String> dataClauses = new ArrayList<>();
+    if (dataPartitions.size() < 2) {
+      dataClauses.add(NO_BOUND);
+    } else {
+      // the data partitions are grouped into contiguous ranges, spread evenly over the splits of a database partition
+      int groups = Math.max(1, Math.min(dataPartitions.size(), numSplits / databaseClauses.size()));
+      int perGroup = dataPartitions.size() / groups;
+      int remainder = dataPartitions.size() % groups;
+      int first = 0;
+      for (int i = 0; i < groups; i++) {
+        int last = first + perGroup + (i < remainder ? 1 : 0) - 1;
+        dataClauses.add(first == last
+                          ? String.format("DATAPARTITIONNUM(%s) = %d", column, dataPartitions.get(first))
+                          : String.format("DATAPARTITIONNUM(%s) BETWEEN %d AND %d", column, dataPartitions.get(first),
+                                          dataPartitions.get(last)));
+        first = last + 1;
+      }
+    }
+
+    List<InputSplit> splits = new ArrayList<>();
+    for (String databaseClause : databaseClauses) {
+      for (String dataClause : dataClauses) {
+        splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(databaseClause, dataClause));
+      }
+    }
+    return splits;
+  }
+
+  private static List<Integer> getNumbers(Connection connection, String query, String schema,
+                                          String name) throws SQLException {
+    List<Integer> numbers = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(query)) {
+      statement.setString(1, schema);
+      statement.setString(2, name);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          numbers.add(resultSet.getInt(1));
+        }
+      }
+    }
+    return numbers;
+  }
+
+  private static String getFirstColumn(Connection connection, String schema, String name) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(FIRST_COLUMN_QUERY)) {
+      statement.setString(1, schema);
+      statement.setString(2, name);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        if (!resultSet.next()) {
+          throw new SQLException(String.format("Table '%s.%s' has no columns.", schema, name));
+        }
+        return resultSet.getString(1);
+      }
+    }
+  }
+
+  private static String getCurrentSchema(Connection connection) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(CURRENT_SCHEMA_QUERY);
+         ResultSet resultSet = statement.executeQuery()) {
+      resultSet.next();
+      return resultSet.getString(1).trim();
+    }
+  }
+
+  /**
+   * Returns the name of an identifier in the catalog, which is upper case unless it is quoted.
+   */
+  private static String toCatalogName(String identifier) {
+    String trimmed = identifier.trim();
+    if (trimmed.length() > 1 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+      return trimmed.substring(1, trimmed.length() - 1);
+    }
+    return trimmed.toUpperCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db2;
+
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for {@link Db2SplitPlanner}.
+ */
+public class Db2SplitPlannerTest {
+  private static final String COLUMN = "\"ID\"";
+
+  @Test
+  public void testEveryDatabasePartitionIsReadWithFewerSplits() {
+    List<InputSplit> splits = Db2SplitPlanner.getPartitionSplits(COLUMN, Arrays.asList(0, 1, 2, 3),
+                                                                 Arrays.asList(1, 2, 3, 4, 5), 2);
+    // a database partition is never shared by splits, so all its data partitions are read by a single split
+    Assert.assertEquals(4, splits.size());
+    for (int i = 0; i < 4; i++) {
+      assertSplit(splits.get(i), "DBPARTITIONNUM(\"ID\") = " + i, "DATAPARTITIONNUM(\"ID\") BETWEEN 1 AND 5");
+    }
+  }
+
+  @Test
+  public void testDataPartitionsAreSpreadOverSplitsOfDatabasePartition() {
+    List<InputSplit> splits = Db2SplitPlanner.getPartitionSplits(COLUMN, Arrays.asList(0, 1),
+                                                                 Arrays.asList(1, 2, 3, 4, 5), 6);
+    Assert.assertEquals(6, splits.size());
+    for (int i = 0; i < 2; i++) {
+      String databaseClause = "DBPARTITIONNUM(\"ID\") = " + i;
+      assertSplit(splits.get(3 * i), databaseClause, "DATAPARTITIONNUM(\"ID\") BETWEEN 1 AND 2");
+      assertSplit(splits.get(3 * i + 1), databaseClause, "DATAPARTITIONNUM(\"ID\") BETWEEN 3 AND 4");
+      assertSplit(splits.get(3 * i + 2), databaseClause, "DATAPARTITIONNUM(\"ID\") = 5");
+    }
+  }
+
+  @Test
+  public void testSinglePartitionIsNotBounded() {
+    List<InputSplit> splits = Db2SplitPlanner.getPartitionSplits(COLUMN, Collections.singletonList(0),
+                                                                 Arrays.asList(0, 1, 2), 2);
+    Assert.assertEquals(2, splits.size());
+    assertSplit(splits.get(0), "1=1", "DATAPARTITIONNUM(\"ID\") BETWEEN 0 AND 1");
+    assertSplit(splits.get(1), "1=1", "DATAPARTITIONNUM(\"ID\") = 2");
+
+    splits = Db2SplitPlanner.getPartitionSplits(COLUMN, Arrays.asList(1, 2, 3), Collections.singletonList(0), 6);
+    Assert.assertEquals(3, splits.size());
+    assertSplit(splits.get(2), "DBPARTITIONNUM(\"ID\") = 3", "1=1");
+  }
+
+  private static void assertSplit(InputSplit split, String lowerClause, String upperClause) {
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit partitionSplit =
+      (DataDrivenDBInputFormat.DataDrivenDBInputSplit) split;
+    Assert.assertEquals(lowerClause, partitionSplit.getLowerClause());
+    Assert.assertEquals(upperClause, partitionSplit.getUpperClause());
+  }
+}
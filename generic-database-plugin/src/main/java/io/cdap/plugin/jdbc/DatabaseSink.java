@@ -16,14 +16,21 @@
 
 package io.cdap.plugin.jdbc;
 
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import io.cdap.cdap.api.annotation.Description;
 import io.cdap.cdap.api.annotation.Macro;
 import io.cdap.cdap.api.annotation.Name;
 import io.cdap.cdap.api.annotation.Plugin;
+import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.cdap.etl.api.batch.BatchSink;
 import io.cdap.plugin.db.ConnectionConfig;
 import io.cdap.plugin.db.sink.AbstractDBSink;
+import io.cdap.plugin.db.sink.ShardRouter;
 
+import java.util.Collections;
+import java.util.List;
 import javax.annotation.Nullable;
 
 /**
@@ -45,6 +52,10 @@ public class DatabaseSink extends AbstractDBSink<DatabaseSink.DatabaseSinkConfig
    * Generic database sink configuration.
    */
   public static class DatabaseSinkConfig extends AbstractDBSink.DBSinkConfig {
+    public static final String SHARD_KEY = "shardKey";
+    public static final String SHARD_ROUTING = "shardRouting";
+    public static final String SHARD_MAP = "shardMap";
+
     @Name(ConnectionConfig.CONNECTION_STRING)
     @Description("JDBC connection string including database name.")
     @Macro
@@ -59,11 +70,84 @@ public class DatabaseSink extends AbstractDBSink<DatabaseSink.DatabaseSinkConfig
     @Macro
     public String transactionIsolationLevel;
 
+    @Nullable
+    @Name(ConnectionConfig.SHARD_CONNECTION_STRINGS)
+    @Description("Comma-separated list of the JDBC connection strings of the shards to write to. All the shards " +
+      "must contain the table, which is validated through the connection string. Every record is written to one " +
+      "of the shards, selected by the value of the shard key field.")
+    @Macro
+    public String shardConnectionStrings;
+
+    @Nullable
+    @Name(SHARD_KEY)
+    @Description("Name of the field the records are routed to the shards by. Records with a null key are written " +
+      "to the first shard. Required if the shard connection strings are specified.")
+    @Macro
+    public String shardKey;
+
+    @Nullable
+    @Name(SHARD_ROUTING)
+    @Description("How the records are routed to the shards: 'hash' writes a record to the shard given by the hash " +
+      "of the key modulo the number of shards, 'range' by the boundaries in the shard map and 'lookup' by the " +
+      "value to shard pairs in the shard map. Defaults to 'hash'.")
+    @Macro
+    public String shardRouting;
+
+    @Nullable
+    @Name(SHARD_MAP)
+    @Description("For 'range' routing, a comma-separated list of ascending boundaries, one less than the number of " +
+      "shards, a record being written to the first shard whose boundary is greater than its key, or to the last " +
+      "shard. For 'lookup' routing, a comma-separated list of 'value:shard' pairs, where shard is the zero-based " +
+      "index of the shard in the shard connection strings.")
+    @Macro
+    public String shardMap;
+
     @Override
     public String getConnectionString() {
       return connectionString;
     }
 
+    @Override
+    public List<String> getShardConnectionStrings() {
+      if (Strings.isNullOrEmpty(shardConnectionStrings)) {
+        return Collections.emptyList();
+      }
+      return Lists.newArrayList(Splitter.on(',').trimResults().omitEmptyStrings().split(shardConnectionStrings));
+    }
+
+    @Nullable
+    @Override
+    public String getShardKey() {
+      return Strings.emptyToNull(shardKey);
+    }
+
+    @Nullable
+    @Override
+    public String getShardRouting() {
+      return Strings.emptyToNull(shardRouting);
+    }
+
+    @Nullable
+    @Override
+    public String getShardMap() {
+      return Strings.emptyToNull(shardMap);
+    }
+
+    @Override
+    public void validate(FailureCollector collector) {
+      super.validate(collector);
+      if (containsMacro(ConnectionConfig.SHARD_CONNECTION_STRINGS) || containsMacro(SHARD_KEY)
+        || containsMacro(SHARD_ROUTING) || containsMacro(SHARD_MAP) || getShardConnectionStrings().isEmpty()) {
+        return;
+      }
+      try {
+        new ShardRouter(getShardKey(), getShardRouting(), getShardMap(), getShardConnectionStrings().size());
+      } catch (IllegalArgumentException e) {
+        collector.addFailure(e.getMessage(), null).withConfigProperty(SHARD_KEY)
+          .withConfigProperty(SHARD_ROUTING).withConfigProperty(SHARD_MAP);
+      }
+    }
+
     @Override
     public String getTransactionIsolationLevel() {
       return transactionIsolationLevel;
@@ -16,13 +16,19 @@
 
 package io.cdap.plugin.jdbc;
 
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import io.cdap.cdap.api.annotation.Description;
 import io.cdap.cdap.api.annotation.Macro;
 import io.cdap.cdap.api.annotation.Name;
 import io.cdap.cdap.api.annotation.Plugin;
+import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.plugin.db.ConnectionConfig;
 import io.cdap.plugin.db.source.AbstractDBSource;
 
+import java.util.Collections;
+import java.util.List;
 import javax.annotation.Nullable;
 
 /**
@@ -46,6 +52,20 @@ public class DatabaseSource extends AbstractDBSource<DatabaseSource.DatabaseSour
     return databaseSourceConfig.connectionString;
   }
 
+  @Override
+  protected List<String> createShardConnectionStrings() {
+    if (Strings.isNullOrEmpty(databaseSourceConfig.shardConnectionStrings)) {
+      return Collections.emptyList();
+    }
+    return Lists.newArrayList(
+      Splitter.on(',').trimResults().omitEmptyStrings().split(databaseSourceConfig.shardConnectionStrings));
+  }
+
+  @Override
+  protected String getShardMapQuery() {
+    return Strings.emptyToNull(databaseSourceConfig.shardMapQuery);
+  }
+
   /**
    * Generic database source configuration.
    */
@@ -64,9 +84,34 @@ public class DatabaseSource extends AbstractDBSource<DatabaseSource.DatabaseSour
     @Macro
     public String transactionIsolationLevel;
 
+    @Nullable
+    @Name(ConnectionConfig.SHARD_CONNECTION_STRINGS)
+    @Description("Comma-separated list of the JDBC connection strings of the shards to read from. All the shards " +
+      "must have the same schema, which is read through the connection string. The import query is run on every " +
+      "shard, and the number of splits applies to each shard.")
+    @Macro
+    public String shardConnectionStrings;
+
+    @Nullable
+    @Name(ConnectionConfig.SHARD_MAP_QUERY)
+    @Description("Query run through the connection string that returns the JDBC connection strings of the shards " +
+      "to read from in its first column. Can be used instead of the shard connection strings.")
+    @Macro
+    public String shardMapQuery;
+
     @Override
     public String getConnectionString() {
       return connectionString;
     }
+
+    @Override
+    public void validate(FailureCollector collector) {
+      super.validate(collector);
+      if (!Strings.isNullOrEmpty(shardConnectionStrings) && !Strings.isNullOrEmpty(shardMapQuery)) {
+        collector.addFailure("Shard Connection Strings and Shard Map Query cannot both be specified.", null)
+          .withConfigProperty(ConnectionConfig.SHARD_CONNECTION_STRINGS)
+          .withConfigProperty(ConnectionConfig.SHARD_MAP_QUERY);
+      }
+    }
   }
 }
@@ -48,12 +48,15 @@ import java.sql.Connection;
 import java.sql.Date;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.TimeZone;
 import javax.sql.rowset.serial.SerialBlob;
 
@@ -240,6 +243,17 @@ public abstract class GenericDatabasePluginTestBase extends DatabasePluginTestBa
          Statement stmt = conn.createStatement()) {
       stmt.execute("DROP TABLE \"my_table\"");
       stmt.execute("DROP TABLE \"your_table\"");
+      // the connection pool keeps the idle connections of the user open
+      List<Long> sessions = new ArrayList<>();
+      try (ResultSet resultSet = stmt.executeQuery(
+        "SELECT SESSION_ID FROM INFORMATION_SCHEMA.SYSTEM_SESSIONS WHERE USER_NAME = 'emptyPwdUser'")) {
+        while (resultSet.next()) {
+          sessions.add(resultSet.getLong(1));
+        }
+      }
+      for (long session : sessions) {
+        stmt.execute("ALTER SESSION " + session + " CLOSE");
+      }
       stmt.execute("DROP USER \"emptyPwdUser\"");
       stmt.execute("DROP TABLE \"MY_DEST_TABLE\"");
     }
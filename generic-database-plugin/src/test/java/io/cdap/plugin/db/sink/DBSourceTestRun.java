@@ -17,6 +17,7 @@
 package io.cdap.plugin.db.sink;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.dataset.table.Table;
@@ -34,6 +35,7 @@ import io.cdap.plugin.GenericDatabasePluginTestBase;
 import io.cdap.plugin.common.Constants;
 import io.cdap.plugin.db.ConnectionConfig;
 import io.cdap.plugin.db.source.AbstractDBSource;
+import io.cdap.plugin.db.source.DataDrivenETLDBInputFormat;
 import io.cdap.plugin.jdbc.DatabaseConstants;
 import org.junit.Assert;
 import org.junit.Test;
@@ -50,8 +52,10 @@ import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Test for ETL using databases.
@@ -223,6 +227,85 @@ public class DBSourceTestRun extends GenericDatabasePluginTestBase {
     Assert.assertEquals(2, row2.<Integer>get("ID").intValue());
   }
 
+  @Test
+  public void testDBSourceWithShards() throws Exception {
+    String importQuery = "SELECT ID, NAME FROM \"my_table\" WHERE ID < 3 AND $CONDITIONS";
+    String boundingQuery = "SELECT MIN(ID),MAX(ID) from \"my_table\" WHERE ID < 3";
+    ETLPlugin sourceConfig = new ETLPlugin(
+      DatabaseConstants.PLUGIN_NAME,
+      BatchSource.PLUGIN_TYPE,
+      ImmutableMap.<String, String>builder()
+        .put(ConnectionConfig.CONNECTION_STRING, getConnectionURL())
+        .put(ConnectionConfig.JDBC_PLUGIN_NAME, JDBC_DRIVER_NAME)
+        // both shards are the same database, hence every row is read twice
+        .put(ConnectionConfig.SHARD_CONNECTION_STRINGS, getConnectionURL() + "," + getConnectionURL())
+        .put(AbstractDBSource.DBSourceConfig.IMPORT_QUERY, importQuery)
+        .put(AbstractDBSource.DBSourceConfig.BOUNDING_QUERY, boundingQuery)
+        .put(AbstractDBSource.DBSourceConfig.SPLIT_BY, "ID")
+        .put(AbstractDBSource.DBSourceConfig.NUM_SPLITS, "2")
+        .put(Constants.Reference.REFERENCE_NAME, "DBShardTest")
+        .build(),
+      null
+    );
+
+    String outputDatasetName = "output-shardtest";
+    ETLPlugin sinkConfig = MockSink.getPlugin(outputDatasetName);
+
+    ApplicationManager appManager = deployETL(sourceConfig, sinkConfig,
+                                              DATAPIPELINE_ARTIFACT, "testDBSourceWithShards");
+    runETLOnce(appManager);
+
+    DataSetManager<Table> outputManager = getDataset(outputDatasetName);
+    List<StructuredRecord> outputRecords = MockSink.readOutput(outputManager);
+    Assert.assertEquals(4, outputRecords.size());
+    Map<Integer, Integer> counts = new HashMap<>();
+    for (StructuredRecord record : outputRecords) {
+      counts.merge(record.<Integer>get("ID"), 1, Integer::sum);
+    }
+    Assert.assertEquals(ImmutableMap.of(1, 2, 2, 2), counts);
+  }
+
+  @Test
+  public void testDBSourceWithLimitedConcurrency() throws Exception {
+    String importQuery = "SELECT ID, NAME FROM \"my_table\" WHERE ID < 5 AND $CONDITIONS";
+    String boundingQuery = "SELECT MIN(ID),MAX(ID) from \"my_table\" WHERE ID < 5";
+    ETLPlugin sourceConfig = new ETLPlugin(
+      DatabaseConstants.PLUGIN_NAME,
+      BatchSource.PLUGIN_TYPE,
+      ImmutableMap.<String, String>builder()
+        .put(ConnectionConfig.CONNECTION_STRING, getConnectionURL())
+        .put(ConnectionConfig.JDBC_PLUGIN_NAME, JDBC_DRIVER_NAME)
+        .put(AbstractDBSource.DBSourceConfig.IMPORT_QUERY, importQuery)
+        .put(AbstractDBSource.DBSourceConfig.BOUNDING_QUERY, boundingQuery)
+        .put(AbstractDBSource.DBSourceConfig.SPLIT_BY, "ID")
+        .put(AbstractDBSource.DBSourceConfig.NUM_SPLITS, "4")
+        .put(Constants.Reference.REFERENCE_NAME, "DBConcurrencyTest")
+        .build(),
+      null
+    );
+
+    String outputDatasetName = "output-concurrencytest";
+    ETLPlugin sinkConfig = MockSink.getPlugin(outputDatasetName);
+
+    ApplicationManager appManager = deployETL(sourceConfig, sinkConfig,
+                                              DATAPIPELINE_ARTIFACT, "testDBSourceWithLimitedConcurrency");
+    // the 4 splits are read by 2 tasks, which run the health query every row
+    runETLOnce(appManager, ImmutableMap.of(
+      DataDrivenETLDBInputFormat.MAX_CONCURRENT_READERS, "2",
+      DataDrivenETLDBInputFormat.HEALTH_QUERY, "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SYSTEM_SESSIONS",
+      DataDrivenETLDBInputFormat.MAX_HEALTH_VALUE, "1000",
+      DataDrivenETLDBInputFormat.HEALTH_CHECK_INTERVAL_MS, "0"));
+
+    DataSetManager<Table> outputManager = getDataset(outputDatasetName);
+    List<StructuredRecord> outputRecords = MockSink.readOutput(outputManager);
+    Set<Integer> ids = new HashSet<>();
+    for (StructuredRecord record : outputRecords) {
+      ids.add(record.get("ID"));
+    }
+    Assert.assertEquals(4, outputRecords.size());
+    Assert.assertEquals(ImmutableSet.of(1, 2, 3, 4), ids);
+  }
+
   @Test
   public void testDbSourceMultipleTables() throws Exception {
     // have the same data in both tables ('\"my_table\"' and '\"your_table\"'), and select the ID and NAME fields from
@@ -37,6 +37,7 @@ public final class MariadbConstants {
   public static final String TRUST_STORE = "trustStore";
   public static final String TRUST_STORE_PASSWORD = "trustStorePassword";
   public static final String MARIADB_CONNECTION_STRING_FORMAT = "jdbc:mariadb://%s:%s/%s";
+  public static final String SPLIT_MODE_PARTITION = "partition";
 
   /**
    * Query to set SQL_MODE system variable.
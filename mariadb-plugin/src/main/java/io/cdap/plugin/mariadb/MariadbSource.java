@@ -22,7 +22,10 @@ import io.cdap.cdap.api.annotation.Plugin;
 import io.cdap.cdap.etl.api.batch.BatchSource;
 import io.cdap.plugin.db.config.DBSpecificSourceConfig;
 import io.cdap.plugin.db.source.AbstractDBSource;
+import io.cdap.plugin.db.source.MysqlPartitionSplitPlanner;
+import io.cdap.plugin.db.source.SplitPlanner;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
@@ -53,6 +56,13 @@ public class MariadbSource extends AbstractDBSource<MariadbSource.MariadbSourceC
                          mariadbSourceConfig.host, mariadbSourceConfig.port, mariadbSourceConfig.database);
   }
 
+  @Nullable
+  @Override
+  protected Class<? extends SplitPlanner> getSplitPlanner() {
+    return MariadbConstants.SPLIT_MODE_PARTITION.equals(mariadbSourceConfig.getSplitMode())
+      ? MysqlPartitionSplitPlanner.class : null;
+  }
+
   /**
    * MaraiDB source mariadbSourceConfig.
    */
@@ -116,5 +126,10 @@ public class MariadbSource extends AbstractDBSource<MariadbSource.MariadbSourceC
     public List<String> getInitQueries() {
       return MariadbUtil.composeDbInitQueries(useAnsiQuotes);
     }
+
+    @Override
+    protected List<String> getSplitModes() {
+      return Arrays.asList(SPLIT_MODE_RANGE, MariadbConstants.SPLIT_MODE_PARTITION);
+    }
   }
 }
@@ -208,4 +208,9 @@ public final class SqlServerConstants {
    */
   public static final String SET_LANGUAGE_QUERY_FORMAT = "SET LANGUAGE '%s';";
 
+  /**
+   * Split mode of the source, which splits a partitioned table along its partitions.
+   */
+  public static final String SPLIT_MODE_PARTITION = "partition";
+
 }
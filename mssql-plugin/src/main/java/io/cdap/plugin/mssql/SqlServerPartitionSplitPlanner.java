@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.mssql;
+
+import io.cdap.plugin.db.source.PartitionGroups;
+import io.cdap.plugin.db.source.SplitPlanner;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits a partitioned SQL Server table along its partitions, with conditions on the partition number returned by
+ * the $PARTITION function of the partition function of the table. SQL Server eliminates the other partitions, so
+ * every split only reads its own partitions. Consecutive partitions are grouped into splits of about the same number
+ * of rows if there are more partitions than the requested number of splits.
+ */
+public class SqlServerPartitionSplitPlanner implements SplitPlanner {
+  private static final Logger LOG = LoggerFactory.getLogger(SqlServerPartitionSplitPlanner.class);
+  // the partition function and the partitioning column of the heap or clustered index of the table, and the number
+  // and row count of its partitions
+  private static final String PARTITIONS_QUERY = "SELECT pf.name, c.name, p.partition_number, p.rows " +
+    "FROM sys.indexes i " +
+    "JOIN sys.partition_schemes ps ON ps.data_space_id = i.data_space_id " +
+    "JOIN sys.partition_functions pf ON pf.function_id = ps.function_id " +
+    "JOIN sys.index_columns ic ON ic.object_id = i.object_id AND ic.index_id = i.index_id " +
+    "AND ic.partition_ordinal = 1 " +
+    "JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id " +
+    "JOIN sys.partitions p ON p.object_id = i.object_id AND p.index_id = i.index_id " +
+    "WHERE i.object_id = OBJECT_ID(?) AND i.index_id IN (0, 1) ORDER BY p.partition_number";
+  private static final String NO_BOUND = "1=1";
+
+  @Override
+  public List<InputSplit> getSplits(Connection connection, String table, int numSplits) throws SQLException {
+    String function = null;
+    String column = null;
+    List<Partition> partitions = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(PARTITIONS_QUERY)) {
+      statement.setString(1, table);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          function = resultSet.getString(1);
+          column = resultSet.getString(2);
+          partitions.add(new Partition(resultSet.getLong(3), resultSet.getLong(4)));
+        }
+      }
+    }
+    if (partitions.isEmpty()) {
+      LOG.warn("Table '{}' is not partitioned, it is read as a single split.", table);
+      return Collections.emptyList();
+    }
+
+    String partitionNumber = String.format("$PARTITION.%s(%s)", quote(function), quote(column));
+    List<InputSplit> splits = new ArrayList<>();
+    for (List<Partition> group : PartitionGroups.group(partitions, partition -> partition.rows, numSplits)) {
+      long first = group.get(0).number;
+      long last = group.get(group.size() - 1).number;
+      String condition = first == last ? String.format("%s = %d", partitionNumber, first)
+        : String.format("%s BETWEEN %d AND %d", partitionNumber, first, last);
+      splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(condition, NO_BOUND));
+    }
+    return splits;
+  }
+
+  /**
+   * Returns the given name as a delimited identifier.
+   */
+  static String quote(String name) {
+    return "[" + name.replace("]", "]]") + "]";
+  }
+
+  /**
+   * A partition of a table.
+   */
+  private static class Partition {
+    private final long number;
+    private final long rows;
+
+    Partition(long number, long rows) {
+      this.number = number;
+      this.rows = rows;
+    }
+  }
+}
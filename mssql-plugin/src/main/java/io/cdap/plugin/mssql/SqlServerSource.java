@@ -35,9 +35,11 @@ import io.cdap.plugin.db.SchemaReader;
 import io.cdap.plugin.db.config.AbstractDBSpecificSourceConfig;
 import io.cdap.plugin.db.connector.AbstractDBSpecificConnectorConfig;
 import io.cdap.plugin.db.source.AbstractDBSource;
+import io.cdap.plugin.db.source.SplitPlanner;
 import io.cdap.plugin.util.DBUtils;
 import org.apache.hadoop.mapreduce.lib.db.DBWritable;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -75,6 +77,19 @@ public class SqlServerSource extends AbstractDBSource<SqlServerSource.SqlServerS
     return SqlServerSourceDBRecord.class;
   }
 
+  @Nullable
+  @Override
+  protected Class<? extends SplitPlanner> getSplitPlanner() {
+    String splitMode = sqlServerSourceConfig.getSplitMode();
+    if (SqlServerConstants.SPLIT_MODE_PARTITION.equals(splitMode)) {
+      return SqlServerPartitionSplitPlanner.class;
+    }
+    if (SqlServerSourceConfig.SPLIT_MODE_HASH.equals(splitMode)) {
+      return SqlServerHashSplitPlanner.class;
+    }
+    return null;
+  }
+
   @Override
   protected LineageRecorder getLineageRecorder(BatchSourceContext context) {
     String fqn = DBUtils.constructFQN("mssql",
@@ -188,6 +203,11 @@ public class SqlServerSource extends AbstractDBSource<SqlServerSource.SqlServerS
       return Collections.emptyList();
     }
 
+    @Override
+    protected List<String> getSplitModes() {
+      return Arrays.asList(SPLIT_MODE_RANGE, SqlServerConstants.SPLIT_MODE_PARTITION, SPLIT_MODE_HASH);
+    }
+
     @Override
     public void validate(FailureCollector collector) {
       ConfigUtil.validateConnection(this, useConnection, connection, collector);
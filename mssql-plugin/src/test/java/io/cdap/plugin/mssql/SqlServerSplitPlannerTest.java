@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.mssql;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.db.DBConfiguration;
+import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Unit tests for {@link SqlServerPartitionSplitPlanner} and {@link SqlServerHashSplitPlanner}.
+ */
+public class SqlServerSplitPlannerTest {
+
+  @Test
+  public void testPartitionsAreGroupedByRows() throws SQLException {
+    ResultSet partitions = Mockito.mock(ResultSet.class);
+    Mockito.when(partitions.next()).thenReturn(true, true, true, true, false);
+    Mockito.when(partitions.getString(1)).thenReturn("pf_year");
+    Mockito.when(partitions.getString(2)).thenReturn("order_date");
+    Mockito.when(partitions.getLong(3)).thenReturn(1L, 2L, 3L, 4L);
+    Mockito.when(partitions.getLong(4)).thenReturn(100L, 100L, 100L, 100L);
+    PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+    Mockito.when(statement.executeQuery()).thenReturn(partitions);
+    Connection connection = Mockito.mock(Connection.class);
+    Mockito.when(connection.prepareStatement(Mockito.contains("sys.partitions"))).thenReturn(statement);
+
+    List<InputSplit> splits = new SqlServerPartitionSplitPlanner().getSplits(connection, "dbo.orders", 2);
+    Mockito.verify(statement).setString(1, "dbo.orders");
+    Assert.assertEquals(2, splits.size());
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit first =
+      (DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(0);
+    Assert.assertEquals("$PARTITION.[pf_year]([order_date]) BETWEEN 1 AND 2", first.getLowerClause());
+    Assert.assertEquals("1=1", first.getUpperClause());
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit last =
+      (DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(1);
+    Assert.assertEquals("$PARTITION.[pf_year]([order_date]) BETWEEN 3 AND 4", last.getLowerClause());
+
+    Mockito.when(partitions.next()).thenReturn(true, true, true, true, false);
+    Mockito.when(partitions.getLong(3)).thenReturn(1L, 2L, 3L, 4L);
+    splits = new SqlServerPartitionSplitPlanner().getSplits(connection, "dbo.orders", 8);
+    Assert.assertEquals(4, splits.size());
+    Assert.assertEquals("$PARTITION.[pf_year]([order_date]) = 4",
+                        ((DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(3)).getLowerClause());
+  }
+
+  @Test
+  public void testHashBuckets() {
+    Configuration conf = new Configuration();
+    conf.set(DBConfiguration.INPUT_ORDER_BY_PROPERTY, "id");
+    SqlServerHashSplitPlanner planner = new SqlServerHashSplitPlanner();
+    planner.setConf(conf);
+
+    List<InputSplit> splits = planner.getSplits(Mockito.mock(Connection.class), null, 3);
+    Assert.assertEquals(4, splits.size());
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit bucket =
+      (DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(2);
+    Assert.assertEquals("id IS NOT NULL", bucket.getLowerClause());
+    Assert.assertEquals("ABS(CAST(CHECKSUM(id) AS BIGINT)) % 3 = 2", bucket.getUpperClause());
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit nulls =
+      (DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(3);
+    Assert.assertEquals("id IS NULL", nulls.getLowerClause());
+  }
+}
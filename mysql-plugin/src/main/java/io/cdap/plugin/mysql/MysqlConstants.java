@@ -39,6 +39,7 @@ public final class MysqlConstants {
   public static final String TRUST_CERT_KEYSTORE_PASSWORD = "trustCertificateKeyStorePassword";
   public static final String MYSQL_CONNECTION_STRING_FORMAT = "jdbc:mysql://%s:%s/%s";
   public static final String USE_CURSOR_FETCH = "useCursorFetch";
+  public static final String SPLIT_MODE_PARTITION = "partition";
 
   /**
    * Query to set SQL_MODE system variable.
@@ -34,10 +34,13 @@ import io.cdap.plugin.common.LineageRecorder;
 import io.cdap.plugin.db.SchemaReader;
 import io.cdap.plugin.db.config.AbstractDBSpecificSourceConfig;
 import io.cdap.plugin.db.source.AbstractDBSource;
+import io.cdap.plugin.db.source.MysqlPartitionSplitPlanner;
+import io.cdap.plugin.db.source.SplitPlanner;
 import io.cdap.plugin.util.DBUtils;
 import org.apache.hadoop.mapreduce.lib.db.DBWritable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
@@ -84,6 +87,13 @@ public class MysqlSource extends AbstractDBSource<MysqlSource.MysqlSourceConfig>
     return new MysqlSchemaReader(null);
   }
 
+  @Nullable
+  @Override
+  protected Class<? extends SplitPlanner> getSplitPlanner() {
+    return MysqlConstants.SPLIT_MODE_PARTITION.equals(mysqlSourceConfig.getSplitMode())
+      ? MysqlPartitionSplitPlanner.class : null;
+  }
+
   /**
    * MySQL source config.
    */
@@ -187,6 +197,11 @@ public class MysqlSource extends AbstractDBSource<MysqlSource.MysqlSourceConfig>
       return connection;
     }
 
+    @Override
+    protected List<String> getSplitModes() {
+      return Arrays.asList(SPLIT_MODE_RANGE, MysqlConstants.SPLIT_MODE_PARTITION);
+    }
+
     @Override
     public void validate(FailureCollector collector) {
       ConfigUtil.validateConnection(this, useConnection, connection, collector);
@@ -38,6 +38,11 @@ public final class OracleConstants {
   public static final String NAME_DATABASE = "database";
   public static final String TNS_CONNECTION_TYPE = "TNS";
   public static final String TRANSACTION_ISOLATION_LEVEL = "transactionIsolationLevel";
+  public static final String SPLIT_MODE_ROWID = "rowid";
+  public static final String CONSISTENT_SNAPSHOT = "consistentSnapshot";
+  public static final String CURRENT_SCN_QUERY = "SELECT DBMS_FLASHBACK.GET_SYSTEM_CHANGE_NUMBER FROM DUAL";
+  public static final String ENABLE_FLASHBACK_QUERY_FORMAT =
+    "BEGIN DBMS_FLASHBACK.ENABLE_AT_SYSTEM_CHANGE_NUMBER(%d); END;";
 
   /**
    * Returns the Connection String for the given ConnectionType.
@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.oracle;
+
+import io.cdap.plugin.db.source.HashSplitPlanner;
+
+/**
+ * Splits an Oracle table into buckets computed by ORA_HASH from the split-by field.
+ */
+public class OracleHashSplitPlanner extends HashSplitPlanner {
+
+  @Override
+  protected String getBucketExpression(String column, int numSplits) {
+    // ORA_HASH returns a bucket between 0 and the maximum bucket given as its second argument
+    return String.format("ORA_HASH(%s, %d)", column, numSplits - 1);
+  }
+}
@@ -16,6 +16,7 @@
 
 package io.cdap.plugin.oracle;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import io.cdap.cdap.api.annotation.Description;
 import io.cdap.cdap.api.annotation.Macro;
@@ -33,9 +34,17 @@ import io.cdap.plugin.common.LineageRecorder;
 import io.cdap.plugin.db.SchemaReader;
 import io.cdap.plugin.db.config.AbstractDBSpecificSourceConfig;
 import io.cdap.plugin.db.source.AbstractDBSource;
+import io.cdap.plugin.db.source.SplitPlanner;
 import io.cdap.plugin.util.DBUtils;
 import org.apache.hadoop.mapreduce.lib.db.DBWritable;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 
@@ -71,6 +80,34 @@ public class OracleSource extends AbstractDBSource<OracleSource.OracleSourceConf
     return OracleSourceDBRecord.class;
   }
 
+  @Nullable
+  @Override
+  protected Class<? extends SplitPlanner> getSplitPlanner() {
+    String splitMode = oracleSourceConfig.getSplitMode();
+    if (OracleSourceConfig.SPLIT_MODE_HASH.equals(splitMode)) {
+      return OracleHashSplitPlanner.class;
+    }
+    return OracleConstants.SPLIT_MODE_ROWID.equals(splitMode) ? OracleSplitPlanner.class : null;
+  }
+
+  @Nullable
+  @Override
+  protected Snapshot getSnapshot() {
+    return Boolean.TRUE.equals(oracleSourceConfig.consistentSnapshot) ? OracleSource::createSnapshot : null;
+  }
+
+  @VisibleForTesting
+  static List<String> createSnapshot(Connection connection) throws SQLException {
+    // every split reads the data as of the current SCN, with Flashback Query enabled for its whole session. The SCN
+    // does not depend on the connection that read it, which is closed right away
+    try (Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery(OracleConstants.CURRENT_SCN_QUERY)) {
+      resultSet.next();
+      return Collections.singletonList(
+        String.format(OracleConstants.ENABLE_FLASHBACK_QUERY_FORMAT, resultSet.getLong(1)));
+    }
+  }
+
   @Override
   protected LineageRecorder getLineageRecorder(BatchSourceContext context) {
     String fqn = DBUtils.constructFQN("oracle",
@@ -113,6 +150,14 @@ public class OracleSource extends AbstractDBSource<OracleSource.OracleSourceConf
     @Nullable
     private Integer defaultRowPrefetch;
 
+    @Name(OracleConstants.CONSISTENT_SNAPSHOT)
+    @Description("Whether all the splits read the data as of the same SCN, taken when the run starts, so that a " +
+      "read in several splits is consistent. Requires the EXECUTE privilege on DBMS_FLASHBACK, and enough undo " +
+      "retention for the duration of the run. Defaults to false.")
+    @Macro
+    @Nullable
+    private Boolean consistentSnapshot;
+
     public OracleSourceConfig(String host, int port, String user, String password, String jdbcPluginName,
                               String connectionArguments, String connectionType, String database, String role,
                               int defaultBatchValue, int defaultRowPrefetch,
@@ -153,6 +198,11 @@ public class OracleSource extends AbstractDBSource<OracleSource.OracleSourceConf
       return connection;
     }
 
+    @Override
+    protected List<String> getSplitModes() {
+      return Arrays.asList(SPLIT_MODE_RANGE, OracleConstants.SPLIT_MODE_ROWID, SPLIT_MODE_HASH);
+    }
+
     @Override
     public void validate(FailureCollector collector) {
       ConfigUtil.validateConnection(this, useConnection, connection, collector);
@@ -0,0 +1,270 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.oracle;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.cdap.plugin.db.source.DataDrivenETLDBInputFormat;
+import io.cdap.plugin.db.source.PartitionGroups;
+import io.cdap.plugin.db.source.SplitPlanner;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Splits an Oracle table from its physical layout.
+ * <p>
+ * A partitioned table is split along its subpartitions, or its partitions if it has no subpartitions, in the order of
+ * their positions. Consecutive partitions are grouped into splits of about the same number of rows, according to the
+ * statistics of the partitions, and every split replaces the table in the import query with a PARTITION or
+ * SUBPARTITION clause, or with the union of the clauses of its partitions.
+ * <p>
+ * Other tables are split into ROWID ranges, in the same way as DBMS_PARALLEL_EXECUTE.CREATE_CHUNKS_BY_ROWID: the
+ * extents of the table are sorted by file and block, and consecutive extents are grouped into splits of about the
+ * same number of blocks. Every split then reads contiguous blocks of the table, up to the first block of the next
+ * split. The first and last splits are not bounded, so that the rows in extents allocated after the splits were
+ * computed are also read. The table is read as a single split if the user cannot read DBA_EXTENTS.
+ */
+public class OracleSplitPlanner implements SplitPlanner {
+  private static final Logger LOG = LoggerFactory.getLogger(OracleSplitPlanner.class);
+  private static final String SUBPARTITIONS_QUERY = "SELECT s.subpartition_name, NVL(s.num_rows, 0) " +
+    "FROM all_tab_subpartitions s JOIN all_tab_partitions p ON p.table_owner = s.table_owner " +
+    "AND p.table_name = s.table_name AND p.partition_name = s.partition_name " +
+    "WHERE s.table_owner = ? AND s.table_name = ? ORDER BY p.partition_position, s.subpartition_position";
+  private static final String PARTITIONS_QUERY = "SELECT partition_name, NVL(num_rows, 0) FROM all_tab_partitions " +
+    "WHERE table_owner = ? AND table_name = ? ORDER BY partition_position";
+  private static final String EXTENTS_QUERY = "SELECT o.data_object_id, e.relative_fno, e.block_id, e.blocks " +
+    "FROM dba_extents e JOIN dba_objects o ON o.owner = e.owner AND o.object_name = e.segment_name " +
+    "AND o.object_type = 'TABLE' WHERE e.owner = ? AND e.segment_name = ? AND e.segment_type = 'TABLE' " +
+    "ORDER BY e.relative_fno, e.block_id";
+  private static final String CURRENT_SCHEMA_QUERY = "SELECT SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA') FROM DUAL";
+  private static final String ROWID_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+  private static final String NO_BOUND = "1=1";
+  // error codes of a query on a view that the user is not allowed to read
+  private static final int TABLE_DOES_NOT_EXIST = 942;
+  private static final int INSUFFICIENT_PRIVILEGES = 1031;
+
+  @Override
+  public List<InputSplit> getSplits(Connection connection, String table, int numSplits) throws SQLException {
+    String owner;
+    String name;
+    int separator = table.lastIndexOf('.');
+    if (separator > 0) {
+      owner = toCatalogName(table.substring(0, separator));
+      name = toCatalogName(table.substring(separator + 1));
+    } else {
+      owner = getCurrentSchema(connection);
+      name = toCatalogName(table);
+    }
+
+    List<Partition> subpartitions = getPartitions(connection, SUBPARTITIONS_QUERY, owner, name);
+    if (!subpartitions.isEmpty()) {
+      return getPartitionSplits(table, "SUBPARTITION", subpartitions, numSplits);
+    }
+    List<Partition> partitions = getPartitions(connection, PARTITIONS_QUERY, owner, name);
+    if (!partitions.isEmpty()) {
+      return getPartitionSplits(table, "PARTITION", partitions, numSplits);
+    }
+    return getRowidSplits(getExtents(connection, owner, name), numSplits);
+  }
+
+  /**
+   * Groups the given partitions, in the order of their positions, into splits of about the same number of rows. A
+   * split of a single partition reads it with a partition extension clause, and a split of several partitions reads
+   * the union of their partition extension clauses under the name of the table.
+   *
+   * @param table the split table, as written in the import query
+   * @param extension PARTITION or SUBPARTITION
+   */
+  @VisibleForTesting
+  static List<InputSplit> getPartitionSplits(String table, String extension, List<Partition> partitions,
+                                             int numSplits) {
+    List<InputSplit> splits = new ArrayList<>();
+    for (List<Partition> group : PartitionGroups.group(partitions, partition -> partition.rows, numSplits)) {
+      List<String> reads = new ArrayList<>();
+      for (Partition partition : group) {
+        reads.add(String.format("%s %s (\"%s\")", table, extension, partition.name));
+      }
+      if (reads.size() == 1) {
+        splits.add(new DataDrivenETLDBInputFormat.PlannedInputSplit(NO_BOUND, NO_BOUND, table, reads.get(0)));
+      } else {
+        String union = reads.stream().map(read -> "SELECT * FROM " + read)
+          .collect(Collectors.joining(" UNION ALL ", "(", ")"));
+        splits.add(new DataDrivenETLDBInputFormat.PlannedInputSplit(NO_BOUND, NO_BOUND, table, union,
+                                                                    getAlias(table)));
+      }
+    }
+    return splits;
+  }
+
+  /**
+   * Returns the name that columns qualified with the given table are qualified with, which is the table name without
+   * its schema.
+   */
+  private static String getAlias(String table) {
+    String trimmed = table.trim();
+    if (trimmed.endsWith("\"")) {
+      int start = trimmed.lastIndexOf('"', trimmed.length() - 2);
+      return start < 0 ? trimmed : trimmed.substring(start);
+    }
+    return trimmed.substring(trimmed.lastIndexOf('.') + 1);
+  }
+
+  /**
+   * Groups the given extents, sorted by file and block, into ROWID ranges of about the same number of blocks. Every
+   * range ends where the next one starts, so that the ranges cover all the rows between the first and last extents.
+   */
+  @VisibleForTesting
+  static List<InputSplit> getRowidSplits(List<Extent> extents, int numSplits) {
+    List<List<Extent>> groups = PartitionGroups.group(extents, extent -> extent.blocks, numSplits);
+    List<InputSplit> splits = new ArrayList<>();
+    for (int i = 0; i < groups.size(); i++) {
+      String lowerClause = i == 0 ? NO_BOUND
+        : String.format("ROWID >= CHARTOROWID('%s')", getFirstRowid(groups.get(i)));
+      String upperClause = i == groups.size() - 1 ? NO_BOUND
+        : String.format("ROWID < CHARTOROWID('%s')", getFirstRowid(groups.get(i + 1)));
+      splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(lowerClause, upperClause));
+    }
+    return splits;
+  }
+
+  private static String getFirstRowid(List<Extent> extents) {
+    Extent first = extents.get(0);
+    return toRowid(first.dataObjectId, first.file, first.block, 0);
+  }
+
+  /**
+   * Returns the extended ROWID of the given row, made of the data object number, the relative file number, the block
+   * number and the row number in base 64.
+   */
+  @VisibleForTesting
+  static String toRowid(long dataObjectId, long file, long block, int row) {
+    StringBuilder rowid = new StringBuilder();
+    appendBase64(rowid, dataObjectId, 6);
+    appendBase64(rowid, file, 3);
+    appendBase64(rowid, block, 6);
+    appendBase64(rowid, row, 3);
+    return rowid.toString();
+  }
+
+  private static void appendBase64(StringBuilder builder, long value, int length) {
+    for (int i = length - 1; i >= 0; i--) {
+      builder.append(ROWID_ALPHABET.charAt((int) ((value >> (6 * i)) & 63)));
+    }
+  }
+
+  /**
+   * Returns the extents of the given table, or no extents if the user cannot read DBA_EXTENTS, which needs the
+   * SELECT_CATALOG_ROLE role or the SELECT ANY DICTIONARY privilege.
+   */
+  private static List<Extent> getExtents(Connection connection, String owner, String name) throws SQLException {
+    List<Extent> extents = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(EXTENTS_QUERY)) {
+      statement.setString(1, owner);
+      statement.setString(2, name);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          extents.add(new Extent(resultSet.getLong(1), resultSet.getLong(2), resultSet.getLong(3),
+                                 resultSet.getLong(4)));
+        }
+      }
+    } catch (SQLException e) {
+      if (e.getErrorCode() != TABLE_DOES_NOT_EXIST && e.getErrorCode() != INSUFFICIENT_PRIVILEGES) {
+        throw e;
+      }
+      LOG.warn("Unable to read the extents of table '{}.{}' from DBA_EXTENTS, it is read as a single split. Grant " +
+                 "the SELECT_CATALOG_ROLE role to the user to split it into ROWID ranges.", owner, name, e);
+    }
+    return extents;
+  }
+
+  private static List<Partition> getPartitions(Connection connection, String query, String owner,
+                                               String name) throws SQLException {
+    List<Partition> partitions = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(query)) {
+      statement.setString(1, owner);
+      statement.setString(2, name);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          partitions.add(new Partition(resultSet.getString(1), resultSet.getLong(2)));
+        }
+      }
+    }
+    return partitions;
+  }
+
+  private static String getCurrentSchema(Connection connection) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(CURRENT_SCHEMA_QUERY);
+         ResultSet resultSet = statement.executeQuery()) {
+      resultSet.next();
+      return resultSet.getString(1);
+    }
+  }
+
+  /**
+   * Returns the name of an identifier in the data dictionary, which is upper case unless it is quoted.
+   */
+  private static String toCatalogName(String identifier) {
+    String trimmed = identifier.trim();
+    if (trimmed.length() > 1 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+      return trimmed.substring(1, trimmed.length() - 1);
+    }
+    return trimmed.toUpperCase(Locale.ROOT);
+  }
+
+  /**
+   * Partition or subpartition of a table, with the number of rows from its last statistics.
+   */
+  @VisibleForTesting
+  static class Partition {
+    private final String name;
+    // every partition weighs at least one row, so that partitions without statistics are still spread over splits
+    private final long rows;
+
+    Partition(String name, long rows) {
+      this.name = name;
+      this.rows = rows + 1;
+    }
+  }
+
+  /**
+   * Contiguous blocks allocated to a table.
+   */
+  @VisibleForTesting
+  static class Extent {
+    private final long dataObjectId;
+    private final long file;
+    private final long block;
+    private final long blocks;
+
+    Extent(long dataObjectId, long file, long block, long blocks) {
+      this.dataObjectId = dataObjectId;
+      this.file = file;
+      this.block = block;
+      this.blocks = blocks;
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.oracle;
+
+import io.cdap.plugin.db.source.DataDrivenETLDBInputFormat;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for {@link OracleSplitPlanner}.
+ */
+public class OracleSplitPlannerTest {
+
+  @Test
+  public void testRowid() {
+    Assert.assertEquals("AAAPecAAFAAAABSAAA", OracleSplitPlanner.toRowid(63388, 5, 82, 0));
+    Assert.assertEquals("AAAPecAAFAAAABSH//", OracleSplitPlanner.toRowid(63388, 5, 82, 32767));
+  }
+
+  @Test
+  public void testExtentsAreGroupedIntoRowidRanges() {
+    List<InputSplit> splits = OracleSplitPlanner.getRowidSplits(Arrays.asList(
+      new OracleSplitPlanner.Extent(63388, 4, 8, 8),
+      new OracleSplitPlanner.Extent(63388, 4, 16, 8),
+      new OracleSplitPlanner.Extent(63388, 5, 8, 8),
+      new OracleSplitPlanner.Extent(63388, 5, 128, 8)), 2);
+    Assert.assertEquals(2, splits.size());
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit first =
+      (DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(0);
+    Assert.assertEquals("1=1", first.getLowerClause());
+    // the first split ends where the second one starts, so that no row between the two is skipped
+    Assert.assertEquals("ROWID < CHARTOROWID('" + OracleSplitPlanner.toRowid(63388, 5, 8, 0) + "')",
+                        first.getUpperClause());
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit last =
+      (DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(1);
+    Assert.assertEquals("ROWID >= CHARTOROWID('" + OracleSplitPlanner.toRowid(63388, 5, 8, 0) + "')",
+                        last.getLowerClause());
+    Assert.assertEquals("1=1", last.getUpperClause());
+  }
+
+  @Test
+  public void testPartitionsAreGroupedIntoSplits() {
+    List<InputSplit> splits = OracleSplitPlanner.getPartitionSplits("hr.events", "PARTITION", Arrays.asList(
+      new OracleSplitPlanner.Partition("P1", 1500),
+      new OracleSplitPlanner.Partition("P2", 10),
+      new OracleSplitPlanner.Partition("P3", 10),
+      new OracleSplitPlanner.Partition("P4", 980)), 2);
+    Assert.assertEquals(2, splits.size());
+    // the partitions of a split are read under the name of the table, so that qualified columns still resolve
+    Assert.assertEquals("SELECT events.id FROM hr.events PARTITION (\"P1\") WHERE ( 1=1 )",
+                        ((DataDrivenETLDBInputFormat.PlannedInputSplit) splits.get(0))
+                          .rewrite("SELECT events.id FROM hr.events WHERE ( 1=1 )"));
+    Assert.assertEquals("SELECT events.id FROM (SELECT * FROM hr.events PARTITION (\"P2\") UNION ALL " +
+                          "SELECT * FROM hr.events PARTITION (\"P3\") UNION ALL " +
+                          "SELECT * FROM hr.events PARTITION (\"P4\")) events WHERE ( 1=1 )",
+                        ((DataDrivenETLDBInputFormat.PlannedInputSplit) splits.get(1))
+                          .rewrite("SELECT events.id FROM hr.events WHERE ( 1=1 )"));
+  }
+
+  @Test
+  public void testPartitionsWithoutStatisticsAreSpreadOverSplits() {
+    List<InputSplit> splits = OracleSplitPlanner.getPartitionSplits("events", "SUBPARTITION", Arrays.asList(
+      new OracleSplitPlanner.Partition("S1", 0),
+      new OracleSplitPlanner.Partition("S2", 0),
+      new OracleSplitPlanner.Partition("S3", 0),
+      new OracleSplitPlanner.Partition("S4", 0)), 2);
+    Assert.assertEquals(2, splits.size());
+    Assert.assertEquals("SELECT * FROM (SELECT * FROM events SUBPARTITION (\"S1\") UNION ALL " +
+                          "SELECT * FROM events SUBPARTITION (\"S2\")) e",
+                        ((DataDrivenETLDBInputFormat.PlannedInputSplit) splits.get(0))
+                          .rewrite("SELECT * FROM events e"));
+  }
+
+  @Test
+  public void testTableIsReadAsSingleSplitWithoutExtents() throws SQLException {
+    ResultSet noNames = Mockito.mock(ResultSet.class);
+    PreparedStatement namesStatement = Mockito.mock(PreparedStatement.class);
+    Mockito.when(namesStatement.executeQuery()).thenReturn(noNames);
+    PreparedStatement extentsStatement = Mockito.mock(PreparedStatement.class);
+    Mockito.when(extentsStatement.executeQuery())
+      .thenThrow(new SQLException("ORA-00942: table or view does not exist", "42000", 942));
+    Connection connection = Mockito.mock(Connection.class);
+    Mockito.when(connection.prepareStatement(Mockito.contains("all_tab_"))).thenReturn(namesStatement);
+    Mockito.when(connection.prepareStatement(Mockito.contains("dba_extents"))).thenReturn(extentsStatement);
+
+    Assert.assertTrue(new OracleSplitPlanner().getSplits(connection, "hr.events", 4).isEmpty());
+  }
+
+  @Test
+  public void testPartitionedTableIsSplitByPartition() throws SQLException {
+    ResultSet noSubpartitions = Mockito.mock(ResultSet.class);
+    ResultSet partitions = Mockito.mock(ResultSet.class);
+    Mockito.when(partitions.next()).thenReturn(true, true, false);
+    Mockito.when(partitions.getString(1)).thenReturn("P_2022", "P_2023");
+    PreparedStatement subpartitionsStatement = Mockito.mock(PreparedStatement.class);
+    Mockito.when(subpartitionsStatement.executeQuery()).thenReturn(noSubpartitions);
+    PreparedStatement partitionsStatement = Mockito.mock(PreparedStatement.class);
+    Mockito.when(partitionsStatement.executeQuery()).thenReturn(partitions);
+    Connection connection = Mockito.mock(Connection.class);
+    Mockito.when(connection.prepareStatement(Mockito.contains("all_tab_subpartitions")))
+      .thenReturn(subpartitionsStatement);
+    Mockito.when(connection.prepareStatement(Mockito.contains("all_tab_partitions"))).thenReturn(partitionsStatement);
+
+    List<InputSplit> splits = new OracleSplitPlanner().getSplits(connection, "hr.events", 4);
+    Assert.assertEquals(2, splits.size());
+    Mockito.verify(partitionsStatement).setString(1, "HR");
+    Mockito.verify(partitionsStatement).setString(2, "EVENTS");
+    DataDrivenETLDBInputFormat.PlannedInputSplit split = (DataDrivenETLDBInputFormat.PlannedInputSplit) splits.get(1);
+    Assert.assertEquals("1=1", split.getLowerClause());
+  }
+}
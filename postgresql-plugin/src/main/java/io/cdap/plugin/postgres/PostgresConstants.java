@@ -27,5 +27,9 @@ public final class PostgresConstants {
 
   public static final String PLUGIN_NAME = "Postgres";
   public static final String CONNECTION_TIMEOUT = "connectionTimeout";
+  public static final String SPLIT_MODE_BLOCK = "block";
+  public static final String CONSISTENT_SNAPSHOT = "consistentSnapshot";
+  public static final String EXPORT_SNAPSHOT_QUERY = "SELECT pg_export_snapshot()";
+  public static final String SET_TRANSACTION_SNAPSHOT_QUERY_FORMAT = "SET TRANSACTION SNAPSHOT '%s'";
   public static final String POSTGRES_CONNECTION_STRING_WITH_DB_FORMAT = "jdbc:postgresql://%s:%s/%s";
 }
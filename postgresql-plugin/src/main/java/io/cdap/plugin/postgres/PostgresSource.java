@@ -16,7 +16,9 @@
 
 package io.cdap.plugin.postgres;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.cdap.cdap.api.annotation.Description;
 import io.cdap.cdap.api.annotation.Macro;
 import io.cdap.cdap.api.annotation.Metadata;
@@ -32,12 +34,23 @@ import io.cdap.plugin.common.Asset;
 import io.cdap.plugin.common.ConfigUtil;
 import io.cdap.plugin.common.LineageRecorder;
 import io.cdap.plugin.db.SchemaReader;
+import io.cdap.plugin.db.TransactionIsolationLevel;
 import io.cdap.plugin.db.config.AbstractDBSpecificSourceConfig;
 import io.cdap.plugin.db.source.AbstractDBSource;
+import io.cdap.plugin.db.source.SplitPlanner;
 import io.cdap.plugin.util.DBUtils;
 import org.apache.hadoop.mapreduce.lib.db.DBWritable;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import javax.annotation.Nullable;
 
 /**
@@ -72,6 +85,51 @@ public class PostgresSource extends AbstractDBSource<PostgresSource.PostgresSour
     return PostgresDBRecord.class;
   }
 
+  @Nullable
+  @Override
+  protected Class<? extends SplitPlanner> getSplitPlanner() {
+    String splitMode = postgresSourceConfig.getSplitMode();
+    if (PostgresSourceConfig.SPLIT_MODE_HASH.equals(splitMode)) {
+      return PostgresHashSplitPlanner.class;
+    }
+    return PostgresConstants.SPLIT_MODE_BLOCK.equals(splitMode) ? PostgresSplitPlanner.class : null;
+  }
+
+  @Nullable
+  @Override
+  protected Snapshot getSnapshot() {
+    if (!Boolean.TRUE.equals(postgresSourceConfig.consistentSnapshot)) {
+      return null;
+    }
+    return new Snapshot() {
+      @Override
+      public List<String> take(Connection connection) throws SQLException {
+        return createSnapshot(connection, postgresSourceConfig.getTransactionIsolationLevel());
+      }
+
+      @Override
+      public boolean isHeld() {
+        // the snapshot can only be imported while the transaction that exported it is open
+        return true;
+      }
+    };
+  }
+
+  @VisibleForTesting
+  static List<String> createSnapshot(Connection connection, @Nullable String transactionIsolationLevel)
+    throws SQLException {
+    // the snapshot is only exported for as long as its transaction is open, and a serializable split can only
+    // import the snapshot of a serializable transaction
+    connection.setAutoCommit(false);
+    connection.setTransactionIsolation(TransactionIsolationLevel.getLevel(transactionIsolationLevel));
+    try (Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery(PostgresConstants.EXPORT_SNAPSHOT_QUERY)) {
+      resultSet.next();
+      return Collections.singletonList(
+        String.format(PostgresConstants.SET_TRANSACTION_SNAPSHOT_QUERY_FORMAT, resultSet.getString(1)));
+    }
+  }
+
   @Override
   protected LineageRecorder getLineageRecorder(BatchSourceContext context) {
     String fqn = DBUtils.constructFQN("postgres",
@@ -91,6 +149,11 @@ public class PostgresSource extends AbstractDBSource<PostgresSource.PostgresSour
     public static final String NAME_USE_CONNECTION = "useConnection";
     public static final String NAME_CONNECTION = "connection";
     public static final String DEFAULT_CONNECTION_TIMEOUT_SECONDS = "100";
+    // isolation levels whose transactions can not import an exported snapshot
+    private static final Set<String> NON_SNAPSHOT_LEVELS = ImmutableSet.of(
+      TransactionIsolationLevel.Level.TRANSACTION_NONE.name(),
+      TransactionIsolationLevel.Level.TRANSACTION_READ_UNCOMMITTED.name(),
+      TransactionIsolationLevel.Level.TRANSACTION_READ_COMMITTED.name());
 
     @Name(NAME_USE_CONNECTION)
     @Nullable
@@ -110,6 +173,14 @@ public class PostgresSource extends AbstractDBSource<PostgresSource.PostgresSour
     @Nullable
     public Integer connectionTimeout;
 
+    @Name(PostgresConstants.CONSISTENT_SNAPSHOT)
+    @Description("Whether all the splits read from the same snapshot of the database, exported when the run starts, " +
+      "so that a read in several splits is consistent. The transaction that exports the snapshot stays open until " +
+      "the end of the run. Defaults to false.")
+    @Macro
+    @Nullable
+    private Boolean consistentSnapshot;
+
     @Override
     public String getConnectionString() {
       return String
@@ -133,10 +204,23 @@ public class PostgresSource extends AbstractDBSource<PostgresSource.PostgresSour
       return connection;
     }
 
+    @Override
+    protected List<String> getSplitModes() {
+      return Arrays.asList(SPLIT_MODE_RANGE, PostgresConstants.SPLIT_MODE_BLOCK, SPLIT_MODE_HASH);
+    }
+
     @Override
     public void validate(FailureCollector collector) {
       ConfigUtil.validateConnection(this, useConnection, connection, collector);
       super.validate(collector);
+      String level = getTransactionIsolationLevel();
+      if (Boolean.TRUE.equals(consistentSnapshot) && level != null
+        && NON_SNAPSHOT_LEVELS.contains(level.toUpperCase(Locale.ROOT))) {
+        collector.addFailure(
+          String.format("A consistent snapshot can not be read with transaction isolation level '%s'.", level),
+          "Use the TRANSACTION_REPEATABLE_READ or TRANSACTION_SERIALIZABLE isolation level.")
+          .withConfigProperty(PostgresConstants.CONSISTENT_SNAPSHOT);
+      }
     }
 
     @Override
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.postgres;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.cdap.plugin.db.source.DataDrivenETLDBInputFormat;
+import io.cdap.plugin.db.source.SplitPlanner;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a PostgreSQL table into ranges of its physical blocks, selected with conditions on the ctid system column.
+ * From PostgreSQL 14, these conditions run as TID range scans, which read the blocks of a split sequentially without
+ * an index or a sort.
+ * <p>
+ * Every leaf partition of a partitioned table is split separately, by replacing the table with the partition in the
+ * import query, and the number of splits is spread over the partitions by size. The last split of every table has no
+ * upper bound, so that it also reads the rows added at the end of the table after the splits were computed.
+ */
+public class PostgresSplitPlanner implements SplitPlanner {
+  private static final Logger LOG = LoggerFactory.getLogger(PostgresSplitPlanner.class);
+  private static final int TID_RANGE_SCAN_VERSION = 14;
+  // the relations of the table that have storage, that is the leaf partitions of a partitioned table, the table and
+  // its children for inheritance, or the table itself, with their current number of blocks
+  private static final String RELATIONS_QUERY = "WITH RECURSIVE tree AS (SELECT ?::regclass::oid AS relid " +
+    "UNION ALL SELECT i.inhrelid FROM pg_inherits i JOIN tree t ON i.inhparent = t.relid) " +
+    "SELECT c.oid::regclass::text, pg_relation_size(c.oid) / current_setting('block_size')::bigint " +
+    "FROM tree t JOIN pg_class c ON c.oid = t.relid WHERE c.relkind <> 'p' ORDER BY 1";
+  private static final String NO_BOUND = "1=1";
+
+  @Override
+  public List<InputSplit> getSplits(Connection connection, String table, int numSplits) throws SQLException {
+    if (connection.getMetaData().getDatabaseMajorVersion() < TID_RANGE_SCAN_VERSION) {
+      LOG.warn("Block range splits scan the whole table for every split before PostgreSQL {}.",
+               TID_RANGE_SCAN_VERSION);
+    }
+    List<Relation> relations = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(RELATIONS_QUERY)) {
+      statement.setString(1, table);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          relations.add(new Relation(resultSet.getString(1), resultSet.getLong(2)));
+        }
+      }
+    }
+    long totalBlocks = relations.stream().mapToLong(relation -> relation.blocks).sum();
+
+    List<InputSplit> splits = new ArrayList<>();
+    for (Relation relation : relations) {
+      long relationSplits = totalBlocks == 0 ? 1 : Math.max(1, Math.round((double) numSplits * relation.blocks
+                                                                             / totalBlocks));
+      long blocksPerSplit = Math.max(1, (relation.blocks + relationSplits - 1) / relationSplits);
+      long lowerBlock = 0;
+      do {
+        long upperBlock = lowerBlock + blocksPerSplit;
+        String lowerClause = lowerBlock == 0 ? NO_BOUND : String.format("ctid >= '(%d,0)'::tid", lowerBlock);
+        String upperClause = upperBlock >= relation.blocks ? NO_BOUND
+          : String.format("ctid < '(%d,0)'::tid", upperBlock);
+        // the relations other than a table without partitions or children are read with ONLY to skip their children,
+        // under the name of the table so that the columns qualified with it still resolve
+        splits.add(relations.size() == 1 ? new DataDrivenDBInputFormat.DataDrivenDBInputSplit(lowerClause, upperClause)
+                     : new DataDrivenETLDBInputFormat.PlannedInputSplit(lowerClause, upperClause, table,
+                                                                        "ONLY " + relation.name, getAlias(table)));
+        lowerBlock = upperBlock;
+      } while (lowerBlock < relation.blocks);
+    }
+    return splits;
+  }
+
+  /**
+   * Returns the name that columns qualified with the given table are qualified with, which is the table name without
+   * its schema.
+   */
+  @VisibleForTesting
+  static String getAlias(String table) {
+    String trimmed = table.trim();
+    if (trimmed.endsWith("\"")) {
+      int start = trimmed.lastIndexOf('"', trimmed.length() - 2);
+      return start < 0 ? trimmed : trimmed.substring(start);
+    }
+    return trimmed.substring(trimmed.lastIndexOf('.') + 1);
+  }
+
+  /**
+   * A table or partition with storage.
+   */
+  private static class Relation {
+    private final String name;
+    private final long blocks;
+
+    Relation(String name, long blocks) {
+      this.name = name;
+      this.blocks = blocks;
+    }
+  }
+}
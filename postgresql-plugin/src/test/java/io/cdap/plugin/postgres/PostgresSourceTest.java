@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.postgres;
+
+import io.cdap.plugin.db.TransactionIsolationLevel;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+
+/**
+ * Unit tests for the consistent snapshot of {@link PostgresSource}.
+ */
+public class PostgresSourceTest {
+
+  @Test
+  public void testSnapshotIsExportedFromOpenTransaction() throws SQLException {
+    ResultSet resultSet = Mockito.mock(ResultSet.class);
+    Mockito.when(resultSet.next()).thenReturn(true);
+    Mockito.when(resultSet.getString(1)).thenReturn("00000003-0000001B-1");
+    Statement statement = Mockito.mock(Statement.class);
+    Mockito.when(statement.executeQuery(PostgresConstants.EXPORT_SNAPSHOT_QUERY)).thenReturn(resultSet);
+    Connection connection = Mockito.mock(Connection.class);
+    Mockito.when(connection.createStatement()).thenReturn(statement);
+
+    Assert.assertEquals(Collections.singletonList("SET TRANSACTION SNAPSHOT '00000003-0000001B-1'"),
+                        PostgresSource.createSnapshot(connection, null));
+    InOrder inOrder = Mockito.inOrder(connection, statement);
+    inOrder.verify(connection).setAutoCommit(false);
+    inOrder.verify(connection).setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+    inOrder.verify(statement).executeQuery("SELECT pg_export_snapshot()");
+  }
+
+  @Test
+  public void testSnapshotIsExportedWithIsolationLevelOfSplits() throws SQLException {
+    ResultSet resultSet = Mockito.mock(ResultSet.class);
+    Mockito.when(resultSet.next()).thenReturn(true);
+    Mockito.when(resultSet.getString(1)).thenReturn("00000003-0000001B-1");
+    Statement statement = Mockito.mock(Statement.class);
+    Mockito.when(statement.executeQuery(PostgresConstants.EXPORT_SNAPSHOT_QUERY)).thenReturn(resultSet);
+    Connection connection = Mockito.mock(Connection.class);
+    Mockito.when(connection.createStatement()).thenReturn(statement);
+
+    PostgresSource.createSnapshot(connection, TransactionIsolationLevel.Level.TRANSACTION_REPEATABLE_READ.name());
+    Mockito.verify(connection).setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+  }
+}
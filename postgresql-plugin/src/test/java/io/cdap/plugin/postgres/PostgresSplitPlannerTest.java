@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.postgres;
+
+import io.cdap.plugin.db.source.DataDrivenETLDBInputFormat;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for {@link PostgresSplitPlanner}.
+ */
+public class PostgresSplitPlannerTest {
+
+  @Test
+  public void testTableIsSplitIntoBlockRanges() throws SQLException {
+    List<InputSplit> splits = new PostgresSplitPlanner().getSplits(mockRelations(new String[] {"my_table"},
+                                                                                 new long[] {100}), "my_table", 3);
+    Assert.assertEquals(Arrays.asList("1=1 | ctid < '(34,0)'::tid",
+                                      "ctid >= '(34,0)'::tid | ctid < '(68,0)'::tid",
+                                      "ctid >= '(68,0)'::tid | 1=1"),
+                        getClauses(splits));
+    for (InputSplit split : splits) {
+      Assert.assertFalse(split instanceof DataDrivenETLDBInputFormat.PlannedInputSplit);
+    }
+  }
+
+  @Test
+  public void testPartitionsAreSplitSeparately() throws SQLException {
+    List<InputSplit> splits = new PostgresSplitPlanner().getSplits(
+      mockRelations(new String[] {"events_2022", "events_2023", "events_default"}, new long[] {30, 10, 0}),
+      "events", 4);
+    // the splits are spread over the partitions by size, with one split at least per partition
+    Assert.assertEquals(Arrays.asList("1=1 | ctid < '(10,0)'::tid",
+                                      "ctid >= '(10,0)'::tid | ctid < '(20,0)'::tid",
+                                      "ctid >= '(20,0)'::tid | 1=1",
+                                      "1=1 | 1=1",
+                                      "1=1 | 1=1"),
+                        getClauses(splits));
+    for (InputSplit split : splits) {
+      Assert.assertTrue(split instanceof DataDrivenETLDBInputFormat.PlannedInputSplit);
+    }
+  }
+
+  @Test
+  public void testPartitionsAreAliasedWithTableName() {
+    Assert.assertEquals("orders", PostgresSplitPlanner.getAlias("orders"));
+    Assert.assertEquals("orders", PostgresSplitPlanner.getAlias("sales.orders"));
+    Assert.assertEquals("\"Orders.2023\"", PostgresSplitPlanner.getAlias("sales.\"Orders.2023\""));
+  }
+
+  private static List<String> getClauses(List<InputSplit> splits) {
+    List<String> clauses = new ArrayList<>();
+    for (InputSplit split : splits) {
+      DataDrivenDBInputFormat.DataDrivenDBInputSplit dataSplit = (DataDrivenDBInputFormat.DataDrivenDBInputSplit) split;
+      clauses.add(dataSplit.getLowerClause() + " | " + dataSplit.getUpperClause());
+    }
+    return clauses;
+  }
+
+  private static Connection mockRelations(String[] names, long[] blocks) throws SQLException {
+    ResultSet resultSet = Mockito.mock(ResultSet.class);
+    Boolean[] next = new Boolean[names.length];
+    String[] otherNames = new String[names.length - 1];
+    Long[] otherBlocks = new Long[names.length - 1];
+    for (int i = 1; i < names.length; i++) {
+      next[i - 1] = true;
+      otherNames[i - 1] = names[i];
+      otherBlocks[i - 1] = blocks[i];
+    }
+    next[names.length - 1] = false;
+    Mockito.when(resultSet.next()).thenReturn(true, next);
+    Mockito.when(resultSet.getString(1)).thenReturn(names[0], otherNames);
+    Mockito.when(resultSet.getLong(2)).thenReturn(blocks[0], otherBlocks);
+    PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+    Mockito.when(statement.executeQuery()).thenReturn(resultSet);
+    DatabaseMetaData metaData = Mockito.mock(DatabaseMetaData.class);
+    Mockito.when(metaData.getDatabaseMajorVersion()).thenReturn(14);
+    Connection connection = Mockito.mock(Connection.class);
+    Mockito.when(connection.prepareStatement(Mockito.anyString())).thenReturn(statement);
+    Mockito.when(connection.getMetaData()).thenReturn(metaData);
+    return connection;
+  }
+}
@@ -23,5 +23,6 @@ public class SapHanaConstants {
 
   public static final String SAPHANA_CONNECTION_STRING_FORMAT = "jdbc:sap://%s:%s/";
   public static final String PLUGIN_NAME = "SapHana";
+  public static final String SPLIT_MODE_PARTITION = "partition";
 
 }
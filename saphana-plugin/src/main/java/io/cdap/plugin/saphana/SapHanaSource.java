@@ -24,8 +24,13 @@ import io.cdap.cdap.etl.api.batch.BatchSource;
 import io.cdap.plugin.db.SchemaReader;
 import io.cdap.plugin.db.config.DBSpecificSourceConfig;
 import io.cdap.plugin.db.source.AbstractDBSource;
+import io.cdap.plugin.db.source.SplitPlanner;
 import org.apache.hadoop.mapreduce.lib.db.DBWritable;
 
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nullable;
+
 /**
  * Batch source to read from SAP HANA.
  */
@@ -58,6 +63,12 @@ public class SapHanaSource extends AbstractDBSource<SapHanaSource.SapHanaSourceC
     return SapHanaDBRecord.class;
   }
 
+  @Nullable
+  @Override
+  protected Class<? extends SplitPlanner> getSplitPlanner() {
+    return SapHanaConstants.SPLIT_MODE_PARTITION.equals(sapHanaSourceConfig.getSplitMode())
+      ? SapHanaSplitPlanner.class : null;
+  }
 
   /**
    * SAP HANA specific configuration
@@ -68,6 +79,11 @@ public class SapHanaSource extends AbstractDBSource<SapHanaSource.SapHanaSourceC
     public String getConnectionString() {
       return String.format(SapHanaConstants.SAPHANA_CONNECTION_STRING_FORMAT, host, port);
     }
+
+    @Override
+    protected List<String> getSplitModes() {
+      return Arrays.asList(SPLIT_MODE_RANGE, SapHanaConstants.SPLIT_MODE_PARTITION);
+    }
   }
 }
 
@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.saphana;
+
+import io.cdap.plugin.db.source.DataDrivenETLDBInputFormat;
+import io.cdap.plugin.db.source.PartitionGroups;
+import io.cdap.plugin.db.source.SplitPlanner;
+import org.apache.hadoop.conf.Configured;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.db.DBConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+
+/**
+ * Splits a partitioned SAP HANA column table along its partitions, by replacing the table with a PARTITION clause in
+ * the import query. Consecutive partitions of the same host are grouped into splits of about the same number of rows
+ * if there are more partitions than the requested number of splits.
+ * <p>
+ * If the connection string lists several hosts, every split is read through a connection to the host that holds its
+ * partitions, so that the partitions are not shipped between the hosts of the database.
+ */
+public class SapHanaSplitPlanner extends Configured implements SplitPlanner {
+  private static final Logger LOG = LoggerFactory.getLogger(SapHanaSplitPlanner.class);
+  // a table that is not partitioned has a single part with id 0
+  private static final String PARTITIONS_QUERY = "SELECT PART_ID, HOST, RECORD_COUNT FROM SYS.M_CS_TABLES " +
+    "WHERE SCHEMA_NAME = COALESCE(?, CURRENT_SCHEMA) AND TABLE_NAME = ? AND PART_ID > 0 ORDER BY HOST, PART_ID";
+  private static final String CONNECTION_STRING_PREFIX = "jdbc:sap://";
+  private static final String NO_BOUND = "1=1";
+
+  @Override
+  public List<InputSplit> getSplits(Connection connection, String table, int numSplits) throws SQLException {
+    String schema = null;
+    String name = table;
+    int separator = table.lastIndexOf('.');
+    if (separator > 0) {
+      schema = toCatalogName(table.substring(0, separator));
+      name = table.substring(separator + 1);
+    }
+
+    List<Partition> partitions = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(PARTITIONS_QUERY)) {
+      statement.setString(1, schema);
+      statement.setString(2, toCatalogName(name));
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          partitions.add(new Partition(resultSet.getInt(1), resultSet.getString(2), resultSet.getLong(3)));
+        }
+      }
+    }
+    if (partitions.isEmpty()) {
+      LOG.warn("Table '{}' is not partitioned, it is read as a single split.", table);
+      return Collections.emptyList();
+    }
+
+    String connectionString = getConf().get(DBConfiguration.URL_PROPERTY);
+    List<InputSplit> splits = new ArrayList<>();
+    // a split never spans hosts
+    for (List<Partition> group : PartitionGroups.group(partitions, partition -> partition.rows,
+                                                       partition -> partition.host, numSplits)) {
+      String ids = group.stream().map(partition -> String.valueOf(partition.id)).collect(Collectors.joining(", "));
+      DataDrivenETLDBInputFormat.PlannedInputSplit split = new DataDrivenETLDBInputFormat.PlannedInputSplit(
+        NO_BOUND, NO_BOUND, table, String.format("%s PARTITION (%s)", table, ids));
+      String hostConnectionString = getHostConnectionString(connectionString, group.get(0).host);
+      splits.add(hostConnectionString == null ? split
+                   : new DataDrivenETLDBInputFormat.ShardInputSplit(hostConnectionString, split));
+    }
+    return splits;
+  }
+
+  /**
+   * Returns the connection string to the given host, if the given connection string lists several hosts and one of
+   * them is the given host.
+   */
+  @Nullable
+  static String getHostConnectionString(@Nullable String connectionString, String host) {
+    if (connectionString == null || !connectionString.startsWith(CONNECTION_STRING_PREFIX)) {
+      return null;
+    }
+    int end = connectionString.indexOf('/', CONNECTION_STRING_PREFIX.length());
+    if (end < 0) {
+      end = connectionString.length();
+    }
+    String[] hosts = connectionString.substring(CONNECTION_STRING_PREFIX.length(), end).split(",");
+    if (hosts.length < 2) {
+      return null;
+    }
+    String hostName = host.toLowerCase(Locale.ROOT);
+    for (String address : hosts) {
+      String addressName = address.trim().split(":")[0].toLowerCase(Locale.ROOT);
+      // the host of a partition can be the short name of a host written with its domain in the connection string
+      if (addressName.equals(hostName) || addressName.startsWith(hostName + ".")) {
+        return CONNECTION_STRING_PREFIX + address.trim() + connectionString.substring(end);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the name of an identifier in the catalog, which is upper case unless it is quoted.
+   */
+  private static String toCatalogName(String identifier) {
+    String trimmed = identifier.trim();
+    if (trimmed.length() > 1 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+      return trimmed.substring(1, trimmed.length() - 1);
+    }
+    return trimmed.toUpperCase(Locale.ROOT);
+  }
+
+  /**
+   * A partition of a column table.
+   */
+  private static class Partition {
+    private final int id;
+    private final String host;
+    private final long rows;
+
+    Partition(int id, String host, long rows) {
+      this.id = id;
+      this.host = host;
+      this.rows = rows;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.saphana;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link SapHanaSplitPlanner}.
+ */
+public class SapHanaSplitPlannerTest {
+  private static final String CONNECTION_STRING =
+    "jdbc:sap://hana1.example.com:30015, hana2.example.com:30015,hana10.example.com:30015/?databaseName=HXE";
+
+  @Test
+  public void testHostIsPickedFromMultipleHosts() {
+    Assert.assertEquals("jdbc:sap://hana2.example.com:30015/?databaseName=HXE",
+                        SapHanaSplitPlanner.getHostConnectionString(CONNECTION_STRING, "hana2.example.com"));
+    Assert.assertEquals("jdbc:sap://hana10.example.com:30015/?databaseName=HXE",
+                        SapHanaSplitPlanner.getHostConnectionString(CONNECTION_STRING, "hana10.example.com"));
+  }
+
+  @Test
+  public void testShortHostNameMatchesQualifiedAddress() {
+    Assert.assertEquals("jdbc:sap://hana1.example.com:30015/?databaseName=HXE",
+                        SapHanaSplitPlanner.getHostConnectionString(CONNECTION_STRING, "HANA1"));
+    Assert.assertEquals("jdbc:sap://hana10.example.com:30015/?databaseName=HXE",
+                        SapHanaSplitPlanner.getHostConnectionString(CONNECTION_STRING, "hana10"));
+  }
+
+  @Test
+  public void testNoConnectionStringWithoutMatchingHost() {
+    Assert.assertNull(SapHanaSplitPlanner.getHostConnectionString(CONNECTION_STRING, "hana3"));
+    Assert.assertNull(SapHanaSplitPlanner.getHostConnectionString(CONNECTION_STRING, "hana"));
+    // a single host is already the host of every partition
+    Assert.assertNull(SapHanaSplitPlanner.getHostConnectionString("jdbc:sap://hana1.example.com:30015", "hana1"));
+    Assert.assertNull(SapHanaSplitPlanner.getHostConnectionString("jdbc:other://hana1,hana2", "hana1"));
+    Assert.assertNull(SapHanaSplitPlanner.getHostConnectionString(null, "hana1"));
+  }
+}
@@ -22,4 +22,5 @@ package io.cdap.plugin.teradata;
 public final class TeradataConstants {
   public static final String PLUGIN_NAME = "Teradata";
   public static final String TERADATA_CONNECTION_STRING_FORMAT = "jdbc:teradata://%s/DATABASE=%s,DBS_PORT=%s%s";
+  public static final String SPLIT_MODE_AMP = "amp";
 }
@@ -22,11 +22,14 @@ import io.cdap.cdap.api.annotation.Plugin;
 import io.cdap.cdap.etl.api.batch.BatchSource;
 import io.cdap.plugin.db.SchemaReader;
 import io.cdap.plugin.db.source.AbstractDBSource;
+import io.cdap.plugin.db.source.SplitPlanner;
 import io.cdap.plugin.teradata.TeradataConstants;
 import io.cdap.plugin.teradata.TeradataDBRecord;
 import io.cdap.plugin.teradata.TeradataSchemaReader;
 import org.apache.hadoop.mapreduce.lib.db.DBWritable;
 
+import javax.annotation.Nullable;
+
 /**
  * Batch source to read from Teradata.
  */
@@ -56,4 +59,10 @@ public class TeradataSource extends AbstractDBSource<TeradataSourceConfig> {
   protected SchemaReader getSchemaReader() {
     return new TeradataSchemaReader();
   }
+
+  @Nullable
+  @Override
+  protected Class<? extends SplitPlanner> getSplitPlanner() {
+    return TeradataConstants.SPLIT_MODE_AMP.equals(config.getSplitMode()) ? TeradataSplitPlanner.class : null;
+  }
 }
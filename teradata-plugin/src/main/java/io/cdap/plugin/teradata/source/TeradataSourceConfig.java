@@ -17,8 +17,12 @@
 package io.cdap.plugin.teradata.source;
 
 import io.cdap.plugin.db.config.DBSpecificSourceConfig;
+import io.cdap.plugin.teradata.TeradataConstants;
 import io.cdap.plugin.teradata.TeradataUtils;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Teradata source config.
  */
@@ -28,4 +32,9 @@ public class TeradataSourceConfig extends DBSpecificSourceConfig {
   public String getConnectionString() {
     return TeradataUtils.getConnectionString(host, port, database, connectionArguments);
   }
+
+  @Override
+  protected List<String> getSplitModes() {
+    return Arrays.asList(SPLIT_MODE_RANGE, TeradataConstants.SPLIT_MODE_AMP);
+  }
 }
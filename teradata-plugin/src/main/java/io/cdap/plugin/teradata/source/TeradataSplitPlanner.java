@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.teradata.source;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.cdap.plugin.db.source.SplitPlanner;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Splits a Teradata table by the AMP that owns its rows, computed with HASHAMP from the row hash of the primary
+ * index of the table. Every split reads the rows of a contiguous range of AMPs, so that every row is read by exactly
+ * one split and the AMPs are spread evenly over the splits.
+ */
+public class TeradataSplitPlanner implements SplitPlanner {
+  private static final Logger LOG = LoggerFactory.getLogger(TeradataSplitPlanner.class);
+  // the columns of the primary index, partitioned or not, of the table
+  private static final String PRIMARY_INDEX_QUERY = "SELECT ColumnName FROM DBC.IndicesV " +
+    "WHERE DatabaseName = COALESCE(?, DATABASE) AND TableName = ? AND IndexType IN ('P', 'Q') " +
+    "ORDER BY ColumnPosition";
+  private static final String AMPS_QUERY = "SELECT HASHAMP() + 1";
+
+  @Override
+  public List<InputSplit> getSplits(Connection connection, String table, int numSplits) throws SQLException {
+    String database = null;
+    String name = table;
+    int separator = table.lastIndexOf('.');
+    if (separator > 0) {
+      database = unquote(table.substring(0, separator));
+      name = table.substring(separator + 1);
+    }
+
+    List<String> columns = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(PRIMARY_INDEX_QUERY)) {
+      statement.setString(1, database);
+      statement.setString(2, unquote(name));
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          columns.add(resultSet.getString(1).trim());
+        }
+      }
+    }
+    if (columns.isEmpty()) {
+      LOG.warn("Table '{}' has no primary index, it is read as a single split.", table);
+      return Collections.emptyList();
+    }
+
+    int amps;
+    try (PreparedStatement statement = connection.prepareStatement(AMPS_QUERY);
+         ResultSet resultSet = statement.executeQuery()) {
+      resultSet.next();
+      amps = resultSet.getInt(1);
+    }
+
+    String amp = String.format("HASHAMP(HASHBUCKET(HASHROW(%s)))", columns.stream()
+      .map(column -> "\"" + column.replace("\"", "\"\"") + "\"").collect(Collectors.joining(", ")));
+    return getAmpSplits(amp, amps, numSplits);
+  }
+
+  /**
+   * Spreads the given number of AMPs over contiguous ranges, one per split, with at most one AMP more in a range than
+   * in another.
+   *
+   * @param amp the expression of the AMP of a row
+   * @param amps the number of AMPs of the system
+   * @param numSplits the requested number of splits, reduced to the number of AMPs if there are fewer AMPs
+   */
+  @VisibleForTesting
+  static List<InputSplit> getAmpSplits(String amp, int amps, int numSplits) {
+    int splitCount = Math.max(1, Math.min(numSplits, amps));
+    List<InputSplit> splits = new ArrayList<>();
+    for (int i = 0; i < splitCount; i++) {
+      // the first splits get one more AMP each if the AMPs cannot be spread evenly
+      int lowerAmp = i * (amps / splitCount) + Math.min(i, amps % splitCount);
+      int upperAmp = lowerAmp + amps / splitCount + (i < amps % splitCount ? 1 : 0) - 1;
+      splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(String.format("%s >= %d", amp, lowerAmp),
+                                                                    String.format("%s <= %d", amp, upperAmp)));
+    }
+    return splits;
+  }
+
+  private static String unquote(String identifier) {
+    String trimmed = identifier.trim();
+    if (trimmed.length() > 1 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+      return trimmed.substring(1, trimmed.length() - 1);
+    }
+    return trimmed;
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.teradata.source;
+
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Unit tests for {@link TeradataSplitPlanner}.
+ */
+public class TeradataSplitPlannerTest {
+  private static final String AMP = "HASHAMP(HASHBUCKET(HASHROW(\"id\")))";
+
+  @Test
+  public void testRemainingAmpsGoToFirstSplits() {
+    List<InputSplit> splits = TeradataSplitPlanner.getAmpSplits(AMP, 10, 4);
+    Assert.assertEquals(4, splits.size());
+    assertAmps(splits.get(0), 0, 2);
+    assertAmps(splits.get(1), 3, 5);
+    assertAmps(splits.get(2), 6, 7);
+    assertAmps(splits.get(3), 8, 9);
+
+    splits = TeradataSplitPlanner.getAmpSplits(AMP, 7, 3);
+    Assert.assertEquals(3, splits.size());
+    assertAmps(splits.get(0), 0, 2);
+    assertAmps(splits.get(1), 3, 4);
+    assertAmps(splits.get(2), 5, 6);
+  }
+
+  @Test
+  public void testSplitsAreLimitedToAmps() {
+    List<InputSplit> splits = TeradataSplitPlanner.getAmpSplits(AMP, 2, 5);
+    Assert.assertEquals(2, splits.size());
+    assertAmps(splits.get(0), 0, 0);
+    assertAmps(splits.get(1), 1, 1);
+  }
+
+  @Test
+  public void testEveryAmpIsReadOnce() {
+    for (int amps = 1; amps <= 40; amps++) {
+      for (int numSplits = 1; numSplits <= 12; numSplits++) {
+        List<InputSplit> splits = TeradataSplitPlanner.getAmpSplits(AMP, amps, numSplits);
+        int next = 0;
+        for (InputSplit split : splits) {
+          int lower = getAmp(((DataDrivenDBInputFormat.DataDrivenDBInputSplit) split).getLowerClause());
+          int upper = getAmp(((DataDrivenDBInputFormat.DataDrivenDBInputSplit) split).getUpperClause());
+          Assert.assertEquals(next, lower);
+          // the ranges differ by at most one AMP
+          Assert.assertTrue(upper - lower + 1 >= amps / splits.size());
+          Assert.assertTrue(upper - lower + 1 <= (amps + splits.size() - 1) / splits.size());
+          next = upper + 1;
+        }
+        Assert.assertEquals(amps, next);
+      }
+    }
+  }
+
+  private static void assertAmps(InputSplit split, int lower, int upper) {
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit ampSplit = (DataDrivenDBInputFormat.DataDrivenDBInputSplit) split;
+    Assert.assertEquals(AMP + " >= " + lower, ampSplit.getLowerClause());
+    Assert.assertEquals(AMP + " <= " + upper, ampSplit.getUpperClause());
+  }
+
+  private static int getAmp(String clause) {
+    return Integer.parseInt(clause.substring(clause.lastIndexOf(' ') + 1));
+  }
+}